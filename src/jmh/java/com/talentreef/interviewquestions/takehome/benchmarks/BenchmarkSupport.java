@@ -0,0 +1,51 @@
+package com.talentreef.interviewquestions.takehome.benchmarks;
+
+import com.talentreef.interviewquestions.InterviewQuestionsApplication;
+import com.talentreef.interviewquestions.takehome.models.Widget;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Shared fixtures: a quiet, non-web application context on its own in-memory database, and synthetic widgets.
+ */
+final class BenchmarkSupport {
+
+  private BenchmarkSupport() {
+  }
+
+  static ConfigurableApplicationContext startApplication(String databaseName, String... properties) {
+    List<String> allProperties = new ArrayList<>(List.of(
+        "spring.datasource.url=jdbc:h2:mem:" + databaseName + ";DB_CLOSE_DELAY=-1",
+        "spring.h2.console.enabled=false",
+        "logging.level.root=warn",
+        "logging.level.org.hibernate=warn",
+        "logging.level.org.springframework.orm.jpa=warn"));
+    allProperties.addAll(List.of(properties));
+
+    return new SpringApplicationBuilder(InterviewQuestionsApplication.class)
+        .web(WebApplicationType.NONE)
+        .properties(allProperties.toArray(String[]::new))
+        .run();
+  }
+
+  static Widget widget(String prefix, long i) {
+    return Widget.builder()
+        .name(prefix + "-" + i)
+        .description("Synthetic benchmark widget number " + i + " with a reasonably sized description")
+        .price(BigDecimal.valueOf(100 + i % 1_999_900, 2))
+        .build();
+  }
+
+  static List<Widget> widgets(String prefix, int from, int count) {
+    List<Widget> widgets = new ArrayList<>(count);
+    for (int i = from; i < from + count; i++) {
+      widgets.add(widget(prefix, i));
+    }
+    return widgets;
+  }
+}
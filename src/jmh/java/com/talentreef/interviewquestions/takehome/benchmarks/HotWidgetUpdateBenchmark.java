@@ -0,0 +1,70 @@
+package com.talentreef.interviewquestions.takehome.benchmarks;
+
+import com.talentreef.interviewquestions.takehome.models.Widget;
+import com.talentreef.interviewquestions.takehome.respositories.WidgetRepository;
+import com.talentreef.interviewquestions.takehome.services.WidgetService;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * Price updates concentrated on a few hot widgets from 8 threads: each update in its own transaction, or
+ * acknowledged from the write-behind view and flushed in coalesced batches.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Threads(8)
+@Fork(1)
+public class HotWidgetUpdateBenchmark {
+
+  private static final int HOT_WIDGETS = 16;
+
+  @Param({"false", "true"})
+  private boolean writeBehind;
+
+  private Path journal;
+
+  private ConfigurableApplicationContext context;
+
+  private WidgetService widgetService;
+
+  @Setup(Level.Trial)
+  public void setUp() throws IOException {
+    journal = Files.createTempDirectory("widget-journal");
+    context = BenchmarkSupport.startApplication("hot-updates-" + writeBehind,
+        "widgets.write-behind.enabled=" + writeBehind,
+        "widgets.write-behind.journal-dir=" + journal);
+    context.getBean(WidgetRepository.class).saveAll(BenchmarkSupport.widgets("hot", 0, HOT_WIDGETS));
+    widgetService = context.getBean(WidgetService.class);
+  }
+
+  @TearDown(Level.Trial)
+  public void tearDown() throws IOException {
+    context.close();
+    try (Stream<Path> files = Files.walk(journal)) {
+      for (Path file : files.sorted(Comparator.reverseOrder()).toList()) {
+        Files.delete(file);
+      }
+    }
+  }
+
+  @Benchmark
+  public Widget updatePrice() {
+    ThreadLocalRandom random = ThreadLocalRandom.current();
+    Widget update = BenchmarkSupport.widget("hot", random.nextInt(HOT_WIDGETS)).toBuilder()
+        .price(BigDecimal.valueOf(random.nextLong(100, 2_000_000), 2))
+        .build();
+    return widgetService.updateWidget(update);
+  }
+}
@@ -0,0 +1,81 @@
+package com.talentreef.interviewquestions.takehome.benchmarks;
+
+import com.talentreef.interviewquestions.takehome.models.Widget;
+import com.talentreef.interviewquestions.takehome.models.WidgetOperation;
+import com.talentreef.interviewquestions.takehome.respositories.WidgetRepository;
+import com.talentreef.interviewquestions.takehome.services.WidgetBatchService;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.data.domain.PageRequest;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Repository throughput from 8 threads as the catalog is spread over more shards: single-shard lookups and
+ * in-place updates, and price-ordered pages that fan out to every shard and are merged. One shard is the
+ * unpartitioned setup.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Threads(8)
+@Fork(value = 1, jvmArgsAppend = "-Xmx2g")
+public class ShardScalingBenchmark {
+
+  private static final int WIDGETS = 100_000;
+
+  private static final int LOAD_BATCH = 1000;
+
+  @Param({"1", "2", "4", "8"})
+  private int shards;
+
+  private ConfigurableApplicationContext context;
+
+  private WidgetRepository widgetRepository;
+
+  @Setup(Level.Trial)
+  public void setUp() {
+    context = BenchmarkSupport.startApplication("shards-" + shards,
+        "widgets.shards.count=" + shards,
+        "widgets.shards.url=jdbc:h2:mem:shard-benchmark-" + shards + "-%d;DB_CLOSE_DELAY=-1",
+        "spring.jpa.hibernate.ddl-auto=" + (shards == 1 ? "update" : "none"));
+    widgetRepository = context.getBean(WidgetRepository.class);
+    WidgetBatchService widgetBatchService = context.getBean(WidgetBatchService.class);
+    for (int from = 0; from < WIDGETS; from += LOAD_BATCH) {
+      widgetBatchService.applyBatch(BenchmarkSupport.widgets("sharded", from, LOAD_BATCH).stream()
+          .map(widget -> WidgetOperation.builder().type(WidgetOperation.Type.CREATE).widget(widget).build())
+          .toList());
+    }
+  }
+
+  @TearDown(Level.Trial)
+  public void tearDown() {
+    context.close();
+  }
+
+  @Benchmark
+  public Optional<Widget> lookup() {
+    return widgetRepository.findByNormalizedName(randomName());
+  }
+
+  @Benchmark
+  public Optional<Widget> updateInPlace() {
+    return widgetRepository.updateInPlace(randomName(), null,
+        BigDecimal.valueOf(ThreadLocalRandom.current().nextLong(100, 2_000_000), 2), null);
+  }
+
+  @Benchmark
+  public List<Widget> pageByPrice() {
+    return widgetRepository.findAllByOrderByPriceAscNameAsc(PageRequest.ofSize(101));
+  }
+
+  private static String randomName() {
+    return Widget.normalize(BenchmarkSupport.widget("sharded", ThreadLocalRandom.current().nextInt(WIDGETS)).getName());
+  }
+}
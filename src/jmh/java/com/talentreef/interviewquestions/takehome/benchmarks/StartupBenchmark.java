@@ -0,0 +1,91 @@
+package com.talentreef.interviewquestions.takehome.benchmarks;
+
+import com.talentreef.interviewquestions.takehome.models.Widget;
+import com.talentreef.interviewquestions.takehome.respositories.WidgetRepository;
+import com.talentreef.interviewquestions.takehome.snapshot.WidgetSnapshotFormat;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Time from launch to a ready context with a large synthetic seed, replayed from a data.sql-style script with
+ * schema diffing against restored from a binary snapshot. Every invocation starts on a fresh in-memory database.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 1)
+@Measurement(iterations = 3)
+@Fork(value = 1, jvmArgsAppend = "-Xmx2g")
+public class StartupBenchmark {
+
+  @Param({"sql", "snapshot"})
+  private String seed;
+
+  @Param({"100000", "1000000"})
+  private int widgets;
+
+  private Path directory;
+
+  private Path seedFile;
+
+  private int run;
+
+  @Setup(Level.Trial)
+  public void setUp() throws IOException {
+    directory = Files.createTempDirectory("widget-startup");
+    seedFile = seed.equals("sql") ? writeSql(directory.resolve("seed.sql")) : writeSnapshot(directory.resolve("widgets.snapshot"));
+  }
+
+  @TearDown(Level.Trial)
+  public void tearDown() throws IOException {
+    Files.deleteIfExists(seedFile);
+    Files.deleteIfExists(directory);
+  }
+
+  @Benchmark
+  public long start() {
+    String database = "startup" + run++;
+    String[] properties = seed.equals("sql")
+        ? new String[] {
+            "spring.jpa.hibernate.ddl-auto=update",
+            "spring.sql.init.mode=always",
+            "spring.sql.init.data-locations=file:" + seedFile}
+        : new String[] {
+            "spring.jpa.hibernate.ddl-auto=create",
+            "spring.sql.init.mode=never",
+            "widgets.snapshot.load-on-startup=true",
+            "widgets.snapshot.path=" + seedFile};
+    try (ConfigurableApplicationContext context = BenchmarkSupport.startApplication(database, properties)) {
+      return context.getBean(WidgetRepository.class).count();
+    }
+  }
+
+  private Path writeSql(Path file) throws IOException {
+    try (BufferedWriter out = Files.newBufferedWriter(file)) {
+      for (int i = 0; i < widgets; i++) {
+        Widget widget = BenchmarkSupport.widget("startup", i);
+        out.write("INSERT INTO widgets (name, normalized_name, description, price, version) VALUES ('"
+            + widget.getName() + "', '" + Widget.normalize(widget.getName()) + "', '" + widget.getDescription()
+            + "', " + widget.getPrice() + ", 0);\n");
+      }
+    }
+    return file;
+  }
+
+  private Path writeSnapshot(Path file) throws IOException {
+    try (OutputStream out = Files.newOutputStream(file);
+         WidgetSnapshotFormat.Output output = WidgetSnapshotFormat.open(out)) {
+      for (int i = 0; i < widgets; i++) {
+        output.write(BenchmarkSupport.widget("startup", i).toBuilder().version(0L).build());
+      }
+    }
+    return file;
+  }
+}
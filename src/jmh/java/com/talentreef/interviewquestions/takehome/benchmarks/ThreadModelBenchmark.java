@@ -0,0 +1,75 @@
+package com.talentreef.interviewquestions.takehome.benchmarks;
+
+import com.talentreef.interviewquestions.takehome.models.Widget;
+import com.talentreef.interviewquestions.takehome.respositories.WidgetRepository;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Blocking repository lookups fanned out at high concurrency, on a 200-thread platform pool (Tomcat's default)
+ * against a virtual thread per task, both in front of the same 20-connection pool. One operation is a burst of
+ * {@code concurrency} lookups; the gc profiler reports the memory allocated per burst.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx1g")
+public class ThreadModelBenchmark {
+
+  private static final int WIDGETS = 10_000;
+
+  @Param({"platform", "virtual"})
+  private String threads;
+
+  @Param({"1000", "10000"})
+  private int concurrency;
+
+  private ConfigurableApplicationContext context;
+
+  private WidgetRepository widgetRepository;
+
+  private ExecutorService executor;
+
+  @Setup(Level.Trial)
+  public void setUp() {
+    context = BenchmarkSupport.startApplication("threadmodel",
+        "spring.datasource.hikari.maximum-pool-size=20");
+    widgetRepository = context.getBean(WidgetRepository.class);
+    widgetRepository.saveAll(BenchmarkSupport.widgets("threads", 0, WIDGETS));
+    executor = threads.equals("virtual")
+        ? Executors.newVirtualThreadPerTaskExecutor()
+        : Executors.newFixedThreadPool(200);
+  }
+
+  @TearDown(Level.Trial)
+  public void tearDown() {
+    executor.shutdownNow();
+    context.close();
+  }
+
+  @Benchmark
+  public int lookupBurst() throws InterruptedException, ExecutionException {
+    List<Future<Widget>> lookups = new ArrayList<>(concurrency);
+    for (int i = 0; i < concurrency; i++) {
+      String name = Widget.normalize(BenchmarkSupport.widget("threads", i % WIDGETS).getName());
+      lookups.add(executor.submit(() -> widgetRepository.findByNormalizedName(name).orElseThrow()));
+    }
+    int found = 0;
+    for (Future<Widget> lookup : lookups) {
+      if (lookup.get() != null) {
+        found++;
+      }
+    }
+    return found;
+  }
+}
@@ -0,0 +1,70 @@
+package com.talentreef.interviewquestions.takehome.benchmarks;
+
+import com.talentreef.interviewquestions.takehome.models.Widget;
+import com.talentreef.interviewquestions.takehome.models.WidgetOperation;
+import com.talentreef.interviewquestions.takehome.models.WidgetOperationResult;
+import com.talentreef.interviewquestions.takehome.services.WidgetBatchService;
+import com.talentreef.interviewquestions.takehome.services.WidgetService;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Creating the same number of widgets one request at a time versus through one batch. Scores are per widget.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class WidgetBatchBenchmark {
+
+  private static final int WIDGETS = 500;
+
+  private ConfigurableApplicationContext context;
+
+  private WidgetService widgetService;
+
+  private WidgetBatchService widgetBatchService;
+
+  private int next;
+
+  @Setup(Level.Trial)
+  public void setUp() {
+    context = BenchmarkSupport.startApplication("batch-benchmark");
+    widgetService = context.getBean(WidgetService.class);
+    widgetBatchService = context.getBean(WidgetBatchService.class);
+  }
+
+  @TearDown(Level.Trial)
+  public void tearDown() {
+    context.close();
+  }
+
+  @Benchmark
+  @OperationsPerInvocation(WIDGETS)
+  public Widget singleCreates() {
+    Widget last = null;
+    for (Widget widget : nextWidgets("single")) {
+      last = widgetService.createWidget(widget);
+    }
+    return last;
+  }
+
+  @Benchmark
+  @OperationsPerInvocation(WIDGETS)
+  public List<WidgetOperationResult> batchCreate() {
+    return widgetBatchService.applyBatch(nextWidgets("batch").stream()
+        .map(widget -> WidgetOperation.builder().type(WidgetOperation.Type.CREATE).widget(widget).build())
+        .toList());
+  }
+
+  private List<Widget> nextWidgets(String prefix) {
+    List<Widget> widgets = BenchmarkSupport.widgets(prefix, next, WIDGETS);
+    next += WIDGETS;
+    return widgets;
+  }
+}
@@ -0,0 +1,104 @@
+package com.talentreef.interviewquestions.takehome.benchmarks;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.math.BigDecimal;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the query Spring Data derives for findByNameIgnoreCase against the indexed normalized_name lookup.
+ * The upper(name) variant grows linearly with the table while the normalized variant stays flat.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class WidgetLookupBenchmark {
+
+  @Param({"1000", "10000", "100000"})
+  private int rows;
+
+  private Connection connection;
+
+  private PreparedStatement upperNameLookup;
+
+  private PreparedStatement normalizedNameLookup;
+
+  private int next;
+
+  @Setup(Level.Trial)
+  public void setUp() throws SQLException {
+    connection = DriverManager.getConnection("jdbc:h2:mem:lookup-" + rows, "sa", "");
+    try (Statement statement = connection.createStatement()) {
+      statement.execute("create table widgets (name varchar(100) not null primary key, "
+          + "normalized_name varchar(100) not null, description varchar(1000) not null, price numeric(38,2) not null, "
+          + "constraint uk_widgets_normalized_name unique (normalized_name))");
+    }
+
+    connection.setAutoCommit(false);
+    try (PreparedStatement insert = connection.prepareStatement(
+        "insert into widgets (name, normalized_name, description, price) values (?, ?, ?, ?)")) {
+      for (int i = 0; i < rows; i++) {
+        String name = name(i);
+        insert.setString(1, name);
+        insert.setString(2, name.toLowerCase(Locale.ROOT));
+        insert.setString(3, "Benchmark widget number " + i);
+        insert.setBigDecimal(4, BigDecimal.valueOf(100 + i % 10_000, 2));
+        insert.addBatch();
+        if (i % 1_000 == 999) {
+          insert.executeBatch();
+        }
+      }
+      insert.executeBatch();
+    }
+    connection.commit();
+    connection.setAutoCommit(true);
+
+    upperNameLookup = connection.prepareStatement("select name, description, price from widgets where upper(name) = upper(?)");
+    normalizedNameLookup = connection.prepareStatement("select name, description, price from widgets where normalized_name = ?");
+  }
+
+  @TearDown(Level.Trial)
+  public void tearDown() throws SQLException {
+    try (Statement statement = connection.createStatement()) {
+      statement.execute("drop all objects");
+    }
+    connection.close();
+  }
+
+  @Benchmark
+  public boolean upperName() throws SQLException {
+    upperNameLookup.setString(1, nextName().toUpperCase(Locale.ROOT));
+    return exists(upperNameLookup);
+  }
+
+  @Benchmark
+  public boolean normalizedName() throws SQLException {
+    normalizedNameLookup.setString(1, nextName().toLowerCase(Locale.ROOT));
+    return exists(normalizedNameLookup);
+  }
+
+  private String nextName() {
+    next = (next + 7919) % rows;
+    return name(next);
+  }
+
+  private static String name(int i) {
+    return "Widget-" + i;
+  }
+
+  private static boolean exists(PreparedStatement statement) throws SQLException {
+    try (ResultSet resultSet = statement.executeQuery()) {
+      return resultSet.next();
+    }
+  }
+}
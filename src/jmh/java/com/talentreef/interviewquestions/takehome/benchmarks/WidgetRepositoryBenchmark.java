@@ -0,0 +1,57 @@
+package com.talentreef.interviewquestions.takehome.benchmarks;
+
+import com.talentreef.interviewquestions.takehome.models.Widget;
+import com.talentreef.interviewquestions.takehome.models.WidgetOperation;
+import com.talentreef.interviewquestions.takehome.respositories.WidgetRepository;
+import com.talentreef.interviewquestions.takehome.services.WidgetBatchService;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Repository lookups by normalized name at growing table sizes; the cost should not grow with the row count.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class WidgetRepositoryBenchmark {
+
+  private static final int SEED_BATCH = 1_000;
+
+  @Param({"1000", "10000", "100000"})
+  private int rows;
+
+  private ConfigurableApplicationContext context;
+
+  private WidgetRepository widgetRepository;
+
+  private int next;
+
+  @Setup(Level.Trial)
+  public void setUp() {
+    context = BenchmarkSupport.startApplication("repository-benchmark-" + rows);
+    widgetRepository = context.getBean(WidgetRepository.class);
+    WidgetBatchService widgetBatchService = context.getBean(WidgetBatchService.class);
+    for (int from = 0; from < rows; from += SEED_BATCH) {
+      widgetBatchService.applyBatch(BenchmarkSupport.widgets("row", from, Math.min(SEED_BATCH, rows - from)).stream()
+          .map(widget -> WidgetOperation.builder().type(WidgetOperation.Type.CREATE).widget(widget).build())
+          .toList());
+    }
+  }
+
+  @TearDown(Level.Trial)
+  public void tearDown() {
+    context.close();
+  }
+
+  @Benchmark
+  public Optional<Widget> findByNormalizedName() {
+    next = (next + 7919) % rows;
+    return widgetRepository.findByNormalizedName("row-" + next);
+  }
+}
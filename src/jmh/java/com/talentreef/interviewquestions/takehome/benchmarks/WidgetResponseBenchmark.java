@@ -0,0 +1,91 @@
+package com.talentreef.interviewquestions.takehome.benchmarks;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.talentreef.interviewquestions.takehome.controllers.WidgetResponseCache;
+import com.talentreef.interviewquestions.takehome.models.Widget;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpOutputMessage;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.ByteArrayHttpMessageConverter;
+import org.springframework.http.converter.json.MappingJackson2HttpMessageConverter;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Writing the catalog response the way Spring MVC does for {@code ResponseEntity<List<Widget>>} against writing
+ * the cached bytes. Run with the gc profiler ({@code gc.alloc.rate.norm}) to compare allocations per response.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class WidgetResponseBenchmark {
+
+  @Param({"10", "1000", "10000"})
+  private int size;
+
+  private MappingJackson2HttpMessageConverter jsonConverter;
+
+  private ByteArrayHttpMessageConverter byteArrayConverter;
+
+  private WidgetResponseCache widgetResponseCache;
+
+  private List<Widget> widgets;
+
+  private final ResponseBody response = new ResponseBody();
+
+  @Setup(Level.Trial)
+  public void setUp() {
+    ObjectMapper objectMapper = new ObjectMapper();
+    jsonConverter = new MappingJackson2HttpMessageConverter(objectMapper);
+    byteArrayConverter = new ByteArrayHttpMessageConverter();
+    widgetResponseCache = new WidgetResponseCache(objectMapper, new SimpleMeterRegistry(), 100);
+    widgets = BenchmarkSupport.widgets("response", 0, size);
+    widgetResponseCache.catalog(1, () -> widgets);
+  }
+
+  @Benchmark
+  public int serializeList() throws IOException {
+    response.reset();
+    jsonConverter.write(widgets, MediaType.APPLICATION_JSON, response);
+    return response.body.size();
+  }
+
+  @Benchmark
+  public int writeCachedBytes() throws IOException {
+    response.reset();
+    byteArrayConverter.write(widgetResponseCache.catalog(1, () -> widgets), MediaType.APPLICATION_JSON, response);
+    return response.body.size();
+  }
+
+  // Reused across invocations so the response buffer does not dominate the allocation figures
+  private static final class ResponseBody implements HttpOutputMessage {
+
+    private final ByteArrayOutputStream body = new ByteArrayOutputStream(1 << 20);
+
+    private HttpHeaders headers = new HttpHeaders();
+
+    void reset() {
+      body.reset();
+      headers = new HttpHeaders();
+    }
+
+    @Override
+    public OutputStream getBody() {
+      return body;
+    }
+
+    @Override
+    public HttpHeaders getHeaders() {
+      return headers;
+    }
+  }
+}
@@ -0,0 +1,116 @@
+package com.talentreef.interviewquestions.takehome.benchmarks;
+
+import com.talentreef.interviewquestions.takehome.models.Widget;
+import com.talentreef.interviewquestions.takehome.services.WidgetSearchIndex;
+import org.openjdk.jmh.annotations.*;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Query latency of the in-memory search index at catalog sizes up to 1M widgets. Names and descriptions are
+ * drawn from a vocabulary of random words, so terms have realistic posting sizes rather than every widget
+ * sharing the same description. One term is in every description and in 1% of the names, the worst case
+ * for a single-term query.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class WidgetSearchBenchmark {
+
+  private static final int VOCABULARY = 20_000;
+
+  private static final int QUERIES = 1024;
+
+  private static final String COMMON_TERM = "widget";
+
+  @Param({"100000", "1000000"})
+  private int widgets;
+
+  private WidgetSearchIndex index;
+
+  private String[] words;
+
+  private String[] exactQueries;
+
+  private String[] prefixQueries;
+
+  private String[] twoTermQueries;
+
+  private int next;
+
+  @Setup(Level.Trial)
+  public void setUp() {
+    Random random = new Random(42);
+    words = new String[VOCABULARY];
+    for (int i = 0; i < VOCABULARY; i++) {
+      words[i] = word(random);
+    }
+
+    index = new WidgetSearchIndex();
+    for (int i = 0; i < widgets; i++) {
+      StringBuilder description = new StringBuilder();
+      for (int w = 0; w < 8; w++) {
+        description.append(randomWord(random)).append(' ');
+      }
+      description.append(COMMON_TERM);
+      String name = randomWord(random) + " " + randomWord(random) + " " + i;
+      index.add(Widget.builder()
+          .name(i % 100 == 0 ? name + " " + COMMON_TERM : name)
+          .description(description.toString().trim())
+          .price(BigDecimal.valueOf(100 + i % 1_999_900, 2))
+          .build());
+    }
+
+    exactQueries = new String[QUERIES];
+    prefixQueries = new String[QUERIES];
+    twoTermQueries = new String[QUERIES];
+    for (int i = 0; i < QUERIES; i++) {
+      exactQueries[i] = randomWord(random);
+      prefixQueries[i] = randomWord(random).substring(0, WidgetSearchIndex.MIN_PREFIX_LENGTH);
+      twoTermQueries[i] = randomWord(random) + " " + randomWord(random).substring(0, 3);
+    }
+  }
+
+  @Benchmark
+  public List<Widget> exactTerm() {
+    return index.search(exactQueries[nextQuery()], 20);
+  }
+
+  @Benchmark
+  public List<Widget> shortestPrefix() {
+    return index.search(prefixQueries[nextQuery()], 20);
+  }
+
+  @Benchmark
+  public List<Widget> highFrequencyTerm() {
+    return index.search(COMMON_TERM, 20);
+  }
+
+  @Benchmark
+  public List<Widget> termAndPrefix() {
+    return index.search(twoTermQueries[nextQuery()], 20);
+  }
+
+  private int nextQuery() {
+    next = (next + 1) & (QUERIES - 1);
+    return next;
+  }
+
+  private String randomWord(Random random) {
+    return words[random.nextInt(VOCABULARY)];
+  }
+
+  private static String word(Random random) {
+    char[] letters = new char[4 + random.nextInt(7)];
+    for (int i = 0; i < letters.length; i++) {
+      letters[i] = (char) ('a' + random.nextInt(26));
+    }
+    return new String(letters);
+  }
+}
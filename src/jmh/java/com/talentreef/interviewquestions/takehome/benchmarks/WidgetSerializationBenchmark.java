@@ -0,0 +1,55 @@
+package com.talentreef.interviewquestions.takehome.benchmarks;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.talentreef.interviewquestions.takehome.models.Widget;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Jackson encoding and decoding of widget lists of the sizes the list endpoints return.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class WidgetSerializationBenchmark {
+
+  @Param({"10", "1000", "10000"})
+  private int size;
+
+  private ObjectWriter writer;
+
+  private ObjectReader reader;
+
+  private List<Widget> widgets;
+
+  private byte[] json;
+
+  @Setup(Level.Trial)
+  public void setUp() throws JsonProcessingException {
+    ObjectMapper objectMapper = new ObjectMapper();
+    writer = objectMapper.writerFor(new TypeReference<List<Widget>>() {});
+    reader = objectMapper.readerFor(new TypeReference<List<Widget>>() {});
+    widgets = BenchmarkSupport.widgets("serialized", 0, size);
+    json = writer.writeValueAsBytes(widgets);
+  }
+
+  @Benchmark
+  public byte[] serialize() throws JsonProcessingException {
+    return writer.writeValueAsBytes(widgets);
+  }
+
+  @Benchmark
+  public List<Widget> deserialize() throws IOException {
+    return reader.readValue(json);
+  }
+}
@@ -0,0 +1,80 @@
+package com.talentreef.interviewquestions.takehome.benchmarks;
+
+import com.talentreef.interviewquestions.takehome.models.Widget;
+import com.talentreef.interviewquestions.takehome.models.WidgetPage;
+import com.talentreef.interviewquestions.takehome.models.WidgetSort;
+import com.talentreef.interviewquestions.takehome.services.WidgetCache;
+import com.talentreef.interviewquestions.takehome.services.WidgetService;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.math.BigDecimal;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * WidgetService CRUD against the embedded H2 database, including the cache and event listeners.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class WidgetServiceBenchmark {
+
+  private static final int SEEDED = 10_000;
+
+  private ConfigurableApplicationContext context;
+
+  private WidgetService widgetService;
+
+  private WidgetCache widgetCache;
+
+  private long next;
+
+  @Setup(Level.Trial)
+  public void setUp() {
+    context = BenchmarkSupport.startApplication("service-benchmark");
+    widgetService = context.getBean(WidgetService.class);
+    widgetCache = context.getBean(WidgetCache.class);
+    for (int i = 0; i < SEEDED; i++) {
+      widgetService.createWidget(BenchmarkSupport.widget("seeded", i));
+    }
+  }
+
+  @TearDown(Level.Trial)
+  public void tearDown() {
+    context.close();
+  }
+
+  /**
+   * The lookup as it runs on a cache miss: the name filter, the database query and the cache fill. The entry
+   * is evicted first, otherwise every seeded name is a cache hit after warmup.
+   */
+  @Benchmark
+  public Widget getWidgetByName() {
+    next = (next + 7919) % SEEDED;
+    String name = "seeded-" + next;
+    widgetCache.evict(name);
+    return widgetService.getWidgetByName(name);
+  }
+
+  @Benchmark
+  public Widget getWidgetByNameCached() {
+    next = (next + 7919) % SEEDED;
+    return widgetService.getWidgetByName("seeded-" + next);
+  }
+
+  @Benchmark
+  public Widget createUpdateDelete() {
+    Widget widget = BenchmarkSupport.widget("cycle", next++);
+    widgetService.createWidget(widget);
+    widgetService.updateWidget(widget.toBuilder().price(new BigDecimal("42.00")).build());
+    return widgetService.deleteWidgetByName(widget.getName());
+  }
+
+  @Benchmark
+  public WidgetPage getWidgetsPage() {
+    return widgetService.getWidgetsPage(100, null, WidgetSort.PRICE);
+  }
+}
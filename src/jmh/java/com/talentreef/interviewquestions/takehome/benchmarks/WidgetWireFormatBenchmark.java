@@ -0,0 +1,95 @@
+package com.talentreef.interviewquestions.takehome.benchmarks;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.dataformat.cbor.databind.CBORMapper;
+import com.talentreef.interviewquestions.takehome.models.Widget;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Encode and decode time of a large widget list as JSON and CBOR, with and without gzip. The bytes each
+ * combination puts on the wire are reported next to every result as the {@code wireBytes} secondary metric.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class WidgetWireFormatBenchmark {
+
+  @Param({"json", "cbor"})
+  private String format;
+
+  @Param({"false", "true"})
+  private boolean gzip;
+
+  @Param({"10000"})
+  private int size;
+
+  private ObjectWriter writer;
+
+  private ObjectReader reader;
+
+  private List<Widget> widgets;
+
+  private byte[] wire;
+
+  @Setup(Level.Trial)
+  public void setUp() throws IOException {
+    ObjectMapper objectMapper = format.equals("cbor") ? new CBORMapper() : new ObjectMapper();
+    TypeReference<List<Widget>> type = new TypeReference<>() {};
+    writer = objectMapper.writerFor(type);
+    reader = objectMapper.readerFor(type);
+    widgets = BenchmarkSupport.widgets("wire", 0, size);
+    wire = write();
+  }
+
+  @Benchmark
+  public byte[] encode(WireSize wireSize) throws IOException {
+    byte[] bytes = write();
+    wireSize.wireBytes = bytes.length;
+    return bytes;
+  }
+
+  @Benchmark
+  public List<Widget> decode(WireSize wireSize) throws IOException {
+    wireSize.wireBytes = wire.length;
+    try (InputStream in = gzip ? new GZIPInputStream(new ByteArrayInputStream(wire)) : new ByteArrayInputStream(wire)) {
+      return reader.readValue(in);
+    }
+  }
+
+  private byte[] write() throws IOException {
+    if (!gzip) {
+      return writer.writeValueAsBytes(widgets);
+    }
+    ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    try (GZIPOutputStream out = new GZIPOutputStream(bytes)) {
+      writer.writeValue(out, widgets);
+    }
+    return bytes.toByteArray();
+  }
+
+  /**
+   * An events counter is reported as the value it holds, so assigning the size rather than adding to it
+   * reports the size of one encoded list.
+   */
+  @State(Scope.Thread)
+  @AuxCounters(AuxCounters.Type.EVENTS)
+  public static class WireSize {
+
+    public long wireBytes;
+  }
+}
@@ -2,11 +2,15 @@ package com.talentreef.interviewquestions;
 
 import com.talentreef.interviewquestions.exceptions.ElementAlreadyExistsException;
 import com.talentreef.interviewquestions.exceptions.ElementNotFoundException;
+import com.talentreef.interviewquestions.exceptions.ElementVersionConflictException;
+import com.talentreef.interviewquestions.exceptions.InvalidRequestException;
+import com.talentreef.interviewquestions.exceptions.ServiceUnavailableException;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.HttpStatusCode;
 import org.springframework.http.ResponseEntity;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
 import org.springframework.web.bind.MethodArgumentNotValidException;
 import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.bind.annotation.RestControllerAdvice;
@@ -43,4 +47,27 @@ public class RestResponseEntityExceptionHandler extends ResponseEntityExceptionH
     return new ResponseEntity<>(ex.getMessage(), HttpStatus.BAD_REQUEST);
   }
 
+  @ExceptionHandler(ElementVersionConflictException.class)
+  public ResponseEntity<Object> handleElementVersionConflictException(ElementVersionConflictException ex) {
+    return new ResponseEntity<>(ex.getMessage(), HttpStatus.CONFLICT);
+  }
+
+  @ExceptionHandler(ObjectOptimisticLockingFailureException.class)
+  public ResponseEntity<Object> handleOptimisticLockingFailureException(ObjectOptimisticLockingFailureException ex) {
+    log.error("Concurrent widget modification", ex);
+    return new ResponseEntity<>("Widget was modified concurrently, reload it and try again", HttpStatus.CONFLICT);
+  }
+
+  @ExceptionHandler(InvalidRequestException.class)
+  public ResponseEntity<Object> handleInvalidRequestException(InvalidRequestException ex) {
+    return new ResponseEntity<>(ex.getMessage(), HttpStatus.BAD_REQUEST);
+  }
+
+  @ExceptionHandler(ServiceUnavailableException.class)
+  public ResponseEntity<Object> handleServiceUnavailableException(ServiceUnavailableException ex) {
+    return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+        .header(HttpHeaders.RETRY_AFTER, String.valueOf(ex.getRetryAfterSeconds()))
+        .body(ex.getMessage());
+  }
+
 }
@@ -1,15 +1,27 @@
 package com.talentreef.interviewquestions;
 
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpMethod;
+import org.springframework.http.converter.cbor.MappingJackson2CborHttpMessageConverter;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
 import org.springframework.web.servlet.config.annotation.CorsRegistry;
 import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
 
 @Configuration
 public class WebConfig {
 
+    // Sent by EventSource when it reconnects to /v1/widgets/changes; HttpHeaders has no constant for it
+    private static final String LAST_EVENT_ID = "Last-Event-ID";
+
+    // Registered next to the JSON converter so clients can send and accept application/cbor
+    @Bean
+    public MappingJackson2CborHttpMessageConverter cborHttpMessageConverter(Jackson2ObjectMapperBuilder builder) {
+        return new MappingJackson2CborHttpMessageConverter(builder.factory(new CBORFactory()).build());
+    }
+
     @Bean
     public WebMvcConfigurer corsConfig() {
         return new WebMvcConfigurer() {
@@ -21,12 +33,19 @@ public class WebConfig {
                                 HttpMethod.GET.name(),
                                 HttpMethod.POST.name(),
                                 HttpMethod.PUT.name(),
+                                HttpMethod.PATCH.name(),
                                 HttpMethod.DELETE.name()
                         )
                         .allowedHeaders(
                                 HttpHeaders.CONTENT_TYPE,
-                                HttpHeaders.AUTHORIZATION
-                        );
+                                HttpHeaders.AUTHORIZATION,
+                                HttpHeaders.ACCEPT,
+                                HttpHeaders.IF_NONE_MATCH,
+                                HttpHeaders.IF_MATCH,
+                                LAST_EVENT_ID
+                        )
+                        // Without it browsers hide the tag, and scripts cannot send it back in If-None-Match
+                        .exposedHeaders(HttpHeaders.ETAG);
             }
         };
     }
@@ -0,0 +1,26 @@
+package com.talentreef.interviewquestions.admission;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+@Configuration
+public class AdmissionControlConfig implements WebMvcConfigurer {
+
+    private final AdmissionControlInterceptor admissionControlInterceptor;
+
+    @Autowired
+    public AdmissionControlConfig(AdmissionControlInterceptor admissionControlInterceptor) {
+        this.admissionControlInterceptor = admissionControlInterceptor;
+    }
+
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        // The export and the change feed hold their request open for minutes and would pin the read limit;
+        // imports are just as long and are capped by widgets.import.max-concurrent instead of the write limit
+        registry.addInterceptor(admissionControlInterceptor)
+                .addPathPatterns("/v1/widgets", "/v1/widgets/**")
+                .excludePathPatterns("/v1/widgets/export", "/v1/widgets/changes", "/v1/widgets/import");
+    }
+}
@@ -0,0 +1,118 @@
+package com.talentreef.interviewquestions.admission;
+
+import static net.logstash.logback.argument.StructuredArguments.kv;
+
+import com.talentreef.interviewquestions.exceptions.ServiceUnavailableException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpMethod;
+import org.springframework.stereotype.Component;
+import org.springframework.util.Assert;
+import org.springframework.web.servlet.HandlerInterceptor;
+
+import java.time.Duration;
+
+/**
+ * Admits widget API requests through separate read and write {@link AimdLimiter}s, so a burst of reads cannot
+ * starve writes of database connections or the other way round. Requests over the limit are rejected at once
+ * with 503 instead of queueing in front of Tomcat's and Hikari's pools.
+ */
+@Slf4j
+@Component
+public class AdmissionControlInterceptor implements HandlerInterceptor {
+
+  private static final String ADMISSION_ATTRIBUTE = AdmissionControlInterceptor.class.getName() + ".admission";
+
+  private final AimdLimiter readLimiter;
+
+  private final AimdLimiter writeLimiter;
+
+  private final Counter readRejections;
+
+  private final Counter writeRejections;
+
+  private final long retryAfterSeconds;
+
+  @Autowired
+  public AdmissionControlInterceptor(MeterRegistry meterRegistry,
+                                     @Value("${widgets.admission.read.initial-limit:100}") int readInitialLimit,
+                                     @Value("${widgets.admission.read.min-limit:10}") int readMinLimit,
+                                     @Value("${widgets.admission.read.max-limit:400}") int readMaxLimit,
+                                     @Value("${widgets.admission.read.latency-threshold:250ms}") Duration readLatencyThreshold,
+                                     @Value("${widgets.admission.write.initial-limit:10}") int writeInitialLimit,
+                                     @Value("${widgets.admission.write.min-limit:2}") int writeMinLimit,
+                                     @Value("${widgets.admission.write.max-limit:50}") int writeMaxLimit,
+                                     @Value("${widgets.admission.write.latency-threshold:500ms}") Duration writeLatencyThreshold,
+                                     @Value("${widgets.admission.backoff-ratio:0.9}") double backoffRatio,
+                                     @Value("${widgets.admission.retry-after:1s}") Duration retryAfter) {
+    this(meterRegistry,
+        new AimdLimiter(readInitialLimit, readMinLimit, readMaxLimit, readLatencyThreshold, backoffRatio),
+        new AimdLimiter(writeInitialLimit, writeMinLimit, writeMaxLimit, writeLatencyThreshold, backoffRatio),
+        retryAfter);
+  }
+
+  AdmissionControlInterceptor(MeterRegistry meterRegistry, AimdLimiter readLimiter, AimdLimiter writeLimiter,
+                              Duration retryAfter) {
+    Assert.notNull(meterRegistry, "meterRegistry must not be null");
+    Assert.notNull(readLimiter, "readLimiter must not be null");
+    Assert.notNull(writeLimiter, "writeLimiter must not be null");
+    this.readLimiter = readLimiter;
+    this.writeLimiter = writeLimiter;
+    this.retryAfterSeconds = Math.max(1, retryAfter.toSeconds());
+    this.readRejections = register(meterRegistry, "read", readLimiter);
+    this.writeRejections = register(meterRegistry, "write", writeLimiter);
+  }
+
+  @Override
+  public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+    boolean read = isRead(request);
+    AimdLimiter limiter = read ? readLimiter : writeLimiter;
+    if (!limiter.tryAcquire()) {
+      (read ? readRejections : writeRejections).increment();
+      log.warn("Rejecting widget request over the concurrency limit {} {} {}", kv("method", request.getMethod()),
+          kv("uri", request.getRequestURI()), kv("limit", limiter.getLimit()));
+      throw new ServiceUnavailableException("Widget API is over capacity, retry later", retryAfterSeconds);
+    }
+    request.setAttribute(ADMISSION_ATTRIBUTE, new Admission(limiter, System.nanoTime()));
+    return true;
+  }
+
+  @Override
+  public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler,
+                              Exception ex) {
+    if (request.getAttribute(ADMISSION_ATTRIBUTE) instanceof Admission admission) {
+      request.removeAttribute(ADMISSION_ATTRIBUTE);
+      boolean failed = ex != null || response.getStatus() >= 500;
+      admission.limiter().release(System.nanoTime() - admission.startNanos(), failed);
+    }
+  }
+
+  private static boolean isRead(HttpServletRequest request) {
+    String method = request.getMethod();
+    return HttpMethod.GET.matches(method) || HttpMethod.HEAD.matches(method);
+  }
+
+  private static Counter register(MeterRegistry meterRegistry, String pool, AimdLimiter limiter) {
+    Gauge.builder("widgets.admission.limit", limiter, AimdLimiter::getLimit)
+        .description("Current adaptive concurrency limit")
+        .tag("pool", pool)
+        .register(meterRegistry);
+    Gauge.builder("widgets.admission.inflight", limiter, AimdLimiter::getInFlight)
+        .description("Requests currently admitted")
+        .tag("pool", pool)
+        .register(meterRegistry);
+    return Counter.builder("widgets.admission.rejected")
+        .description("Requests rejected with 503 because the concurrency limit was reached")
+        .tag("pool", pool)
+        .register(meterRegistry);
+  }
+
+  private record Admission(AimdLimiter limiter, long startNanos) {
+  }
+}
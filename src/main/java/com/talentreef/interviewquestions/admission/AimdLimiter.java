@@ -0,0 +1,66 @@
+package com.talentreef.interviewquestions.admission;
+
+import org.springframework.util.Assert;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Concurrency limit that adapts to latency: additive increase while requests complete within the latency
+ * threshold and the limit is actually being used, multiplicative decrease when one is slow or fails.
+ */
+public class AimdLimiter {
+
+  private final int minLimit;
+
+  private final int maxLimit;
+
+  private final long latencyThresholdNanos;
+
+  private final double backoffRatio;
+
+  private final AtomicInteger limit;
+
+  private final AtomicInteger inFlight = new AtomicInteger();
+
+  public AimdLimiter(int initialLimit, int minLimit, int maxLimit, Duration latencyThreshold, double backoffRatio) {
+    Assert.isTrue(minLimit > 0 && minLimit <= initialLimit && initialLimit <= maxLimit,
+        "limits must satisfy 0 < minLimit <= initialLimit <= maxLimit");
+    Assert.isTrue(backoffRatio > 0 && backoffRatio < 1, "backoffRatio must be between 0 and 1");
+    this.minLimit = minLimit;
+    this.maxLimit = maxLimit;
+    this.latencyThresholdNanos = latencyThreshold.toNanos();
+    this.backoffRatio = backoffRatio;
+    this.limit = new AtomicInteger(initialLimit);
+  }
+
+  public boolean tryAcquire() {
+    while (true) {
+      int current = inFlight.get();
+      if (current >= limit.get()) {
+        return false;
+      }
+      if (inFlight.compareAndSet(current, current + 1)) {
+        return true;
+      }
+    }
+  }
+
+  public void release(long latencyNanos, boolean failed) {
+    int inFlightBefore = inFlight.getAndDecrement();
+    if (failed || latencyNanos > latencyThresholdNanos) {
+      limit.updateAndGet(current -> Math.max(minLimit, (int) (current * backoffRatio)));
+    } else if (inFlightBefore * 2 >= limit.get()) {
+      // Only grow when at least half the limit is in use, otherwise an idle service would drift to maxLimit
+      limit.updateAndGet(current -> Math.min(maxLimit, current + 1));
+    }
+  }
+
+  public int getLimit() {
+    return limit.get();
+  }
+
+  public int getInFlight() {
+    return inFlight.get();
+  }
+}
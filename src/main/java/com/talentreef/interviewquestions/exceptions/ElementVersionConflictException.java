@@ -0,0 +1,7 @@
+package com.talentreef.interviewquestions.exceptions;
+
+public class ElementVersionConflictException extends RuntimeException {
+    public ElementVersionConflictException(String message) {
+        super(message);
+    }
+}
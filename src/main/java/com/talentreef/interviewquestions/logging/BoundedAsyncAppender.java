@@ -0,0 +1,200 @@
+package com.talentreef.interviewquestions.logging;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.classic.spi.LoggingEvent;
+import ch.qos.logback.core.Appender;
+import ch.qos.logback.core.UnsynchronizedAppenderBase;
+import ch.qos.logback.core.spi.AppenderAttachable;
+import ch.qos.logback.core.spi.AppenderAttachableImpl;
+
+import java.util.Iterator;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Hands events to the attached appenders on a single background thread through a bounded queue. Logging
+ * threads never block: once the free capacity drops below the discarding threshold, INFO and lower events
+ * are sampled (one in {@code sampleEvery} is kept), and anything that does not fit is dropped. Drops are
+ * counted per {@link DropReason} and level, so a lost error is never mistaken for intended sampling.
+ */
+public class BoundedAsyncAppender extends UnsynchronizedAppenderBase<ILoggingEvent>
+    implements AppenderAttachable<ILoggingEvent> {
+
+  public enum DropReason {
+    // Below the discarding threshold, an INFO or lower event that was not picked by the sample
+    SAMPLED,
+    // The queue was full
+    OVERFLOW;
+
+    public String tag() {
+      return name().toLowerCase(Locale.ROOT);
+    }
+  }
+
+  public static final List<Level> LEVELS = List.of(Level.TRACE, Level.DEBUG, Level.INFO, Level.WARN, Level.ERROR);
+
+  // Logback starts before Spring, so the counts live here and are bound to Micrometer later
+  private static final AtomicLong[][] DROPPED_EVENTS = new AtomicLong[DropReason.values().length][LEVELS.size()];
+
+  static {
+    for (AtomicLong[] byLevel : DROPPED_EVENTS) {
+      for (int i = 0; i < byLevel.length; i++) {
+        byLevel[i] = new AtomicLong();
+      }
+    }
+  }
+
+  // Queued by stop() behind the pending events; the worker exits when it takes it
+  private static final ILoggingEvent SHUTDOWN = new LoggingEvent();
+
+  private final AppenderAttachableImpl<ILoggingEvent> appenders = new AppenderAttachableImpl<>();
+
+  private final AtomicLong sampledEvents = new AtomicLong();
+
+  private int queueSize = 8192;
+
+  private int discardingThreshold = -1;
+
+  private int sampleEvery = 10;
+
+  private int maxFlushTimeMillis = 1000;
+
+  private BlockingQueue<ILoggingEvent> queue;
+
+  private Thread worker;
+
+  public static AtomicLong droppedEvents(DropReason reason, Level level) {
+    return DROPPED_EVENTS[reason.ordinal()][LEVELS.indexOf(level)];
+  }
+
+  @Override
+  public void start() {
+    if (isStarted()) {
+      return;
+    }
+    if (queueSize < 1) {
+      addError("queueSize must be positive");
+      return;
+    }
+    if (!appenders.iteratorForAppenders().hasNext()) {
+      addWarn("No appender attached to " + getName());
+    }
+    if (discardingThreshold < 0) {
+      discardingThreshold = queueSize / 5;
+    }
+
+    queue = new ArrayBlockingQueue<>(queueSize);
+    worker = new Thread(this::drain, "async-log-" + getName());
+    worker.setDaemon(true);
+    super.start();
+    worker.start();
+  }
+
+  @Override
+  public void stop() {
+    if (!isStarted()) {
+      return;
+    }
+    super.stop();
+    // Not interrupted, which could land inside a downstream write, but told to stop once the queue is flushed
+    try {
+      if (queue.offer(SHUTDOWN, maxFlushTimeMillis, TimeUnit.MILLISECONDS)) {
+        worker.join(maxFlushTimeMillis);
+      } else {
+        addWarn("Queue of " + getName() + " not flushed within " + maxFlushTimeMillis + " ms");
+      }
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+    appenders.detachAndStopAllAppenders();
+  }
+
+  @Override
+  protected void append(ILoggingEvent event) {
+    if (queue.remainingCapacity() < discardingThreshold && event.getLevel().toInt() <= Level.INFO_INT
+        && sampledEvents.incrementAndGet() % sampleEvery != 0) {
+      droppedEvents(DropReason.SAMPLED, event.getLevel()).incrementAndGet();
+      return;
+    }
+
+    // Captures the formatted message and MDC on the calling thread before the event changes threads
+    event.prepareForDeferredProcessing();
+    if (!queue.offer(event)) {
+      droppedEvents(DropReason.OVERFLOW, event.getLevel()).incrementAndGet();
+    }
+  }
+
+  private void drain() {
+    ILoggingEvent event;
+    try {
+      while ((event = queue.take()) != SHUTDOWN) {
+        appenders.appendLoopOnAppenders(event);
+      }
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+
+    // Events from appends that raced with stop() land behind the sentinel
+    while ((event = queue.poll()) != null) {
+      if (event != SHUTDOWN) {
+        appenders.appendLoopOnAppenders(event);
+      }
+    }
+  }
+
+  public void setQueueSize(int queueSize) {
+    this.queueSize = queueSize;
+  }
+
+  public void setDiscardingThreshold(int discardingThreshold) {
+    this.discardingThreshold = discardingThreshold;
+  }
+
+  public void setSampleEvery(int sampleEvery) {
+    this.sampleEvery = Math.max(1, sampleEvery);
+  }
+
+  public void setMaxFlushTimeMillis(int maxFlushTimeMillis) {
+    this.maxFlushTimeMillis = maxFlushTimeMillis;
+  }
+
+  @Override
+  public void addAppender(Appender<ILoggingEvent> newAppender) {
+    appenders.addAppender(newAppender);
+  }
+
+  @Override
+  public Iterator<Appender<ILoggingEvent>> iteratorForAppenders() {
+    return appenders.iteratorForAppenders();
+  }
+
+  @Override
+  public Appender<ILoggingEvent> getAppender(String name) {
+    return appenders.getAppender(name);
+  }
+
+  @Override
+  public boolean isAttached(Appender<ILoggingEvent> appender) {
+    return appenders.isAttached(appender);
+  }
+
+  @Override
+  public void detachAndStopAllAppenders() {
+    appenders.detachAndStopAllAppenders();
+  }
+
+  @Override
+  public boolean detachAppender(Appender<ILoggingEvent> appender) {
+    return appenders.detachAppender(appender);
+  }
+
+  @Override
+  public boolean detachAppender(String name) {
+    return appenders.detachAppender(name);
+  }
+}
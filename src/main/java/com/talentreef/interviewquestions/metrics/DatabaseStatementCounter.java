@@ -0,0 +1,57 @@
+package com.talentreef.interviewquestions.metrics;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Counts the SQL statements sent to the database while a count is in progress on the current thread. The
+ * statements are seen by {@link StatementCountingDataSource}, so plain JDBC work is counted as well as
+ * Hibernate's. Each executed statement is one database round-trip, except for JDBC batches, which are counted
+ * once. Work handed to another thread is only counted when the task was wrapped with {@link #propagate}.
+ */
+public final class DatabaseStatementCounter {
+
+  private static final ThreadLocal<AtomicLong> STATEMENTS = new ThreadLocal<>();
+
+  private DatabaseStatementCounter() {
+  }
+
+  public static void start() {
+    STATEMENTS.set(new AtomicLong());
+  }
+
+  public static long stop() {
+    AtomicLong statements = STATEMENTS.get();
+    STATEMENTS.remove();
+    return statements == null ? 0 : statements.get();
+  }
+
+  /**
+   * Makes the task count towards the count in progress on the calling thread, on whichever thread it runs.
+   */
+  public static Runnable propagate(Runnable task) {
+    AtomicLong statements = STATEMENTS.get();
+    if (statements == null) {
+      return task;
+    }
+    return () -> {
+      AtomicLong previous = STATEMENTS.get();
+      STATEMENTS.set(statements);
+      try {
+        task.run();
+      } finally {
+        if (previous == null) {
+          STATEMENTS.remove();
+        } else {
+          STATEMENTS.set(previous);
+        }
+      }
+    };
+  }
+
+  static void increment() {
+    AtomicLong statements = STATEMENTS.get();
+    if (statements != null) {
+      statements.incrementAndGet();
+    }
+  }
+}
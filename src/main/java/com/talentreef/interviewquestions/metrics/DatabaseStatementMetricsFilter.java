@@ -0,0 +1,58 @@
+package com.talentreef.interviewquestions.metrics;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import org.springframework.util.Assert;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.io.IOException;
+
+/**
+ * Records how many statements each API request sends to the database as the widgets.db.statements summary.
+ */
+@Component
+public class DatabaseStatementMetricsFilter extends OncePerRequestFilter {
+
+  public static final String METRIC_NAME = "widgets.db.statements";
+
+  private static final String API_PREFIX = "/v1/";
+
+  private final MeterRegistry meterRegistry;
+
+  @Autowired
+  public DatabaseStatementMetricsFilter(MeterRegistry meterRegistry) {
+    Assert.notNull(meterRegistry, "meterRegistry must not be null");
+    this.meterRegistry = meterRegistry;
+  }
+
+  @Override
+  protected boolean shouldNotFilter(HttpServletRequest request) {
+    return !request.getRequestURI().startsWith(API_PREFIX);
+  }
+
+  @Override
+  protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+      throws ServletException, IOException {
+    DatabaseStatementCounter.start();
+    try {
+      filterChain.doFilter(request, response);
+    } finally {
+      long statements = DatabaseStatementCounter.stop();
+      Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+      DistributionSummary.builder(METRIC_NAME)
+          .description("Database statements executed per API request")
+          .baseUnit("statements")
+          .tag("method", request.getMethod())
+          .tag("uri", pattern == null ? "UNKNOWN" : pattern.toString())
+          .register(meterRegistry)
+          .record(statements);
+    }
+  }
+}
@@ -0,0 +1,57 @@
+package com.talentreef.interviewquestions.metrics;
+
+import ch.qos.logback.classic.Level;
+import com.talentreef.interviewquestions.logging.BoundedAsyncAppender;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.task.TaskDecorator;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+
+import javax.sql.DataSource;
+import java.util.Locale;
+
+@Configuration
+public class MetricsConfig {
+
+    @Bean
+    public static BeanPostProcessor statementCountingDataSourcePostProcessor() {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                // A routing data source hands out its targets' connections, which are wrapped where they are built
+                return bean instanceof DataSource dataSource && !(bean instanceof AbstractRoutingDataSource)
+                        && !(bean instanceof StatementCountingDataSource)
+                        ? new StatementCountingDataSource(dataSource)
+                        : bean;
+            }
+        };
+    }
+
+    /**
+     * Applied by the shard router and Spring's task executor, so statements a request runs on their threads
+     * count towards the request.
+     */
+    @Bean
+    public TaskDecorator databaseStatementCounterTaskDecorator() {
+        return DatabaseStatementCounter::propagate;
+    }
+
+    @Bean
+    public MeterBinder droppedLogEventsMetrics() {
+        return registry -> {
+            for (BoundedAsyncAppender.DropReason reason : BoundedAsyncAppender.DropReason.values()) {
+                for (Level level : BoundedAsyncAppender.LEVELS) {
+                    FunctionCounter.builder("logback.events.dropped", BoundedAsyncAppender.droppedEvents(reason, level),
+                                    Number::doubleValue)
+                            .description("Log events sampled away or lost to a full queue by the asynchronous appender")
+                            .tag("reason", reason.tag())
+                            .tag("level", level.levelStr.toLowerCase(Locale.ROOT))
+                            .register(registry);
+                }
+            }
+        };
+    }
+}
@@ -0,0 +1,84 @@
+package com.talentreef.interviewquestions.metrics;
+
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+/**
+ * Reports every statement executed on its connections to {@link DatabaseStatementCounter}. Connections and the
+ * statements they create are wrapped in JDK proxies, so Hibernate, JdbcTemplate and raw JDBC batches are all
+ * counted. Closing it closes the target when the target is closeable, as a connection pool is.
+ */
+public class StatementCountingDataSource extends DelegatingDataSource implements AutoCloseable {
+
+  public StatementCountingDataSource(DataSource target) {
+    super(target);
+  }
+
+  @Override
+  public Connection getConnection() throws SQLException {
+    return counting(obtainTargetDataSource().getConnection());
+  }
+
+  @Override
+  public Connection getConnection(String username, String password) throws SQLException {
+    return counting(obtainTargetDataSource().getConnection(username, password));
+  }
+
+  @Override
+  public void close() throws Exception {
+    if (getTargetDataSource() instanceof AutoCloseable closeable) {
+      closeable.close();
+    }
+  }
+
+  private static Connection counting(Connection connection) {
+    return (Connection) Proxy.newProxyInstance(StatementCountingDataSource.class.getClassLoader(),
+        new Class<?>[] {Connection.class}, (proxy, method, args) -> {
+          if (isIdentityMethod(method)) {
+            return identity(proxy, method, args);
+          }
+          Object result = invoke(connection, method, args);
+          // Wrapped as the interface the method returns, e.g. PreparedStatement for prepareStatement
+          return result instanceof Statement statement && Statement.class.isAssignableFrom(method.getReturnType())
+              ? counting(statement, method.getReturnType())
+              : result;
+        });
+  }
+
+  private static Object counting(Statement statement, Class<?> type) {
+    return Proxy.newProxyInstance(StatementCountingDataSource.class.getClassLoader(), new Class<?>[] {type},
+        (proxy, method, args) -> {
+          if (isIdentityMethod(method)) {
+            return identity(proxy, method, args);
+          }
+          if (method.getName().startsWith("execute")) {
+            DatabaseStatementCounter.increment();
+          }
+          return invoke(statement, method, args);
+        });
+  }
+
+  // Connections are compared by identity, e.g. by Spring's transaction synchronization, so proxies are too
+  private static boolean isIdentityMethod(Method method) {
+    return method.getDeclaringClass() == Object.class && !method.getName().equals("toString");
+  }
+
+  private static Object identity(Object proxy, Method method, Object[] args) {
+    return method.getName().equals("equals") ? proxy == args[0] : System.identityHashCode(proxy);
+  }
+
+  private static Object invoke(Object target, Method method, Object[] args) throws Throwable {
+    try {
+      return method.invoke(target, args);
+    } catch (InvocationTargetException e) {
+      throw e.getCause();
+    }
+  }
+}
@@ -0,0 +1,53 @@
+package com.talentreef.interviewquestions.sharding;
+
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.util.Assert;
+
+import javax.sql.DataSource;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Hands out connections to the shard selected by {@link WidgetShardRouter}. Without a selected shard, which is
+ * the case for Hibernate's bootstrap and the data.sql script, connections come from shard 0.
+ */
+public class ShardRoutingDataSource extends AbstractRoutingDataSource {
+
+  private final WidgetShardRouter router;
+
+  private final List<DataSource> shards;
+
+  public ShardRoutingDataSource(WidgetShardRouter router, List<DataSource> shards) {
+    Assert.notNull(router, "router must not be null");
+    Assert.isTrue(shards.size() == router.count(), "one data source per shard is required");
+    this.router = router;
+    this.shards = List.copyOf(shards);
+    Map<Object, Object> targets = new HashMap<>();
+    for (int shard = 0; shard < shards.size(); shard++) {
+      targets.put(shard, shards.get(shard));
+    }
+    setTargetDataSources(targets);
+    setDefaultTargetDataSource(shards.get(0));
+    setLenientFallback(false);
+    afterPropertiesSet();
+  }
+
+  public List<DataSource> shards() {
+    return shards;
+  }
+
+  // Picked up as the inferred destroy method of the bean, which closes the shard pools on shutdown
+  public void close() throws Exception {
+    for (DataSource shard : shards) {
+      if (shard instanceof AutoCloseable closeable) {
+        closeable.close();
+      }
+    }
+  }
+
+  @Override
+  protected Object determineCurrentLookupKey() {
+    return router.currentShard();
+  }
+}
@@ -0,0 +1,454 @@
+package com.talentreef.interviewquestions.sharding;
+
+import com.talentreef.interviewquestions.takehome.models.Widget;
+import com.talentreef.interviewquestions.takehome.models.WidgetField;
+import com.talentreef.interviewquestions.takehome.respositories.WidgetRepository;
+import org.springframework.beans.BeanWrapperImpl;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.util.Assert;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Optional;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * Puts {@link WidgetRepository} in front of every shard. Calls about one widget go to the shard of its
+ * normalized name. Listings run on every shard in parallel: unordered results are concatenated, and ordered
+ * results are k-way merged, which is exact for pages because each shard returns its own first
+ * {@code offset + size} rows in the same order. Full listings page through every shard by name and merge the
+ * pages as they are consumed, so they hold one page per shard at a time.
+ *
+ * <p>Every repository method is implemented here, so a query method added to {@link WidgetRepository} does
+ * not compile until it says how it is routed.
+ */
+final class ShardedWidgetRepository implements WidgetRepository {
+
+  static final int STREAM_PAGE_SIZE = 500;
+
+  private static final Comparator<Widget> BY_NAME = Comparator.comparing(Widget::getName);
+
+  private static final Comparator<Widget> BY_PRICE = Comparator.comparing(Widget::getPrice).thenComparing(BY_NAME);
+
+  private static final Comparator<Map<String, Object>> PROJECTED_BY_NAME =
+      Comparator.comparing(row -> (String) row.get(WidgetField.NAME.getAttribute()));
+
+  private static final Sort NAME_ORDER = Sort.by(WidgetField.NAME.getAttribute());
+
+  private final WidgetRepository target;
+
+  private final WidgetShardRouter router;
+
+  private ShardedWidgetRepository(WidgetRepository target, WidgetShardRouter router) {
+    this.target = target;
+    this.router = router;
+  }
+
+  static WidgetRepository wrap(WidgetRepository target, WidgetShardRouter router) {
+    Assert.notNull(target, "target must not be null");
+    Assert.notNull(router, "router must not be null");
+    return new ShardedWidgetRepository(target, router);
+  }
+
+  // Single widget
+
+  @Override
+  public Optional<Widget> findByNormalizedName(String normalizedName) {
+    return router.inShard(router.shardFor(normalizedName), () -> target.findByNormalizedName(normalizedName));
+  }
+
+  @Override
+  public Optional<Widget> findById(String name) {
+    return onShardOf(name, () -> target.findById(name));
+  }
+
+  @Override
+  public boolean existsById(String name) {
+    return onShardOf(name, () -> target.existsById(name));
+  }
+
+  @Override
+  public <S extends Widget> S save(S widget) {
+    return onShardOf(widget.getName(), () -> target.save(widget));
+  }
+
+  @Override
+  public <S extends Widget> S saveAndFlush(S widget) {
+    return onShardOf(widget.getName(), () -> target.saveAndFlush(widget));
+  }
+
+  @Override
+  public void delete(Widget widget) {
+    onShardOf(widget.getName(), () -> {
+      target.delete(widget);
+      return null;
+    });
+  }
+
+  @Override
+  public void deleteById(String name) {
+    onShardOf(name, () -> {
+      target.deleteById(name);
+      return null;
+    });
+  }
+
+  @Override
+  public Optional<Widget> updateInPlace(String normalizedName, String description, BigDecimal price,
+                                        Long expectedVersion) {
+    return router.inShard(router.shardFor(normalizedName),
+        () -> target.updateInPlace(normalizedName, description, price, expectedVersion));
+  }
+
+  @Override
+  public Optional<Widget> upsert(Widget widget, Long expectedVersion) {
+    return onShardOf(widget.getName(), () -> target.upsert(widget, expectedVersion));
+  }
+
+  @Override
+  public void flush() {
+    // Flushes the persistence context of the current transaction, which is bound to a single shard
+    target.flush();
+  }
+
+  // Several widgets, split by shard
+
+  @Override
+  public List<Widget> findByNormalizedNameIn(Collection<String> normalizedNames) {
+    return byShard(normalizedNames, Function.identity(), target::findByNormalizedNameIn);
+  }
+
+  @Override
+  public List<Widget> findAllById(Iterable<String> names) {
+    return byShard(names, Widget::normalize, target::findAllById);
+  }
+
+  @Override
+  public <S extends Widget> List<S> saveAll(Iterable<S> widgets) {
+    return byShard(widgets, ShardedWidgetRepository::normalizedName, target::saveAll);
+  }
+
+  @Override
+  public List<String> overwriteAll(List<Widget> widgets) {
+    return byShard(widgets, ShardedWidgetRepository::normalizedName, target::overwriteAll);
+  }
+
+  @Override
+  public void deleteAllById(Iterable<? extends String> names) {
+    byShard(names, Widget::normalize, part -> {
+      target.deleteAllById(part);
+      return List.of();
+    });
+  }
+
+  @Override
+  public void deleteAll(Iterable<? extends Widget> widgets) {
+    byShard(widgets, ShardedWidgetRepository::normalizedName, part -> {
+      target.deleteAll(part);
+      return List.of();
+    });
+  }
+
+  // Every shard
+
+  @Override
+  public long count() {
+    return router.onEveryShard(shard -> target.count()).stream().mapToLong(Long::longValue).sum();
+  }
+
+  @Override
+  public void deleteAll() {
+    router.onEveryShard(shard -> {
+      target.deleteAll();
+      return null;
+    });
+  }
+
+  @Override
+  public List<Widget> findAll() {
+    List<Widget> widgets = new ArrayList<>();
+    byName().forEachRemaining(widgets::add);
+    return widgets;
+  }
+
+  @Override
+  public Stream<Widget> streamAllByOrderByNameAsc() {
+    return StreamSupport.stream(Spliterators.spliteratorUnknownSize(byName(),
+        Spliterator.ORDERED | Spliterator.NONNULL), false);
+  }
+
+  @Override
+  public List<Map<String, Object>> findAllProjected(Set<WidgetField> fields) {
+    List<Map<String, Object>> rows = new ArrayList<>();
+    merged(last -> target.findProjectedPage(fields,
+        last == null ? null : (String) last.get(WidgetField.NAME.getAttribute()), STREAM_PAGE_SIZE),
+        PROJECTED_BY_NAME).forEachRemaining(rows::add);
+    return rows;
+  }
+
+  @Override
+  public List<Map<String, Object>> findProjectedPage(Set<WidgetField> fields, String afterName, int limit) {
+    List<List<Map<String, Object>>> pages = router.onEveryShard(
+        shard -> target.findProjectedPage(fields, afterName, limit));
+    return take(new MergingIterator<>(iterators(pages), PROJECTED_BY_NAME), 0, limit);
+  }
+
+  // Pages, merged across shards
+
+  @Override
+  public List<Widget> findAllByOrderByNameAsc(Pageable pageable) {
+    return mergedPage(pageable, BY_NAME, target::findAllByOrderByNameAsc);
+  }
+
+  @Override
+  public List<Widget> findByNameGreaterThanOrderByNameAsc(String name, Pageable pageable) {
+    return mergedPage(pageable, BY_NAME, page -> target.findByNameGreaterThanOrderByNameAsc(name, page));
+  }
+
+  @Override
+  public List<Widget> findAllByOrderByPriceAscNameAsc(Pageable pageable) {
+    return mergedPage(pageable, BY_PRICE, target::findAllByOrderByPriceAscNameAsc);
+  }
+
+  @Override
+  public List<Widget> findPriceKeysetPage(BigDecimal price, String name, Pageable pageable) {
+    return mergedPage(pageable, BY_PRICE, page -> target.findPriceKeysetPage(price, name, page));
+  }
+
+  @Override
+  public List<Widget> findByPriceBetweenOrderByPriceAscNameAsc(BigDecimal minPrice, BigDecimal maxPrice,
+                                                              Pageable pageable) {
+    return mergedPage(pageable, BY_PRICE,
+        page -> target.findByPriceBetweenOrderByPriceAscNameAsc(minPrice, maxPrice, page));
+  }
+
+  @Override
+  public List<Widget> findPriceRangeKeysetPage(BigDecimal maxPrice, BigDecimal price, String name,
+                                               Pageable pageable) {
+    return mergedPage(pageable, BY_PRICE, page -> target.findPriceRangeKeysetPage(maxPrice, price, name, page));
+  }
+
+  @Override
+  public List<Widget> findAll(Sort sort) {
+    return concatSorted(router.onEveryShard(shard -> target.findAll(sort)), sort);
+  }
+
+  @Override
+  public Page<Widget> findAll(Pageable pageable) {
+    Pageable ordered = stablyOrdered(pageable);
+    List<Widget> content = mergedPage(ordered, comparator(ordered.getSort()),
+        page -> target.findAll(page).getContent());
+    return new PageImpl<>(content, pageable, count());
+  }
+
+  @Override
+  public String toString() {
+    return "Sharded" + target;
+  }
+
+  private <T> T onShardOf(String name, Supplier<T> work) {
+    return router.inShard(router.shardFor(Widget.normalize(name)), work);
+  }
+
+  // Splits the values by shard and concatenates what each shard returns for its part
+  private <V, R> List<R> byShard(Iterable<? extends V> values, Function<V, String> normalizedName,
+                                 Function<List<V>, List<R>> work) {
+    Map<Integer, List<V>> byShard = StreamSupport.stream(values.spliterator(), false)
+        .collect(Collectors.groupingBy(value -> router.shardFor(normalizedName.apply(value))));
+    if (byShard.isEmpty()) {
+      return work.apply(List.of());
+    }
+    if (byShard.size() == 1) {
+      // Stays on the caller's thread when that shard's transaction is already open, as in WidgetBatchService
+      Map.Entry<Integer, List<V>> part = byShard.entrySet().iterator().next();
+      return router.inShard(part.getKey(), () -> work.apply(part.getValue()));
+    }
+    return concat(router.onEveryShard(shard -> {
+      List<V> part = byShard.get(shard);
+      return part == null ? List.<R>of() : work.apply(part);
+    }));
+  }
+
+  // Each shard returns its first offset + size rows in order; the merge skips the offset across all of them
+  private <T> List<T> mergedPage(Pageable pageable, Comparator<? super T> order, Function<Pageable, List<T>> query) {
+    Pageable fromStart = pageable.getOffset() == 0
+        ? pageable
+        : PageRequest.of(0, Math.toIntExact(pageable.getOffset() + pageable.getPageSize()), pageable.getSort());
+    List<List<T>> pages = router.onEveryShard(shard -> query.apply(fromStart));
+    return take(new MergingIterator<>(iterators(pages), order), pageable.getOffset(), pageable.getPageSize());
+  }
+
+  private Iterator<Widget> byName() {
+    return merged(last -> last == null
+        ? target.findAllByOrderByNameAsc(PageRequest.ofSize(STREAM_PAGE_SIZE))
+        : target.findByNameGreaterThanOrderByNameAsc(last.getName(), PageRequest.ofSize(STREAM_PAGE_SIZE)),
+        BY_NAME);
+  }
+
+  /**
+   * Merges every shard a page at a time. {@code pageAfter} reads the page after the given row, or the first page
+   * for null, on whichever shard it is bound to. The first page of every shard is fetched in parallel; later
+   * pages as the merge drains each shard.
+   */
+  private <T> Iterator<T> merged(Function<T, List<T>> pageAfter, Comparator<? super T> order) {
+    List<List<T>> firstPages = router.onEveryShard(shard -> pageAfter.apply(null));
+    List<Iterator<T>> shards = new ArrayList<>(firstPages.size());
+    for (int shard = 0; shard < firstPages.size(); shard++) {
+      shards.add(new ShardPager<>(shard, firstPages.get(shard), pageAfter));
+    }
+    return new MergingIterator<>(shards, order);
+  }
+
+  private static <T> List<T> concatSorted(List<List<T>> parts, Sort sort) {
+    if (sort.isUnsorted()) {
+      return concat(parts);
+    }
+    Comparator<T> order = comparator(sort);
+    return take(new MergingIterator<>(iterators(parts), order), 0, Integer.MAX_VALUE);
+  }
+
+  // Pages without an order would overlap or skip rows across shards, so they are ordered by name, the id
+  private static Pageable stablyOrdered(Pageable pageable) {
+    return pageable.getSort().isSorted()
+        ? pageable
+        : PageRequest.of(pageable.getPageNumber(), pageable.getPageSize(), NAME_ORDER);
+  }
+
+  /**
+   * The order a shard applies for the given sort, so its rows can be merged with those of the others. Nulls
+   * come first when ascending, as H2 sorts them.
+   */
+  @SuppressWarnings("unchecked")
+  private static <T> Comparator<T> comparator(Sort sort) {
+    Comparator<T> comparator = (a, b) -> 0;
+    for (Sort.Order order : sort) {
+      Comparator<T> byProperty = Comparator.comparing(
+          value -> (Comparable<Object>) new BeanWrapperImpl(value).getPropertyValue(order.getProperty()),
+          Comparator.nullsFirst(Comparator.naturalOrder()));
+      comparator = comparator.thenComparing(order.isAscending() ? byProperty : byProperty.reversed());
+    }
+    return comparator;
+  }
+
+  private static String normalizedName(Widget widget) {
+    return Widget.normalize(widget.getName());
+  }
+
+  private static <T> List<Iterator<T>> iterators(List<List<T>> parts) {
+    return parts.stream().map(List::iterator).toList();
+  }
+
+  private static <T> List<T> take(Iterator<T> values, long skip, int limit) {
+    List<T> taken = new ArrayList<>(Math.min(limit, 64));
+    for (long skipped = 0; skipped < skip && values.hasNext(); skipped++) {
+      values.next();
+    }
+    while (values.hasNext() && taken.size() < limit) {
+      taken.add(values.next());
+    }
+    return taken;
+  }
+
+  private static <T> List<T> concat(List<? extends List<? extends T>> parts) {
+    List<T> all = new ArrayList<>(parts.stream().mapToInt(List::size).sum());
+    parts.forEach(all::addAll);
+    return all;
+  }
+
+  /**
+   * Reads one shard in order, a page at a time, continuing after the last row of the previous page.
+   */
+  private final class ShardPager<T> implements Iterator<T> {
+
+    private final int shard;
+
+    private final Function<T, List<T>> pageAfter;
+
+    private List<T> page;
+
+    private int position;
+
+    private ShardPager(int shard, List<T> firstPage, Function<T, List<T>> pageAfter) {
+      this.shard = shard;
+      this.page = firstPage;
+      this.pageAfter = pageAfter;
+    }
+
+    @Override
+    public boolean hasNext() {
+      if (position < page.size()) {
+        return true;
+      }
+      if (page.size() < STREAM_PAGE_SIZE) {
+        return false;
+      }
+      T last = page.get(page.size() - 1);
+      page = router.inShard(shard, () -> pageAfter.apply(last));
+      position = 0;
+      return !page.isEmpty();
+    }
+
+    @Override
+    public T next() {
+      if (!hasNext()) {
+        throw new NoSuchElementException();
+      }
+      return page.get(position++);
+    }
+  }
+
+  /**
+   * K-way merge of iterators that are each already sorted by the given order.
+   */
+  static final class MergingIterator<T> implements Iterator<T> {
+
+    private final PriorityQueue<Head<T>> heads;
+
+    MergingIterator(List<? extends Iterator<T>> sources, Comparator<? super T> order) {
+      this.heads = new PriorityQueue<>(Math.max(1, sources.size()), (a, b) -> order.compare(a.value, b.value));
+      for (Iterator<T> source : sources) {
+        if (source.hasNext()) {
+          heads.add(new Head<>(source.next(), source));
+        }
+      }
+    }
+
+    @Override
+    public boolean hasNext() {
+      return !heads.isEmpty();
+    }
+
+    @Override
+    public T next() {
+      Head<T> head = heads.poll();
+      if (head == null) {
+        throw new NoSuchElementException();
+      }
+      if (head.source.hasNext()) {
+        heads.add(new Head<>(head.source.next(), head.source));
+      }
+      return head.value;
+    }
+
+    private record Head<T>(T value, Iterator<T> source) {
+    }
+  }
+}
@@ -0,0 +1,65 @@
+package com.talentreef.interviewquestions.sharding;
+
+import com.talentreef.interviewquestions.metrics.StatementCountingDataSource;
+import com.talentreef.interviewquestions.takehome.respositories.WidgetRepository;
+import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.jdbc.datasource.init.DatabasePopulatorUtils;
+import org.springframework.jdbc.datasource.init.ResourceDatabasePopulator;
+
+import javax.sql.DataSource;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Partitioned mode, active when {@code widgets.shards.count} is above 1 (see application-sharded.yml). Each
+ * shard is its own pooled H2 database created from {@code widgets.shards.url}, and the repository is wrapped
+ * so that it routes and fans out over them.
+ */
+@Configuration
+@ConditionalOnExpression(ShardingConfig.SHARDED)
+public class ShardingConfig {
+
+    static final String SHARDED = "${widgets.shards.count:1} > 1";
+
+    private static final String SCHEMA = "sharding/widgets-schema.sql";
+
+    @Bean
+    public ShardRoutingDataSource dataSource(WidgetShardRouter widgetShardRouter, DataSourceProperties properties,
+                                             @Value("${widgets.shards.url}") String url,
+                                             @Value("${widgets.shards.pool-size:10}") int poolSize) {
+        // Hibernate creates the schema on the default shard only, so every shard gets it from the script instead
+        ResourceDatabasePopulator schema = new ResourceDatabasePopulator(new ClassPathResource(SCHEMA));
+        List<DataSource> shards = new ArrayList<>(widgetShardRouter.count());
+        for (int shard = 0; shard < widgetShardRouter.count(); shard++) {
+            HikariDataSource dataSource = properties.initializeDataSourceBuilder()
+                    .type(HikariDataSource.class)
+                    .url(String.format(url, shard))
+                    .build();
+            dataSource.setPoolName("widget-shard-" + shard);
+            dataSource.setMaximumPoolSize(poolSize);
+            DatabasePopulatorUtils.execute(schema, dataSource);
+            shards.add(new StatementCountingDataSource(dataSource));
+        }
+        return new ShardRoutingDataSource(widgetShardRouter, shards);
+    }
+
+    @Bean
+    public static BeanPostProcessor shardedWidgetRepositoryPostProcessor(ObjectProvider<WidgetShardRouter> widgetShardRouter) {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                return bean instanceof WidgetRepository repository
+                        ? ShardedWidgetRepository.wrap(repository, widgetShardRouter.getObject())
+                        : bean;
+            }
+        };
+    }
+}
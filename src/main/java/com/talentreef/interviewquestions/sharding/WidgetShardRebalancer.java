@@ -0,0 +1,135 @@
+package com.talentreef.interviewquestions.sharding;
+
+import static net.logstash.logback.argument.StructuredArguments.kv;
+
+import com.talentreef.interviewquestions.takehome.snapshot.WidgetSnapshotLoader;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
+import org.springframework.boot.jdbc.init.DataSourceScriptDatabaseInitializer;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.util.Assert;
+
+import javax.sql.DataSource;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Moves every widget that is not on the shard of its normalized name to that shard. data.sql is loaded through
+ * the routing data source, which puts it all on shard 0, so this runs once it is in and before the widget
+ * indexes are built from the shards. Snapshots are routed by the loader and need no moves. It also redistributes persistent shards after a change
+ * of {@code widgets.shards.count}. Each shard is read by name in pages of {@link #BATCH_SIZE} rows, and the
+ * misplaced rows of a page are moved before the next page is read.
+ *
+ * <p>A move is not atomic across shards, so it is made safe to repeat instead: rows are copied with a MERGE that
+ * leaves a row already on the target shard as it is, and only the rows read back from the target are deleted
+ * from the source. A rebalance interrupted between the two steps leaves a copy on both shards, and the next one
+ * finishes the move.
+ */
+@Slf4j
+@Component
+@ConditionalOnExpression(ShardingConfig.SHARDED)
+public class WidgetShardRebalancer {
+
+  static final int BATCH_SIZE = 1000;
+
+  private static final String SELECT = "SELECT name, normalized_name, description, price, version FROM widgets";
+
+  private static final String FIRST_PAGE = SELECT + " ORDER BY name LIMIT ?";
+
+  private static final String NEXT_PAGE = SELECT + " WHERE name > ? ORDER BY name LIMIT ?";
+
+  private static final String COPY = """
+      MERGE INTO widgets w
+      USING (VALUES (CAST(? AS VARCHAR(100)), CAST(? AS VARCHAR(100)), CAST(? AS VARCHAR(1000)),
+                     CAST(? AS DECIMAL(7, 2)), CAST(? AS BIGINT)))
+            AS s(name, normalized_name, description, price, version)
+      ON w.normalized_name = s.normalized_name
+      WHEN NOT MATCHED THEN
+        INSERT (name, normalized_name, description, price, version)
+        VALUES (s.name, s.normalized_name, s.description, s.price, s.version)
+      """;
+
+  private static final String COPIED = "SELECT normalized_name FROM widgets WHERE normalized_name IN (:names)";
+
+  private static final String DELETE = "DELETE FROM widgets WHERE normalized_name = ?";
+
+  private final ShardRoutingDataSource dataSource;
+
+  private final WidgetShardRouter router;
+
+  @Autowired
+  public WidgetShardRebalancer(ShardRoutingDataSource dataSource, WidgetShardRouter router,
+                               ObjectProvider<DataSourceScriptDatabaseInitializer> scriptInitializers,
+                               ObjectProvider<WidgetSnapshotLoader> snapshotLoaders) {
+    Assert.notNull(dataSource, "dataSource must not be null");
+    Assert.notNull(router, "router must not be null");
+    this.dataSource = dataSource;
+    this.router = router;
+    // Resolved only to make sure the initial data is loaded before rebalancing
+    scriptInitializers.ifAvailable(initializer -> { });
+    snapshotLoaders.ifAvailable(loader -> { });
+  }
+
+  @PostConstruct
+  public void rebalance() {
+    List<DataSource> shards = dataSource.shards();
+    long moved = 0;
+    for (int source = 0; source < shards.size(); source++) {
+      JdbcTemplate sourceJdbc = new JdbcTemplate(shards.get(source));
+      List<Object[]> page = sourceJdbc.query(FIRST_PAGE, WidgetShardRebalancer::toRow, BATCH_SIZE);
+      while (!page.isEmpty()) {
+        moved += move(page, source, sourceJdbc, shards);
+        if (page.size() < BATCH_SIZE) {
+          break;
+        }
+        // Moved rows sort before the last name of the page, so deleting them does not shift the next page
+        Object after = page.get(page.size() - 1)[0];
+        page = sourceJdbc.query(NEXT_PAGE, WidgetShardRebalancer::toRow, after, BATCH_SIZE);
+      }
+    }
+    log.info("Widget shards rebalanced {} {}", kv("shards", shards.size()), kv("moved", moved));
+  }
+
+  private int move(List<Object[]> page, int source, JdbcTemplate sourceJdbc, List<DataSource> shards) {
+    Map<Integer, List<Object[]>> misplaced = new HashMap<>();
+    for (Object[] row : page) {
+      int target = router.shardFor((String) row[1]);
+      if (target != source) {
+        misplaced.computeIfAbsent(target, shard -> new ArrayList<>()).add(row);
+      }
+    }
+
+    int moved = 0;
+    for (Map.Entry<Integer, List<Object[]>> rows : misplaced.entrySet()) {
+      DataSource target = shards.get(rows.getKey());
+      new JdbcTemplate(target).batchUpdate(COPY, rows.getValue());
+      List<String> names = rows.getValue().stream().map(row -> (String) row[1]).toList();
+      Set<String> copied = new HashSet<>(new NamedParameterJdbcTemplate(target)
+          .queryForList(COPIED, Map.of("names", names), String.class));
+      List<Object[]> deletes = names.stream().filter(copied::contains).map(name -> new Object[] {name}).toList();
+      sourceJdbc.batchUpdate(DELETE, deletes);
+      if (deletes.size() < names.size()) {
+        log.warn("Widgets left on their source shard {} {} {}", kv("source", source),
+            kv("target", rows.getKey()), kv("rows", names.size() - deletes.size()));
+      }
+      moved += deletes.size();
+    }
+    return moved;
+  }
+
+  private static Object[] toRow(ResultSet row, int rowNum) throws SQLException {
+    return new Object[] {row.getString("name"), row.getString("normalized_name"), row.getString("description"),
+        row.getBigDecimal("price"), row.getLong("version")};
+  }
+}
@@ -0,0 +1,158 @@
+package com.talentreef.interviewquestions.sharding;
+
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.core.task.TaskDecorator;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.util.Assert;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.IntFunction;
+import java.util.function.Supplier;
+
+/**
+ * Maps a normalized widget name to one of {@code widgets.shards.count} shards and runs work against a shard.
+ * The shard is held in a thread local that {@link ShardRoutingDataSource} reads when a transaction takes its
+ * connection, so it has to be set before the transaction begins: work for a shard other than the one the
+ * current transaction is bound to runs on a pool thread instead. With a single shard everything runs inline.
+ * Pool tasks go through the application's {@link TaskDecorator}, if there is one, so they carry the caller's
+ * per-request context.
+ */
+@Component
+public class WidgetShardRouter {
+
+  private static final ThreadLocal<Integer> CURRENT_SHARD = new ThreadLocal<>();
+
+  private final int count;
+
+  private final ExecutorService executor;
+
+  private final TaskDecorator taskDecorator;
+
+  public WidgetShardRouter(int count, boolean virtualThreads) {
+    this(count, virtualThreads, task -> task);
+  }
+
+  @Autowired
+  public WidgetShardRouter(@Value("${widgets.shards.count:1}") int count,
+                           @Value("${spring.threads.virtual.enabled:false}") boolean virtualThreads,
+                           ObjectProvider<TaskDecorator> taskDecorators) {
+    this(count, virtualThreads, taskDecorators.getIfUnique(() -> task -> task));
+  }
+
+  private WidgetShardRouter(int count, boolean virtualThreads, TaskDecorator taskDecorator) {
+    Assert.isTrue(count > 0, "count must be positive");
+    Assert.notNull(taskDecorator, "taskDecorator must not be null");
+    this.count = count;
+    this.taskDecorator = taskDecorator;
+    if (count == 1) {
+      this.executor = null;
+    } else {
+      this.executor = virtualThreads
+          ? Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("widget-shards-", 0).factory())
+          : Executors.newCachedThreadPool(new CustomizableThreadFactory("widget-shards-"));
+    }
+  }
+
+  @PreDestroy
+  public void shutdown() {
+    if (executor != null) {
+      executor.shutdownNow();
+    }
+  }
+
+  public int count() {
+    return count;
+  }
+
+  public int shardFor(String normalizedName) {
+    if (count == 1) {
+      return 0;
+    }
+    // murmur3 finalizer, so names that differ only in their last characters still spread over the shards
+    int hash = normalizedName.hashCode();
+    hash ^= hash >>> 16;
+    hash *= 0x85ebca6b;
+    hash ^= hash >>> 13;
+    hash *= 0xc2b2ae35;
+    hash ^= hash >>> 16;
+    return Math.floorMod(hash, count);
+  }
+
+  public <T> T inShard(int shard, Supplier<T> work) {
+    Assert.isTrue(shard >= 0 && shard < count, "shard out of range");
+    if (count == 1) {
+      return work.get();
+    }
+    Integer current = CURRENT_SHARD.get();
+    if (TransactionSynchronizationManager.isActualTransactionActive() && (current == null || current != shard)) {
+      return join(CompletableFuture.supplyAsync(() -> bound(shard, work), this::submit));
+    }
+    return bound(shard, work);
+  }
+
+  /**
+   * Runs the work against every shard in parallel and returns the results in shard order.
+   */
+  public <T> List<T> onEveryShard(IntFunction<T> work) {
+    if (count == 1) {
+      return List.of(work.apply(0));
+    }
+    List<CompletableFuture<T>> futures = new ArrayList<>(count);
+    for (int shard = 0; shard < count; shard++) {
+      int target = shard;
+      futures.add(CompletableFuture.supplyAsync(() -> bound(target, () -> work.apply(target)), this::submit));
+    }
+    List<T> results = new ArrayList<>(count);
+    for (CompletableFuture<T> future : futures) {
+      results.add(join(future));
+    }
+    return results;
+  }
+
+  Integer currentShard() {
+    return CURRENT_SHARD.get();
+  }
+
+  // Decorated on the submitting thread, where the context to carry over is
+  private void submit(Runnable task) {
+    executor.execute(taskDecorator.decorate(task));
+  }
+
+  private static <T> T bound(int shard, Supplier<T> work) {
+    Integer previous = CURRENT_SHARD.get();
+    CURRENT_SHARD.set(shard);
+    try {
+      return work.get();
+    } finally {
+      if (previous == null) {
+        CURRENT_SHARD.remove();
+      } else {
+        CURRENT_SHARD.set(previous);
+      }
+    }
+  }
+
+  private static <T> T join(CompletableFuture<T> future) {
+    try {
+      return future.join();
+    } catch (CompletionException e) {
+      if (e.getCause() instanceof RuntimeException cause) {
+        throw cause;
+      }
+      if (e.getCause() instanceof Error cause) {
+        throw cause;
+      }
+      throw e;
+    }
+  }
+}
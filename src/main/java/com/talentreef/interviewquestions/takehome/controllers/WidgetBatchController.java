@@ -0,0 +1,37 @@
+package com.talentreef.interviewquestions.takehome.controllers;
+
+import static net.logstash.logback.argument.StructuredArguments.kv;
+
+import com.talentreef.interviewquestions.takehome.models.WidgetBatchRequest;
+import com.talentreef.interviewquestions.takehome.models.WidgetOperationResult;
+import com.talentreef.interviewquestions.takehome.services.WidgetBatchService;
+import jakarta.validation.Valid;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.util.Assert;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+
+@Slf4j
+@RestController
+@RequestMapping(value = "/v1/widgets/batch", produces = MediaType.APPLICATION_JSON_VALUE)
+public class WidgetBatchController {
+
+  private final WidgetBatchService widgetBatchService;
+
+  @Autowired
+  public WidgetBatchController(WidgetBatchService widgetBatchService) {
+    Assert.notNull(widgetBatchService, "widgetBatchService must not be null");
+    this.widgetBatchService = widgetBatchService;
+  }
+
+  @PostMapping
+  public ResponseEntity<List<WidgetOperationResult>> applyBatch(@Valid @RequestBody WidgetBatchRequest request) {
+    log.info("Requesting widget batch {}", kv("operations", request.getOperations().size()));
+    return ResponseEntity.ok(widgetBatchService.applyBatch(request.getOperations()));
+  }
+
+}
@@ -0,0 +1,35 @@
+package com.talentreef.interviewquestions.takehome.controllers;
+
+import static net.logstash.logback.argument.StructuredArguments.kv;
+
+import com.talentreef.interviewquestions.takehome.services.WidgetChangeFeed;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.MediaType;
+import org.springframework.util.Assert;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+@Slf4j
+@RestController
+@RequestMapping(value = "/v1/widgets/changes", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+public class WidgetChangesController {
+
+  private final WidgetChangeFeed widgetChangeFeed;
+
+  @Autowired
+  public WidgetChangesController(WidgetChangeFeed widgetChangeFeed) {
+    Assert.notNull(widgetChangeFeed, "widgetChangeFeed must not be null");
+    this.widgetChangeFeed = widgetChangeFeed;
+  }
+
+  @GetMapping
+  public SseEmitter subscribe(@RequestHeader(value = "Last-Event-ID", required = false) Long lastEventId) {
+    log.info("Subscribing to widget changes {}", kv("lastEventId", lastEventId));
+    return widgetChangeFeed.subscribe(lastEventId);
+  }
+
+}
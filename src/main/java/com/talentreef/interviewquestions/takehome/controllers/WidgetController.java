@@ -1,57 +1,180 @@
 package com.talentreef.interviewquestions.takehome.controllers;
 
+import static net.logstash.logback.argument.StructuredArguments.kv;
+
+import com.talentreef.interviewquestions.exceptions.InvalidRequestException;
 import com.talentreef.interviewquestions.takehome.models.Widget;
+import com.talentreef.interviewquestions.takehome.models.WidgetField;
+import com.talentreef.interviewquestions.takehome.models.WidgetPage;
+import com.talentreef.interviewquestions.takehome.models.WidgetPatch;
+import com.talentreef.interviewquestions.takehome.models.WidgetSort;
+import com.talentreef.interviewquestions.takehome.models.WidgetWriteResult;
+import com.talentreef.interviewquestions.takehome.services.CatalogVersion;
 import com.talentreef.interviewquestions.takehome.services.WidgetService;
 import jakarta.validation.Valid;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.util.Assert;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
 @Slf4j
 @RestController
-@RequestMapping(value = "/v1/widgets", produces = MediaType.APPLICATION_JSON_VALUE)
+@RequestMapping(value = "/v1/widgets", produces = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_CBOR_VALUE})
 public class WidgetController {
 
   private final WidgetService widgetService;
 
+  private final CatalogVersion catalogVersion;
+
+  private final WidgetResponseCache widgetResponseCache;
+
   @Autowired
-  public WidgetController(WidgetService widgetService) {
+  public WidgetController(WidgetService widgetService, CatalogVersion catalogVersion,
+                          WidgetResponseCache widgetResponseCache) {
     Assert.notNull(widgetService, "widgetService must not be null");
+    Assert.notNull(catalogVersion, "catalogVersion must not be null");
+    Assert.notNull(widgetResponseCache, "widgetResponseCache must not be null");
     this.widgetService = widgetService;
+    this.catalogVersion = catalogVersion;
+    this.widgetResponseCache = widgetResponseCache;
   }
 
+  /**
+   * The tag is read before the data, so a concurrent write can only make the tag older than the body. JSON is
+   * served from the pre-serialized catalog; CBOR goes through its message converter.
+   */
   @GetMapping
-  public ResponseEntity<List<Widget>> getAllWidgets() {
+  public ResponseEntity<Object> getAllWidgets(WebRequest request) {
     log.info("Requesting data from all widgets");
-    return ResponseEntity.ok(widgetService.getAllWidgets());
+    boolean cbor = WidgetMediaTypes.prefersCbor(request);
+    long version = catalogVersion.current();
+    String eTag = WidgetETags.representation(WidgetETags.catalog(version), cbor);
+    if (request.checkNotModified(eTag)) {
+      return null;
+    }
+    return ResponseEntity.ok()
+        .eTag(eTag)
+        .varyBy(HttpHeaders.ACCEPT)
+        .contentType(WidgetMediaTypes.negotiated(cbor))
+        .body(cbor ? widgetService.getAllWidgets() : widgetResponseCache.catalog(version, widgetService::getAllWidgets));
+  }
+
+  /**
+   * The tag is read before the data, as for the full catalog.
+   */
+  @GetMapping(params = {"fields", "!limit", "!name"})
+  public ResponseEntity<List<Map<String, Object>>> getAllWidgetFields(@RequestParam String fields, WebRequest request) {
+    log.info("Requesting fields of all widgets {}", kv("fields", fields));
+    Set<WidgetField> selectedFields = WidgetField.parse(fields);
+    String eTag = WidgetETags.representation(WidgetETags.catalog(catalogVersion.current(), selectedFields),
+        WidgetMediaTypes.prefersCbor(request));
+    if (request.checkNotModified(eTag)) {
+      return null;
+    }
+    return ResponseEntity.ok().eTag(eTag).varyBy(HttpHeaders.ACCEPT).body(widgetService.getAllWidgets(selectedFields));
+  }
+
+  /**
+   * Field selection only applies to the full catalog. Without this mapping a request combining it with
+   * {@code limit} or {@code name} would match none of the others and fall through to the unfiltered catalog.
+   */
+  @GetMapping(params = "fields")
+  public ResponseEntity<Object> rejectFieldsWithPageOrName() {
+    throw new InvalidRequestException("fields cannot be combined with limit or name");
   }
 
-  @GetMapping(params = "name")
-  public ResponseEntity<Object> getWidgetByName(@RequestParam String name) {
-    log.info("Requesting data from widget with name=" + name);
-    return ResponseEntity.ok(widgetService.getWidgetByName(name));
+  /**
+   * A page and a single widget are different resources. Without this mapping the two handlers below match a
+   * request carrying both parameters equally well and the dispatcher fails with an ambiguous handler.
+   */
+  @GetMapping(params = {"limit", "name", "!fields"})
+  public ResponseEntity<Object> rejectPageWithName() {
+    throw new InvalidRequestException("limit cannot be combined with name");
+  }
+
+  /**
+   * The tag is read before the page, as for the full catalog.
+   */
+  @GetMapping(params = {"limit", "!fields"})
+  public ResponseEntity<WidgetPage> getWidgetsPage(@RequestParam int limit,
+                                                   @RequestParam(required = false) String after,
+                                                   @RequestParam(defaultValue = "name") String sort,
+                                                   WebRequest request) {
+    log.info("Requesting page of widgets {} {}", kv("limit", limit), kv("sort", sort));
+    String eTag = WidgetETags.representation(WidgetETags.catalog(catalogVersion.current()),
+        WidgetMediaTypes.prefersCbor(request));
+    if (request.checkNotModified(eTag)) {
+      return null;
+    }
+    return ResponseEntity.ok()
+        .eTag(eTag)
+        .varyBy(HttpHeaders.ACCEPT)
+        .body(widgetService.getWidgetsPage(limit, after, WidgetSort.from(sort)));
+  }
+
+  /**
+   * JSON is served from bytes cached per widget tag; CBOR goes through its message converter.
+   */
+  @GetMapping(params = {"name", "!fields"})
+  public ResponseEntity<Object> getWidgetByName(@RequestParam String name, WebRequest request) {
+    log.info("Requesting data from widget {}", kv("name", name));
+    boolean cbor = WidgetMediaTypes.prefersCbor(request);
+    // Most conditional requests are answered from the revision alone, without loading the widget
+    String indexedETag = widgetService.getWidgetRevision(name)
+        .map(revision -> WidgetETags.representation(WidgetETags.widget(revision), cbor))
+        .orElse(null);
+    if (indexedETag != null && request.checkNotModified(indexedETag)) {
+      return null;
+    }
+    Widget widget = widgetService.getWidgetByName(name);
+    String eTag = WidgetETags.representation(WidgetETags.widget(widget), cbor);
+    if (!eTag.equals(indexedETag) && request.checkNotModified(eTag)) {
+      return null;
+    }
+    return ResponseEntity.ok()
+        .eTag(eTag)
+        .varyBy(HttpHeaders.ACCEPT)
+        .contentType(WidgetMediaTypes.negotiated(cbor))
+        .body(cbor ? widget : widgetResponseCache.widget(widget, eTag));
   }
 
   @PostMapping
   public ResponseEntity<Object> createWidget(@Valid @RequestBody Widget widget) {
-    log.info("Requesting to create new widget with name=" + widget.getName());
+    log.info("Requesting to create new widget {}", kv("name", widget.getName()));
     return ResponseEntity.ok(widgetService.createWidget(widget));
   }
 
   @PutMapping
   public ResponseEntity<Object> updateWidget(@Valid @RequestBody Widget widget) {
-    log.info("Requesting to update data for widget with name=" + widget.getName());
+    log.info("Requesting to update data for widget {}", kv("name", widget.getName()));
     return ResponseEntity.ok(widgetService.updateWidget(widget));
   }
 
+  @PutMapping("/{name}")
+  public ResponseEntity<Object> upsertWidget(@PathVariable String name, @Valid @RequestBody Widget widget) {
+    log.info("Requesting to create or replace widget {}", kv("name", name));
+    WidgetWriteResult result = widgetService.upsertWidget(name, widget);
+    return ResponseEntity.status(result.isCreated() ? HttpStatus.CREATED : HttpStatus.OK).body(result.getWidget());
+  }
+
+  @PatchMapping("/{name}")
+  public ResponseEntity<Object> patchWidget(@PathVariable String name, @Valid @RequestBody WidgetPatch patch) {
+    log.info("Requesting to patch widget {}", kv("name", name));
+    return ResponseEntity.ok(widgetService.patchWidget(name, patch));
+  }
+
   @DeleteMapping
   public ResponseEntity<Object> deleteWidget(@RequestParam String name) {
-    log.info("Requesting to delete widget with name=" + name);
+    log.info("Requesting to delete widget {}", kv("name", name));
     return ResponseEntity.ok(widgetService.deleteWidgetByName(name));
   }
 
@@ -0,0 +1,39 @@
+package com.talentreef.interviewquestions.takehome.controllers;
+
+import com.talentreef.interviewquestions.takehome.models.Widget;
+import com.talentreef.interviewquestions.takehome.models.WidgetField;
+import com.talentreef.interviewquestions.takehome.services.WidgetRevision;
+
+import java.util.Set;
+import java.util.stream.Collectors;
+
+final class WidgetETags {
+
+  private WidgetETags() {
+  }
+
+  static String catalog(long catalogVersion) {
+    return "\"catalog-" + catalogVersion + "\"";
+  }
+
+  static String catalog(long catalogVersion, Set<WidgetField> fields) {
+    return "\"catalog-" + catalogVersion + "-" + fields.stream()
+        .map(WidgetField::getAttribute)
+        .collect(Collectors.joining(",")) + "\"";
+  }
+
+  /**
+   * Each representation of a resource needs its own strong tag, so CBOR responses get a suffix.
+   */
+  static String representation(String eTag, boolean cbor) {
+    return cbor ? eTag.substring(0, eTag.length() - 1) + "-cbor\"" : eTag;
+  }
+
+  static String widget(Widget widget) {
+    return widget(WidgetRevision.of(widget));
+  }
+
+  static String widget(WidgetRevision revision) {
+    return "\"" + revision.version() + "-" + Integer.toHexString(revision.contentHash()) + "\"";
+  }
+}
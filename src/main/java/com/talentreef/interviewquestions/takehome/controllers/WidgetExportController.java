@@ -0,0 +1,35 @@
+package com.talentreef.interviewquestions.takehome.controllers;
+
+import com.talentreef.interviewquestions.takehome.services.WidgetExportService;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.util.Assert;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+@Slf4j
+@RestController
+@RequestMapping(value = "/v1/widgets/export", produces = MediaType.APPLICATION_NDJSON_VALUE)
+public class WidgetExportController {
+
+  private final WidgetExportService widgetExportService;
+
+  @Autowired
+  public WidgetExportController(WidgetExportService widgetExportService) {
+    Assert.notNull(widgetExportService, "widgetExportService must not be null");
+    this.widgetExportService = widgetExportService;
+  }
+
+  @GetMapping
+  public ResponseEntity<StreamingResponseBody> exportWidgets() {
+    log.info("Requesting NDJSON export of all widgets");
+    return ResponseEntity.ok()
+        .contentType(MediaType.APPLICATION_NDJSON)
+        .body(widgetExportService::exportWidgets);
+  }
+
+}
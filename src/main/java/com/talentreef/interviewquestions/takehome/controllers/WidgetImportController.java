@@ -0,0 +1,56 @@
+package com.talentreef.interviewquestions.takehome.controllers;
+
+import com.talentreef.interviewquestions.exceptions.ElementNotFoundException;
+import com.talentreef.interviewquestions.takehome.models.WidgetImportReport;
+import com.talentreef.interviewquestions.takehome.services.WidgetImportService;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.util.Assert;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+@Slf4j
+@RestController
+@RequestMapping(value = "/v1/widgets/import", produces = MediaType.APPLICATION_JSON_VALUE)
+public class WidgetImportController {
+
+  static final String TEXT_CSV_VALUE = "text/csv";
+
+  private final WidgetImportService widgetImportService;
+
+  @Autowired
+  public WidgetImportController(WidgetImportService widgetImportService) {
+    Assert.notNull(widgetImportService, "widgetImportService must not be null");
+    this.widgetImportService = widgetImportService;
+  }
+
+  @PostMapping(consumes = TEXT_CSV_VALUE)
+  public ResponseEntity<WidgetImportReport> importCsv(InputStream body, @RequestParam(required = false) String id)
+      throws IOException {
+    log.info("Requesting CSV widget import");
+    return ResponseEntity.ok(widgetImportService.importWidgets(body, WidgetImportService.Format.CSV, id));
+  }
+
+  @PostMapping(consumes = MediaType.APPLICATION_NDJSON_VALUE)
+  public ResponseEntity<WidgetImportReport> importNdjson(InputStream body, @RequestParam(required = false) String id)
+      throws IOException {
+    log.info("Requesting NDJSON widget import");
+    return ResponseEntity.ok(widgetImportService.importWidgets(body, WidgetImportService.Format.NDJSON, id));
+  }
+
+  @GetMapping("/{id}")
+  public ResponseEntity<WidgetImportReport> getImport(@PathVariable String id) {
+    return ResponseEntity.ok(widgetImportService.getImport(id)
+        .orElseThrow(() -> new ElementNotFoundException(String.format("Widget import with id=%s not found", id))));
+  }
+
+}
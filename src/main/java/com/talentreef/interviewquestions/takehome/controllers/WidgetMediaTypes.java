@@ -0,0 +1,40 @@
+package com.talentreef.interviewquestions.takehome.controllers;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.InvalidMediaTypeException;
+import org.springframework.http.MediaType;
+import org.springframework.web.context.request.WebRequest;
+
+final class WidgetMediaTypes {
+
+  private WidgetMediaTypes() {
+  }
+
+  /**
+   * Whether the client ranks CBOR above JSON. Wildcards count as JSON, so only callers that ask for CBOR get it.
+   */
+  static boolean prefersCbor(WebRequest request) {
+    String accept = request.getHeader(HttpHeaders.ACCEPT);
+    if (accept == null) {
+      return false;
+    }
+    double cbor = -1;
+    double json = -1;
+    try {
+      for (MediaType mediaType : MediaType.parseMediaTypes(accept)) {
+        if (mediaType.equalsTypeAndSubtype(MediaType.APPLICATION_CBOR)) {
+          cbor = Math.max(cbor, mediaType.getQualityValue());
+        } else if (mediaType.includes(MediaType.APPLICATION_JSON)) {
+          json = Math.max(json, mediaType.getQualityValue());
+        }
+      }
+    } catch (InvalidMediaTypeException e) {
+      return false;
+    }
+    return cbor > json;
+  }
+
+  static MediaType negotiated(boolean cbor) {
+    return cbor ? MediaType.APPLICATION_CBOR : MediaType.APPLICATION_JSON;
+  }
+}
@@ -0,0 +1,41 @@
+package com.talentreef.interviewquestions.takehome.controllers;
+
+import static net.logstash.logback.argument.StructuredArguments.kv;
+
+import com.talentreef.interviewquestions.takehome.models.WidgetPage;
+import com.talentreef.interviewquestions.takehome.services.WidgetPriceRangeService;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.util.Assert;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.math.BigDecimal;
+
+@Slf4j
+@RestController
+@RequestMapping(value = "/v1/widgets/by-price", produces = MediaType.APPLICATION_JSON_VALUE)
+public class WidgetPriceRangeController {
+
+  private final WidgetPriceRangeService widgetPriceRangeService;
+
+  @Autowired
+  public WidgetPriceRangeController(WidgetPriceRangeService widgetPriceRangeService) {
+    Assert.notNull(widgetPriceRangeService, "widgetPriceRangeService must not be null");
+    this.widgetPriceRangeService = widgetPriceRangeService;
+  }
+
+  @GetMapping
+  public ResponseEntity<WidgetPage> getWidgetsByPrice(@RequestParam(required = false) BigDecimal minPrice,
+                                                      @RequestParam(required = false) BigDecimal maxPrice,
+                                                      @RequestParam(defaultValue = "100") int limit,
+                                                      @RequestParam(required = false) String after) {
+    log.info("Requesting widgets by price {} {}", kv("minPrice", minPrice), kv("maxPrice", maxPrice));
+    return ResponseEntity.ok(widgetPriceRangeService.getWidgetsByPrice(minPrice, maxPrice, limit, after));
+  }
+
+}
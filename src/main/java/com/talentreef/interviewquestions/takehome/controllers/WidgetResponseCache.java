@@ -0,0 +1,98 @@
+package com.talentreef.interviewquestions.takehome.controllers;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.talentreef.interviewquestions.takehome.events.WidgetChangedEvent;
+import com.talentreef.interviewquestions.takehome.models.Widget;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.util.Assert;
+
+import java.io.UncheckedIOException;
+import java.util.List;
+import java.util.function.Supplier;
+
+/**
+ * Serialized JSON of the widget read responses, so unchanged data is written straight from bytes instead of
+ * going through Jackson on every request. The catalog is cached under the catalog version and single widgets
+ * under their entity tag, so an entry can never be served for data it was not built from.
+ */
+@Component
+public class WidgetResponseCache {
+
+  public static final String CACHE_NAME = "widgetResponses";
+
+  private final ObjectWriter widgetWriter;
+
+  private final ObjectWriter catalogWriter;
+
+  private final Cache<String, Entry> widgets;
+
+  private volatile CatalogEntry catalog;
+
+  @Autowired
+  public WidgetResponseCache(ObjectMapper objectMapper, MeterRegistry meterRegistry,
+                             @Value("${widgets.cache.maximum-size:10000}") long maximumSize) {
+    Assert.notNull(objectMapper, "objectMapper must not be null");
+    Assert.notNull(meterRegistry, "meterRegistry must not be null");
+    this.widgetWriter = objectMapper.writerFor(Widget.class);
+    this.catalogWriter = objectMapper.writerFor(objectMapper.getTypeFactory().constructCollectionType(List.class, Widget.class));
+    this.widgets = Caffeine.newBuilder()
+        .maximumSize(maximumSize)
+        .recordStats()
+        .build();
+    CaffeineCacheMetrics.monitor(meterRegistry, widgets, CACHE_NAME);
+  }
+
+  /**
+   * The caller reads {@code catalogVersion} before the catalog is loaded, so bytes stored under a version are
+   * never older than that version.
+   */
+  public byte[] catalog(long catalogVersion, Supplier<List<Widget>> loader) {
+    CatalogEntry cached = catalog;
+    if (cached != null && cached.catalogVersion() == catalogVersion) {
+      return cached.json();
+    }
+    byte[] json = serialize(catalogWriter, loader.get());
+    catalog = new CatalogEntry(catalogVersion, json);
+    return json;
+  }
+
+  public byte[] widget(Widget widget, String eTag) {
+    String key = Widget.normalize(widget.getName());
+    Entry cached = widgets.getIfPresent(key);
+    if (cached != null && cached.eTag().equals(eTag)) {
+      return cached.json();
+    }
+    byte[] json = serialize(widgetWriter, widget);
+    widgets.put(key, new Entry(eTag, json));
+    return json;
+  }
+
+  @TransactionalEventListener(fallbackExecution = true)
+  public void onWidgetChanged(WidgetChangedEvent event) {
+    widgets.invalidate(Widget.normalize(event.getWidget().getName()));
+    catalog = null;
+  }
+
+  private static byte[] serialize(ObjectWriter writer, Object value) {
+    try {
+      return writer.writeValueAsBytes(value);
+    } catch (JsonProcessingException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+
+  private record Entry(String eTag, byte[] json) {
+  }
+
+  private record CatalogEntry(long catalogVersion, byte[] json) {
+  }
+}
@@ -0,0 +1,39 @@
+package com.talentreef.interviewquestions.takehome.controllers;
+
+import static net.logstash.logback.argument.StructuredArguments.kv;
+
+import com.talentreef.interviewquestions.takehome.models.Widget;
+import com.talentreef.interviewquestions.takehome.services.WidgetSearchService;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.util.Assert;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.List;
+
+@Slf4j
+@RestController
+@RequestMapping(value = "/v1/widgets/search", produces = MediaType.APPLICATION_JSON_VALUE)
+public class WidgetSearchController {
+
+  private final WidgetSearchService widgetSearchService;
+
+  @Autowired
+  public WidgetSearchController(WidgetSearchService widgetSearchService) {
+    Assert.notNull(widgetSearchService, "widgetSearchService must not be null");
+    this.widgetSearchService = widgetSearchService;
+  }
+
+  @GetMapping
+  public ResponseEntity<List<Widget>> search(@RequestParam("q") String query,
+                                             @RequestParam(defaultValue = "20") int limit) {
+    log.info("Requesting widget search {}", kv("q", query));
+    return ResponseEntity.ok(widgetSearchService.search(query, limit));
+  }
+
+}
@@ -0,0 +1,30 @@
+package com.talentreef.interviewquestions.takehome.controllers;
+
+import com.talentreef.interviewquestions.takehome.models.WidgetStats;
+import com.talentreef.interviewquestions.takehome.services.WidgetStatsService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.util.Assert;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+@RestController
+@RequestMapping(value = "/v1/widgets/stats", produces = MediaType.APPLICATION_JSON_VALUE)
+public class WidgetStatsController {
+
+  private final WidgetStatsService widgetStatsService;
+
+  @Autowired
+  public WidgetStatsController(WidgetStatsService widgetStatsService) {
+    Assert.notNull(widgetStatsService, "widgetStatsService must not be null");
+    this.widgetStatsService = widgetStatsService;
+  }
+
+  @GetMapping
+  public ResponseEntity<WidgetStats> getStats() {
+    return ResponseEntity.ok(widgetStatsService.getStats());
+  }
+
+}
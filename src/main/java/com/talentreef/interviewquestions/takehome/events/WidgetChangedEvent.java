@@ -0,0 +1,21 @@
+package com.talentreef.interviewquestions.takehome.events;
+
+import com.talentreef.interviewquestions.takehome.models.Widget;
+import lombok.Value;
+
+/**
+ * Published by the widget services after a mutation has been written to the repository.
+ */
+@Value
+public class WidgetChangedEvent {
+
+  public enum Type {
+    CREATED,
+    UPDATED,
+    DELETED
+  }
+
+  Type type;
+
+  Widget widget;
+}
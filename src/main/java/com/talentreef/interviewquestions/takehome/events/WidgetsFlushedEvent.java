@@ -0,0 +1,15 @@
+package com.talentreef.interviewquestions.takehome.events;
+
+import lombok.Value;
+
+import java.util.Set;
+
+/**
+ * Published by the widget write-behind after a batch of acknowledged updates has been written to the database,
+ * so readers of the database can tell its contents changed although no new {@link WidgetChangedEvent} was sent.
+ */
+@Value
+public class WidgetsFlushedEvent {
+
+  Set<String> normalizedNames;
+}
@@ -1,19 +1,20 @@
 package com.talentreef.interviewquestions.takehome.models;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
-import jakarta.persistence.Column;
-import jakarta.persistence.Entity;
-import jakarta.persistence.Id;
-import jakarta.persistence.Table;
+import jakarta.persistence.*;
 import jakarta.validation.constraints.*;
 import lombok.*;
 
 import java.math.BigDecimal;
+import java.util.Locale;
 
 
 @Data
 @Entity
-@Table(name = "widgets")
+@Table(name = "widgets",
+    indexes = @Index(name = "idx_widgets_price_name", columnList = "price, name"),
+    uniqueConstraints = @UniqueConstraint(name = "uk_widgets_normalized_name", columnNames = "normalized_name"))
 @JsonIgnoreProperties(ignoreUnknown = true)
 @AllArgsConstructor(access = AccessLevel.PRIVATE)
 @NoArgsConstructor
@@ -37,4 +38,24 @@ public class Widget {
   @Digits(integer = 5, fraction = 2)
   @NotNull
   private BigDecimal price;
+
+  // Incremented on every write; clients send it back on update to detect concurrent modifications
+  @Version
+  private Long version;
+
+  // Lower-cased copy of the name so case-insensitive lookups can use the unique index instead of upper(name)
+  @JsonIgnore
+  @Setter(AccessLevel.NONE)
+  @Column(name = "normalized_name", nullable = false, length = 100)
+  private String normalizedName;
+
+  public static String normalize(String name) {
+    return name == null ? null : name.toLowerCase(Locale.ROOT);
+  }
+
+  @PrePersist
+  @PreUpdate
+  void syncNormalizedName() {
+    normalizedName = normalize(name);
+  }
 }
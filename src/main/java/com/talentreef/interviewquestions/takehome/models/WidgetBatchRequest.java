@@ -0,0 +1,25 @@
+package com.talentreef.interviewquestions.takehome.models;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+import lombok.*;
+
+import java.util.List;
+
+
+@Data
+@JsonIgnoreProperties(ignoreUnknown = true)
+@AllArgsConstructor(access = AccessLevel.PRIVATE)
+@NoArgsConstructor
+@Builder(toBuilder=true)
+public class WidgetBatchRequest {
+
+  public static final int MAX_OPERATIONS = 1000;
+
+  @NotEmpty
+  @Size(max = MAX_OPERATIONS)
+  private List<@Valid @NotNull WidgetOperation> operations;
+}
@@ -0,0 +1,14 @@
+package com.talentreef.interviewquestions.takehome.models;
+
+import com.talentreef.interviewquestions.takehome.events.WidgetChangedEvent;
+import lombok.Value;
+
+@Value
+public class WidgetChange {
+
+  long sequence;
+
+  WidgetChangedEvent.Type type;
+
+  Widget widget;
+}
@@ -0,0 +1,43 @@
+package com.talentreef.interviewquestions.takehome.models;
+
+import com.talentreef.interviewquestions.exceptions.InvalidRequestException;
+
+import java.util.EnumSet;
+import java.util.Locale;
+import java.util.Set;
+
+/**
+ * Widget attributes a client can select with {@code fields=}. The name identifies the widget, so it is
+ * always selected.
+ */
+public enum WidgetField {
+  NAME("name"),
+  DESCRIPTION("description"),
+  PRICE("price"),
+  VERSION("version");
+
+  private final String attribute;
+
+  WidgetField(String attribute) {
+    this.attribute = attribute;
+  }
+
+  public String getAttribute() {
+    return attribute;
+  }
+
+  public static Set<WidgetField> parse(String fields) {
+    Set<WidgetField> selected = EnumSet.of(NAME);
+    for (String field : fields.split(",")) {
+      if (field.isBlank()) {
+        continue;
+      }
+      try {
+        selected.add(WidgetField.valueOf(field.trim().toUpperCase(Locale.ROOT)));
+      } catch (IllegalArgumentException e) {
+        throw new InvalidRequestException(String.format("Unsupported field=%s", field.trim()));
+      }
+    }
+    return selected;
+  }
+}
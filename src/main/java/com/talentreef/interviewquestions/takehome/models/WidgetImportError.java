@@ -0,0 +1,19 @@
+package com.talentreef.interviewquestions.takehome.models;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.*;
+
+
+@Data
+@JsonInclude(JsonInclude.Include.NON_NULL)
+@AllArgsConstructor
+@NoArgsConstructor
+public class WidgetImportError {
+
+  // 1-based line number in the uploaded file, header included
+  private long line;
+
+  private String name;
+
+  private String error;
+}
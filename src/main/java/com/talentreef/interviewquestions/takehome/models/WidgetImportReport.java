@@ -0,0 +1,35 @@
+package com.talentreef.interviewquestions.takehome.models;
+
+import lombok.*;
+
+import java.util.List;
+
+
+@Data
+@AllArgsConstructor(access = AccessLevel.PRIVATE)
+@NoArgsConstructor
+@Builder(toBuilder=true)
+public class WidgetImportReport {
+
+  private String id;
+
+  // False while the upload is still being read and written; the counts so far are then a progress report
+  private boolean finished;
+
+  private String format;
+
+  private long rows;
+
+  private long imported;
+
+  private long failed;
+
+  private long elapsedMillis;
+
+  private long rowsPerSecond;
+
+  // Capped at widgets.import.max-errors; failed still counts every rejected row
+  private List<WidgetImportError> errors;
+
+  private boolean errorsTruncated;
+}
@@ -0,0 +1,49 @@
+package com.talentreef.interviewquestions.takehome.models;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.AssertTrue;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+import lombok.*;
+
+
+@Data
+@JsonIgnoreProperties(ignoreUnknown = true)
+@AllArgsConstructor(access = AccessLevel.PRIVATE)
+@NoArgsConstructor
+@Builder(toBuilder=true)
+public class WidgetOperation {
+
+  public enum Type {
+    CREATE,
+    UPDATE,
+    DELETE
+  }
+
+  @NotNull
+  private Type type;
+
+  // Required for CREATE and UPDATE
+  @Valid
+  private Widget widget;
+
+  // Required for DELETE
+  @Size(min = 3, max = 100)
+  private String name;
+
+  @JsonIgnore
+  @AssertTrue(message = "widget is required for CREATE and UPDATE, name is required for DELETE")
+  public boolean isWellFormed() {
+    if (type == null) {
+      return true;
+    }
+    return type == Type.DELETE ? name != null : widget != null;
+  }
+
+  @JsonIgnore
+  public String getTargetName() {
+    return type == Type.DELETE ? name : widget.getName();
+  }
+}
@@ -0,0 +1,25 @@
+package com.talentreef.interviewquestions.takehome.models;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.*;
+
+
+@Data
+@JsonInclude(JsonInclude.Include.NON_NULL)
+@AllArgsConstructor(access = AccessLevel.PRIVATE)
+@NoArgsConstructor
+@Builder(toBuilder=true)
+public class WidgetOperationResult {
+
+  private int index;
+
+  private WidgetOperation.Type type;
+
+  private String name;
+
+  private int status;
+
+  private String error;
+
+  private Widget widget;
+}
@@ -0,0 +1,36 @@
+package com.talentreef.interviewquestions.takehome.models;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import jakarta.validation.constraints.*;
+import lombok.*;
+
+import java.math.BigDecimal;
+
+/**
+ * Partial update of a widget: only the fields that are present are changed.
+ */
+@Data
+@JsonIgnoreProperties(ignoreUnknown = true)
+@AllArgsConstructor(access = AccessLevel.PRIVATE)
+@NoArgsConstructor
+@Builder(toBuilder=true)
+public class WidgetPatch {
+
+  @Size(min = 5, max = 1000)
+  private String description;
+
+  @DecimalMin(value = "1.00")
+  @DecimalMax(value = "20000.00")
+  @Digits(integer = 5, fraction = 2)
+  private BigDecimal price;
+
+  // Optional; when present the patch only applies to this version
+  private Long version;
+
+  @JsonIgnore
+  @AssertTrue(message = "description or price is required")
+  public boolean isNotEmpty() {
+    return description != null || price != null;
+  }
+}
@@ -0,0 +1,18 @@
+package com.talentreef.interviewquestions.takehome.models;
+
+import com.talentreef.interviewquestions.exceptions.InvalidRequestException;
+
+import java.util.Locale;
+
+public enum WidgetSort {
+  NAME,
+  PRICE;
+
+  public static WidgetSort from(String value) {
+    try {
+      return WidgetSort.valueOf(value.trim().toUpperCase(Locale.ROOT));
+    } catch (IllegalArgumentException e) {
+      throw new InvalidRequestException(String.format("Unsupported sort=%s", value));
+    }
+  }
+}
@@ -0,0 +1,30 @@
+package com.talentreef.interviewquestions.takehome.models;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.*;
+
+import java.math.BigDecimal;
+
+
+@Data
+@JsonInclude(JsonInclude.Include.NON_NULL)
+@AllArgsConstructor(access = AccessLevel.PRIVATE)
+@NoArgsConstructor
+@Builder(toBuilder=true)
+public class WidgetStats {
+
+  private long count;
+
+  private BigDecimal minPrice;
+
+  private BigDecimal maxPrice;
+
+  private BigDecimal averagePrice;
+
+  // Percentiles are estimates within 0.5% of the true price
+  private BigDecimal medianPrice;
+
+  private BigDecimal p90Price;
+
+  private BigDecimal p99Price;
+}
@@ -0,0 +1,11 @@
+package com.talentreef.interviewquestions.takehome.models;
+
+import lombok.Value;
+
+@Value
+public class WidgetWriteResult {
+
+  Widget widget;
+
+  boolean created;
+}
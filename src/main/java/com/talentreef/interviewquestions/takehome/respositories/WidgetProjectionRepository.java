@@ -0,0 +1,22 @@
+package com.talentreef.interviewquestions.takehome.respositories;
+
+import com.talentreef.interviewquestions.takehome.models.WidgetField;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+public interface WidgetProjectionRepository {
+
+    /**
+     * Every widget ordered by name, with only the selected columns loaded. Each row maps attribute name to value
+     * in the order of {@link WidgetField}.
+     */
+    List<Map<String, Object>> findAllProjected(Set<WidgetField> fields);
+
+    /**
+     * At most {@code limit} widgets with a name after {@code afterName}, or from the first when it is null, shaped
+     * as in {@link #findAllProjected}. The selection has to include {@link WidgetField#NAME}, the keyset position.
+     */
+    List<Map<String, Object>> findProjectedPage(Set<WidgetField> fields, String afterName, int limit);
+}
@@ -0,0 +1,71 @@
+package com.talentreef.interviewquestions.takehome.respositories;
+
+import com.talentreef.interviewquestions.takehome.models.Widget;
+import com.talentreef.interviewquestions.takehome.models.WidgetField;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.Tuple;
+import jakarta.persistence.TypedQuery;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Path;
+import jakarta.persistence.criteria.Root;
+import jakarta.persistence.criteria.Selection;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.util.Assert;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Interface and DTO projections fix their columns at compile time; the field selection is only known per
+ * request, so the select list is built as a Criteria tuple query instead.
+ */
+class WidgetProjectionRepositoryImpl implements WidgetProjectionRepository {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<Map<String, Object>> findAllProjected(Set<WidgetField> fields) {
+        return select(fields, null, null);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<Map<String, Object>> findProjectedPage(Set<WidgetField> fields, String afterName, int limit) {
+        Assert.isTrue(fields.contains(WidgetField.NAME), "fields must include NAME");
+        return select(fields, afterName, limit);
+    }
+
+    private List<Map<String, Object>> select(Set<WidgetField> fields, String afterName, Integer limit) {
+        CriteriaBuilder criteriaBuilder = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Tuple> query = criteriaBuilder.createTupleQuery();
+        Root<Widget> widget = query.from(Widget.class);
+        List<Selection<?>> selections = fields.stream()
+            .<Selection<?>>map(field -> widget.get(field.getAttribute()).alias(field.getAttribute()))
+            .toList();
+        Path<String> name = widget.get(WidgetField.NAME.getAttribute());
+        query.multiselect(selections).orderBy(criteriaBuilder.asc(name));
+        if (afterName != null) {
+            query.where(criteriaBuilder.greaterThan(name, afterName));
+        }
+
+        TypedQuery<Tuple> typedQuery = entityManager.createQuery(query);
+        if (limit != null) {
+            typedQuery.setMaxResults(limit);
+        }
+        return typedQuery.getResultStream()
+            .map(tuple -> {
+                Map<String, Object> row = new LinkedHashMap<>();
+                for (WidgetField field : fields) {
+                    row.put(field.getAttribute(), tuple.get(field.getAttribute()));
+                }
+                return row;
+            })
+            .toList();
+    }
+}
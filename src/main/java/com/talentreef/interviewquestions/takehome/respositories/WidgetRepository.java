@@ -1,13 +1,61 @@
 package com.talentreef.interviewquestions.takehome.respositories;
 
 import com.talentreef.interviewquestions.takehome.models.Widget;
-import org.springframework.data.jpa.repository.JpaRepository;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.ListCrudRepository;
+import org.springframework.data.repository.ListPagingAndSortingRepository;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.math.BigDecimal;
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 
+/**
+ * Declares only what the widget services use, rather than all of {@code JpaRepository}: every method here has to
+ * be routed across shards by {@code ShardedWidgetRepository}, and query-by-example or fluent queries cannot be
+ * merged from per-shard results.
+ */
 @Repository
-public interface WidgetRepository extends JpaRepository<Widget, String> {
-    Optional<Widget> findByNameIgnoreCase(String name);
+public interface WidgetRepository extends ListCrudRepository<Widget, String>,
+        ListPagingAndSortingRepository<Widget, String>, WidgetWriteRepository, WidgetProjectionRepository {
+
+    <S extends Widget> S saveAndFlush(S widget);
+
+    void flush();
+
+    Optional<Widget> findByNormalizedName(String normalizedName);
+
+    List<Widget> findByNormalizedNameIn(Collection<String> normalizedNames);
+
+    List<Widget> findAllByOrderByNameAsc(Pageable pageable);
+
+    List<Widget> findByNameGreaterThanOrderByNameAsc(String name, Pageable pageable);
+
+    List<Widget> findAllByOrderByPriceAscNameAsc(Pageable pageable);
+
+    @Query("select w from Widget w where w.price > :price or (w.price = :price and w.name > :name) order by w.price asc, w.name asc")
+    List<Widget> findPriceKeysetPage(@Param("price") BigDecimal price, @Param("name") String name, Pageable pageable);
+
+    List<Widget> findByPriceBetweenOrderByPriceAscNameAsc(BigDecimal minPrice, BigDecimal maxPrice, Pageable pageable);
+
+    @Query("select w from Widget w where w.price <= :maxPrice and (w.price > :price or (w.price = :price and w.name > :name)) "
+        + "order by w.price asc, w.name asc")
+    List<Widget> findPriceRangeKeysetPage(@Param("maxPrice") BigDecimal maxPrice, @Param("price") BigDecimal price,
+                                          @Param("name") String name, Pageable pageable);
+
+    @QueryHints({
+        @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"),
+        @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true"),
+        @QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "false")
+    })
+    @Query("select w from Widget w order by w.name asc")
+    Stream<Widget> streamAllByOrderByNameAsc();
 }
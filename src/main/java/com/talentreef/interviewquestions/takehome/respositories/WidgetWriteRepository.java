@@ -0,0 +1,31 @@
+package com.talentreef.interviewquestions.takehome.respositories;
+
+import com.talentreef.interviewquestions.takehome.models.Widget;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Writes that take a single round-trip: the statement changes the row and returns it in the same call.
+ */
+public interface WidgetWriteRepository {
+
+    /**
+     * Sets the non-null fields and bumps the version. Empty when no widget has the name or, if
+     * {@code expectedVersion} is given, when the stored version differs.
+     */
+    Optional<Widget> updateInPlace(String normalizedName, String description, BigDecimal price, Long expectedVersion);
+
+    /**
+     * Inserts the widget at version 0, or replaces description and price of the widget with the same name and
+     * bumps its version. Empty when {@code expectedVersion} is given and the stored version differs.
+     */
+    Optional<Widget> upsert(Widget widget, Long expectedVersion);
+
+    /**
+     * Sets description, price and version of each widget as given, in one JDBC batch. Returns the normalized
+     * names that were not written because the widget no longer exists or already has that version or a later one.
+     */
+    List<String> overwriteAll(List<Widget> widgets);
+}
@@ -0,0 +1,107 @@
+package com.talentreef.interviewquestions.takehome.respositories;
+
+import com.talentreef.interviewquestions.takehome.models.Widget;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.hibernate.Session;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.sql.PreparedStatement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * H2 data change delta tables ({@code FINAL TABLE}) return the rows an UPDATE or MERGE wrote, so the write and
+ * the read of the result are one statement. Parameters are cast because H2 cannot type a bare {@code ?} that
+ * may be null.
+ */
+class WidgetWriteRepositoryImpl implements WidgetWriteRepository {
+
+    private static final String UPDATE_IN_PLACE = """
+        SELECT * FROM FINAL TABLE (
+          UPDATE widgets
+          SET description = COALESCE(CAST(:description AS VARCHAR(1000)), description),
+              price = COALESCE(CAST(:price AS DECIMAL(7, 2)), price),
+              version = version + 1
+          WHERE normalized_name = :normalizedName
+            AND (CAST(:expectedVersion AS BIGINT) IS NULL OR version = :expectedVersion))
+        """;
+
+    private static final String UPSERT = """
+        SELECT * FROM FINAL TABLE (
+          MERGE INTO widgets w
+          USING (VALUES (CAST(:name AS VARCHAR(100)), CAST(:normalizedName AS VARCHAR(100)),
+                         CAST(:description AS VARCHAR(1000)), CAST(:price AS DECIMAL(7, 2))))
+                AS s(name, normalized_name, description, price)
+          ON w.normalized_name = s.normalized_name
+          WHEN MATCHED AND (CAST(:expectedVersion AS BIGINT) IS NULL OR w.version = :expectedVersion) THEN
+            UPDATE SET description = s.description, price = s.price, version = w.version + 1
+          WHEN NOT MATCHED THEN
+            INSERT (name, normalized_name, description, price, version)
+            VALUES (s.name, s.normalized_name, s.description, s.price, 0))
+        """;
+
+    private static final String OVERWRITE = """
+        UPDATE widgets SET description = ?, price = ?, version = ?
+        WHERE normalized_name = ? AND version < ?
+        """;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    @Transactional
+    public Optional<Widget> updateInPlace(String normalizedName, String description, BigDecimal price,
+                                          Long expectedVersion) {
+        return single(entityManager.createNativeQuery(UPDATE_IN_PLACE, Widget.class)
+            .setParameter("normalizedName", normalizedName)
+            .setParameter("description", description)
+            .setParameter("price", price)
+            .setParameter("expectedVersion", expectedVersion)
+            .getResultList());
+    }
+
+    @Override
+    @Transactional
+    public Optional<Widget> upsert(Widget widget, Long expectedVersion) {
+        return single(entityManager.createNativeQuery(UPSERT, Widget.class)
+            .setParameter("name", widget.getName())
+            .setParameter("normalizedName", Widget.normalize(widget.getName()))
+            .setParameter("description", widget.getDescription())
+            .setParameter("price", widget.getPrice())
+            .setParameter("expectedVersion", expectedVersion)
+            .getResultList());
+    }
+
+    @Override
+    @Transactional
+    public List<String> overwriteAll(List<Widget> widgets) {
+        List<String> skipped = new ArrayList<>();
+        entityManager.unwrap(Session.class).doWork(connection -> {
+            try (PreparedStatement overwrite = connection.prepareStatement(OVERWRITE)) {
+                for (Widget widget : widgets) {
+                    overwrite.setString(1, widget.getDescription());
+                    overwrite.setBigDecimal(2, widget.getPrice());
+                    overwrite.setLong(3, widget.getVersion());
+                    overwrite.setString(4, Widget.normalize(widget.getName()));
+                    overwrite.setLong(5, widget.getVersion());
+                    overwrite.addBatch();
+                }
+                int[] updated = overwrite.executeBatch();
+                for (int i = 0; i < updated.length; i++) {
+                    if (updated[i] == 0) {
+                        skipped.add(Widget.normalize(widgets.get(i).getName()));
+                    }
+                }
+            }
+        });
+        return skipped;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Optional<Widget> single(List<?> rows) {
+        return ((List<Widget>) rows).stream().findFirst();
+    }
+}
@@ -0,0 +1,34 @@
+package com.talentreef.interviewquestions.takehome.services;
+
+import com.talentreef.interviewquestions.takehome.events.WidgetChangedEvent;
+import com.talentreef.interviewquestions.takehome.events.WidgetsFlushedEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Catalog-wide counter bumped after every committed widget write, and again when write-behind updates reach
+ * the database, since listings read the database and change only then. It is seeded from the clock so that
+ * a restarted instance never hands out a tag an earlier instance already used.
+ */
+@Component
+public class CatalogVersion {
+
+  private final AtomicLong version = new AtomicLong(System.currentTimeMillis());
+
+  public long current() {
+    return version.get();
+  }
+
+  @TransactionalEventListener(fallbackExecution = true)
+  public void onWidgetChanged(WidgetChangedEvent event) {
+    version.incrementAndGet();
+  }
+
+  @EventListener
+  public void onWidgetsFlushed(WidgetsFlushedEvent event) {
+    version.incrementAndGet();
+  }
+}
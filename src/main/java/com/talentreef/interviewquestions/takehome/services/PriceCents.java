@@ -0,0 +1,31 @@
+package com.talentreef.interviewquestions.takehome.services;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+
+/**
+ * Widget prices have two decimals, so in-memory structures keep them as a primitive count of cents.
+ */
+public final class PriceCents {
+
+  // The largest amount, either sign, that is a whole number of cents in a long
+  public static final BigDecimal MAX_PRICE = toPrice(Long.MAX_VALUE);
+
+  private PriceCents() {
+  }
+
+  public static long of(BigDecimal price) {
+    return of(price, RoundingMode.HALF_UP);
+  }
+
+  /**
+   * Range bounds round inwards (min up, max down) so they select the same cents as the exact decimal would.
+   */
+  public static long of(BigDecimal price, RoundingMode rounding) {
+    return price.setScale(2, rounding).movePointRight(2).longValueExact();
+  }
+
+  public static BigDecimal toPrice(long cents) {
+    return BigDecimal.valueOf(cents, 2);
+  }
+}
@@ -0,0 +1,66 @@
+package com.talentreef.interviewquestions.takehome.services;
+
+import java.util.Arrays;
+
+/**
+ * Log-bucketed histogram of prices in cents: every value within a bucket is within the relative accuracy of
+ * the bucket's representative value. Unlike streaming quantile sketches it supports removals, which deletes
+ * and price updates need. Not thread-safe.
+ */
+class PriceQuantileSketch {
+
+  private final double gamma;
+
+  private final double logGamma;
+
+  private final long[] counts;
+
+  private long total;
+
+  PriceQuantileSketch(double relativeAccuracy, long maxCents) {
+    this.gamma = (1 + relativeAccuracy) / (1 - relativeAccuracy);
+    this.logGamma = Math.log(gamma);
+    this.counts = new long[bucket(maxCents) + 1];
+  }
+
+  void add(long cents) {
+    counts[bucket(cents)]++;
+    total++;
+  }
+
+  void remove(long cents) {
+    counts[bucket(cents)]--;
+    total--;
+  }
+
+  void clear() {
+    Arrays.fill(counts, 0);
+    total = 0;
+  }
+
+  /**
+   * Estimated value at the given quantile, or -1 when the sketch is empty.
+   */
+  long quantile(double quantile) {
+    if (total == 0) {
+      return -1;
+    }
+    long rank = (long) Math.floor(quantile * (total - 1));
+    long seen = 0;
+    for (int bucket = 0; bucket < counts.length; bucket++) {
+      seen += counts[bucket];
+      if (seen > rank) {
+        return bucket == 0 ? 0 : Math.round(2 * Math.pow(gamma, bucket) / (gamma + 1));
+      }
+    }
+    return Math.round(Math.pow(gamma, counts.length - 1));
+  }
+
+  private int bucket(long cents) {
+    if (cents <= 0) {
+      return 0;
+    }
+    int bucket = (int) Math.ceil(Math.log(cents) / logGamma);
+    return Math.max(0, counts == null ? bucket : Math.min(bucket, counts.length - 1));
+  }
+}
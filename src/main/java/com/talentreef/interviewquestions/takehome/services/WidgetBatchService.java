@@ -0,0 +1,199 @@
+package com.talentreef.interviewquestions.takehome.services;
+
+import static net.logstash.logback.argument.StructuredArguments.kv;
+
+import com.talentreef.interviewquestions.sharding.WidgetShardRouter;
+import com.talentreef.interviewquestions.takehome.events.WidgetChangedEvent;
+import com.talentreef.interviewquestions.takehome.models.Widget;
+import com.talentreef.interviewquestions.takehome.models.WidgetOperation;
+import com.talentreef.interviewquestions.takehome.models.WidgetOperationResult;
+import com.talentreef.interviewquestions.takehome.respositories.WidgetRepository;
+import jakarta.persistence.EntityManager;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataAccessException;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionException;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.util.Assert;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.stream.Collectors;
+
+@Slf4j
+@Service
+public class WidgetBatchService {
+
+  private final WidgetRepository widgetRepository;
+
+  private final EntityManager entityManager;
+
+  private final ApplicationEventPublisher eventPublisher;
+
+  private final WidgetShardRouter widgetShardRouter;
+
+  private final TransactionTemplate transactionTemplate;
+
+  private final WidgetWriteBehind widgetWriteBehind;
+
+  @Autowired
+  public WidgetBatchService(WidgetRepository widgetRepository, EntityManager entityManager,
+                            ApplicationEventPublisher eventPublisher, WidgetShardRouter widgetShardRouter,
+                            PlatformTransactionManager transactionManager, WidgetWriteBehind widgetWriteBehind) {
+    Assert.notNull(widgetRepository, "widgetRepository must not be null");
+    Assert.notNull(entityManager, "entityManager must not be null");
+    Assert.notNull(eventPublisher, "eventPublisher must not be null");
+    Assert.notNull(widgetShardRouter, "widgetShardRouter must not be null");
+    Assert.notNull(transactionManager, "transactionManager must not be null");
+    Assert.notNull(widgetWriteBehind, "widgetWriteBehind must not be null");
+    this.widgetRepository = widgetRepository;
+    this.entityManager = entityManager;
+    this.eventPublisher = eventPublisher;
+    this.widgetShardRouter = widgetShardRouter;
+    this.transactionTemplate = new TransactionTemplate(transactionManager);
+    this.widgetWriteBehind = widgetWriteBehind;
+  }
+
+  /**
+   * Applies the operations in order inside one transaction per shard, a single transaction unless the
+   * catalog is sharded. Existing widgets are resolved with a single IN query; the inserts, updates and
+   * deletes are then flushed together as JDBC batches on commit. Operations that cannot be applied are
+   * reported in their result and do not roll back the others. Results and change events of a shard are only
+   * produced once its transaction has committed; if the commit fails, every operation on that shard fails.
+   */
+  public List<WidgetOperationResult> applyBatch(List<WidgetOperation> operations) {
+    // Operations on the same name land on the same shard, so their relative order is kept
+    Map<Integer, List<Integer>> indexesByShard = new TreeMap<>();
+    for (int index = 0; index < operations.size(); index++) {
+      int shard = widgetShardRouter.shardFor(Widget.normalize(operations.get(index).getTargetName()));
+      indexesByShard.computeIfAbsent(shard, key -> new ArrayList<>()).add(index);
+    }
+
+    widgetWriteBehind.settle(operations.stream()
+        .map(operation -> Widget.normalize(operation.getTargetName()))
+        .toList());
+    WidgetOperationResult[] results = new WidgetOperationResult[operations.size()];
+    indexesByShard.forEach((shard, indexes) -> {
+      List<WidgetOperationResult> applied;
+      try {
+        applied = widgetShardRouter.inShard(shard,
+            () -> transactionTemplate.execute(status -> applyInTransaction(operations, indexes)));
+      } catch (DataAccessException | TransactionException e) {
+        log.error("Widget batch rolled back {} {}", kv("shard", shard), kv("operations", indexes.size()), e);
+        indexes.forEach(index -> results[index] = rolledBack(index, operations.get(index)));
+        return;
+      }
+      applied.forEach(result -> results[result.getIndex()] = committed(result));
+    });
+
+    long failed = Arrays.stream(results).filter(result -> result.getError() != null).count();
+    log.info("Widget batch applied {} {}", kv("operations", operations.size()), kv("failed", failed));
+    return List.of(results);
+  }
+
+  private List<WidgetOperationResult> applyInTransaction(List<WidgetOperation> operations, List<Integer> indexes) {
+    Set<String> normalizedNames = indexes.stream()
+        .map(index -> Widget.normalize(operations.get(index).getTargetName()))
+        .collect(Collectors.toSet());
+
+    // Kept up to date while applying, so later operations see the effect of earlier ones in the same batch
+    Map<String, Widget> storedWidgets = new HashMap<>();
+    widgetRepository.findByNormalizedNameIn(normalizedNames)
+        .forEach(widget -> storedWidgets.put(widget.getNormalizedName(), widget));
+
+    List<WidgetOperationResult> results = new ArrayList<>(indexes.size());
+    for (int index : indexes) {
+      results.add(apply(index, operations.get(index), storedWidgets));
+    }
+    return results;
+  }
+
+  // Copies the widget, whose version was only set by the commit, and tells the listeners about the change
+  private WidgetOperationResult committed(WidgetOperationResult result) {
+    if (result.getError() != null) {
+      return result;
+    }
+    Widget widget = result.getWidget().toBuilder().build();
+    WidgetChangedEvent.Type change = switch (result.getType()) {
+      case CREATE -> WidgetChangedEvent.Type.CREATED;
+      case UPDATE -> WidgetChangedEvent.Type.UPDATED;
+      case DELETE -> WidgetChangedEvent.Type.DELETED;
+    };
+    eventPublisher.publishEvent(new WidgetChangedEvent(change, widget));
+    return result.toBuilder().widget(widget).build();
+  }
+
+  private WidgetOperationResult apply(int index, WidgetOperation operation, Map<String, Widget> storedWidgets) {
+    String name = operation.getTargetName();
+    String key = Widget.normalize(name);
+    WidgetOperationResult.WidgetOperationResultBuilder result = WidgetOperationResult.builder()
+        .index(index)
+        .type(operation.getType())
+        .name(name);
+
+    Widget stored = storedWidgets.get(key);
+    switch (operation.getType()) {
+      case CREATE -> {
+        if (stored != null) {
+          return result.status(HttpStatus.BAD_REQUEST.value())
+              .error(String.format("Widget with name=%s already exists", name))
+              .build();
+        }
+        // A version sent by the client would make persist() treat the widget as detached
+        Widget created = operation.getWidget().toBuilder().version(null).build();
+        entityManager.persist(created);
+        storedWidgets.put(key, created);
+        return result.status(HttpStatus.OK.value()).widget(created).build();
+      }
+      case UPDATE -> {
+        if (stored == null) {
+          return notFound(result, name);
+        }
+        Long expectedVersion = operation.getWidget().getVersion();
+        if (expectedVersion != null && !expectedVersion.equals(stored.getVersion())) {
+          return result.status(HttpStatus.CONFLICT.value())
+              .error(String.format("Widget with name=%s has version=%d, not version=%d",
+                  name, stored.getVersion(), expectedVersion))
+              .build();
+        }
+        stored.setPrice(operation.getWidget().getPrice());
+        stored.setDescription(operation.getWidget().getDescription());
+        return result.status(HttpStatus.OK.value()).widget(stored).build();
+      }
+      case DELETE -> {
+        if (stored == null) {
+          return notFound(result, name);
+        }
+        entityManager.remove(stored);
+        storedWidgets.remove(key);
+        return result.status(HttpStatus.OK.value()).widget(stored).build();
+      }
+      default -> throw new IllegalStateException("Unsupported operation type " + operation.getType());
+    }
+  }
+
+  private static WidgetOperationResult rolledBack(int index, WidgetOperation operation) {
+    return WidgetOperationResult.builder()
+        .index(index)
+        .type(operation.getType())
+        .name(operation.getTargetName())
+        .status(HttpStatus.INTERNAL_SERVER_ERROR.value())
+        .error(String.format("Widget with name=%s was not written, its transaction failed", operation.getTargetName()))
+        .build();
+  }
+
+  private static WidgetOperationResult notFound(WidgetOperationResult.WidgetOperationResultBuilder result, String name) {
+    return result.status(HttpStatus.NOT_FOUND.value())
+        .error(String.format("Widget with name=%s not found", name))
+        .build();
+  }
+}
@@ -0,0 +1,107 @@
+package com.talentreef.interviewquestions.takehome.services;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.talentreef.interviewquestions.takehome.events.WidgetChangedEvent;
+import com.talentreef.interviewquestions.takehome.models.Widget;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.util.Assert;
+
+import java.time.Duration;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Bounded read-through cache of widgets keyed by lower-cased name. Entries are copied on the way in and out
+ * because {@link Widget} is a mutable entity.
+ */
+@Component
+public class WidgetCache {
+
+  public static final String CACHE_NAME = "widgets";
+
+  private final Cache<String, Widget> cache;
+
+  // Bumped before every eviction, so a read that started before a delete cannot put the deleted widget back
+  private final AtomicLong evictions = new AtomicLong();
+
+  @Autowired
+  public WidgetCache(MeterRegistry meterRegistry,
+                     @Value("${widgets.cache.maximum-size:10000}") long maximumSize,
+                     @Value("${widgets.cache.expire-after-write:10m}") Duration expireAfterWrite) {
+    Assert.notNull(meterRegistry, "meterRegistry must not be null");
+    this.cache = Caffeine.newBuilder()
+        .maximumSize(maximumSize)
+        .expireAfterWrite(expireAfterWrite)
+        .recordStats()
+        .build();
+    CaffeineCacheMetrics.monitor(meterRegistry, cache, CACHE_NAME);
+  }
+
+  public Optional<Widget> get(String name) {
+    return Optional.ofNullable(cache.getIfPresent(key(name))).map(WidgetCache::copy);
+  }
+
+  /**
+   * Taken before a repository read and handed to {@link #putIfAbsent} with its result.
+   */
+  public long generation() {
+    return evictions.get();
+  }
+
+  /**
+   * Fills the cache after a repository read. Never overwrites an entry, so a slow read cannot replace the
+   * state a concurrent write has just put, and skips the fill when anything was evicted since the read began,
+   * so it cannot resurrect a widget deleted in the meantime.
+   */
+  public void putIfAbsent(Widget widget, long generation) {
+    // Checked under the entry's lock, which evict() also takes after bumping the counter
+    cache.asMap().computeIfAbsent(key(widget.getName()),
+        key -> evictions.get() == generation ? copy(widget) : null);
+  }
+
+  public void put(Widget widget) {
+    cache.put(key(widget.getName()), copy(widget));
+  }
+
+  /**
+   * Replaces an entry only with a newer version. After-commit events of concurrent writes can arrive in either
+   * order, and an older state kept here would be served, tag and all, until it expired. Widgets without a
+   * version cannot be ordered and always replace the entry.
+   */
+  public void putIfNewer(Widget widget) {
+    cache.asMap().compute(key(widget.getName()),
+        (key, cached) -> cached == null || !isOlder(widget, cached) ? copy(widget) : cached);
+  }
+
+  public void evict(String name) {
+    evictions.incrementAndGet();
+    cache.invalidate(key(name));
+  }
+
+  @TransactionalEventListener(fallbackExecution = true)
+  public void onWidgetChanged(WidgetChangedEvent event) {
+    if (event.getType() == WidgetChangedEvent.Type.DELETED) {
+      evict(event.getWidget().getName());
+    } else {
+      putIfNewer(event.getWidget());
+    }
+  }
+
+  private static boolean isOlder(Widget widget, Widget cached) {
+    return widget.getVersion() != null && cached.getVersion() != null && widget.getVersion() < cached.getVersion();
+  }
+
+  static String key(String name) {
+    return Widget.normalize(name);
+  }
+
+  private static Widget copy(Widget widget) {
+    return widget.toBuilder().build();
+  }
+}
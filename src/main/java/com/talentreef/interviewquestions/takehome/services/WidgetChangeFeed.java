@@ -0,0 +1,347 @@
+package com.talentreef.interviewquestions.takehome.services;
+
+import static net.logstash.logback.argument.StructuredArguments.kv;
+
+import com.talentreef.interviewquestions.takehome.events.WidgetChangedEvent;
+import com.talentreef.interviewquestions.takehome.models.WidgetChange;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.util.Assert;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Fans committed widget changes out to Server-Sent Events subscribers. Every change gets a sequence number,
+ * used as the SSE event id, and the most recent ones are kept in a ring buffer so a reconnecting client can
+ * resume from its {@code Last-Event-ID}. A client asking for changes the buffer no longer holds receives a
+ * {@code reset} event and should reload the catalog.
+ *
+ * <p>Writers only ever offer to a bounded per-subscriber queue; a small sender pool, or a virtual thread per
+ * drain in the virtual-thread mode, does the network writes. A subscriber whose queue is full is disconnected
+ * rather than allowed to hold back the writers. A write that blocks for longer than {@code send-timeout}
+ * also disconnects its subscriber, and the pool gets an extra thread until the blocked one returns, so a
+ * handful of stalled sockets cannot starve every other subscriber of senders.
+ */
+@Slf4j
+@Component
+public class WidgetChangeFeed {
+
+  static final String RESET_EVENT = "reset";
+
+  private static final int IDLE = 0;
+
+  private static final int SENDING = 1;
+
+  private static final int STALLED = 2;
+
+  private final ReentrantLock lock = new ReentrantLock();
+
+  private final WidgetChange[] replayBuffer;
+
+  // Seeded from the clock like CatalogVersion, so ids handed out by an earlier instance fall outside the buffer
+  private final long firstSequence = System.currentTimeMillis() + 1;
+
+  private long lastSequence = firstSequence - 1;
+
+  private final Set<Subscriber> subscribers = ConcurrentHashMap.newKeySet();
+
+  private final int queueCapacity;
+
+  private final Duration timeout;
+
+  private final Duration sendTimeout;
+
+  private final Executor sender;
+
+  private final Counter slowDisconnects;
+
+  private ScheduledExecutorService watchdog;
+
+  @Autowired
+  public WidgetChangeFeed(MeterRegistry meterRegistry,
+                          @Value("${widgets.changes.replay-size:1024}") int replaySize,
+                          @Value("${widgets.changes.queue-capacity:256}") int queueCapacity,
+                          @Value("${widgets.changes.sender-threads:4}") int senderThreads,
+                          @Value("${widgets.changes.timeout:30m}") Duration timeout,
+                          @Value("${widgets.changes.send-timeout:5s}") Duration sendTimeout,
+                          @Value("${spring.threads.virtual.enabled:false}") boolean virtualThreads) {
+    this(meterRegistry, replaySize, queueCapacity, timeout, sendTimeout, virtualThreads
+        ? Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("widget-changes-", 0).factory())
+        : senderPool(senderThreads, new CustomizableThreadFactory("widget-changes-")));
+  }
+
+  WidgetChangeFeed(MeterRegistry meterRegistry, int replaySize, int queueCapacity, Duration timeout,
+                   Duration sendTimeout, Executor sender) {
+    Assert.notNull(meterRegistry, "meterRegistry must not be null");
+    Assert.isTrue(replaySize > 0, "replaySize must be positive");
+    Assert.isTrue(queueCapacity > 0, "queueCapacity must be positive");
+    Assert.isTrue(!sendTimeout.isNegative() && !sendTimeout.isZero(), "sendTimeout must be positive");
+    Assert.notNull(sender, "sender must not be null");
+    this.replayBuffer = new WidgetChange[replaySize];
+    this.queueCapacity = queueCapacity;
+    this.timeout = timeout;
+    this.sendTimeout = sendTimeout;
+    this.sender = sender;
+    Gauge.builder("widgets.changes.subscribers", subscribers, Set::size)
+        .description("Open widget change feed connections")
+        .register(meterRegistry);
+    this.slowDisconnects = Counter.builder("widgets.changes.slow.disconnects")
+        .description("Change feed subscribers disconnected because they fell too far behind")
+        .register(meterRegistry);
+  }
+
+  /**
+   * A fixed number of senders; the maximum is only there so the watchdog can raise the core size.
+   */
+  static ThreadPoolExecutor senderPool(int threads, ThreadFactory threadFactory) {
+    return new ThreadPoolExecutor(threads, Integer.MAX_VALUE, 60, TimeUnit.SECONDS, new LinkedBlockingQueue<>(),
+        threadFactory);
+  }
+
+  @PostConstruct
+  public void start() {
+    CustomizableThreadFactory threadFactory = new CustomizableThreadFactory("widget-changes-watchdog-");
+    threadFactory.setDaemon(true);
+    watchdog = Executors.newSingleThreadScheduledExecutor(threadFactory);
+    long period = Math.max(sendTimeout.toMillis() / 2, 1);
+    watchdog.scheduleWithFixedDelay(this::disconnectStalledSubscribers, period, period, TimeUnit.MILLISECONDS);
+  }
+
+  @TransactionalEventListener(fallbackExecution = true)
+  public void onWidgetChanged(WidgetChangedEvent event) {
+    // Sequence assignment and fan-out share the lock so every subscriber sees changes in sequence order
+    lock.lock();
+    try {
+      WidgetChange change = new WidgetChange(++lastSequence, event.getType(), event.getWidget().toBuilder().build());
+      replayBuffer[slot(change.getSequence())] = change;
+      for (Subscriber subscriber : subscribers) {
+        subscriber.offer(change);
+      }
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  public SseEmitter subscribe(Long lastEventId) {
+    return subscribe(lastEventId, new SseEmitter(timeout.toMillis()));
+  }
+
+  SseEmitter subscribe(Long lastEventId, SseEmitter emitter) {
+    lock.lock();
+    try {
+      List<WidgetChange> missed = lastEventId == null ? List.of() : replay(lastEventId);
+      Subscriber subscriber = new Subscriber(emitter, queueCapacity + (missed == null ? 0 : missed.size()));
+      if (missed == null) {
+        subscriber.resetSequence = lastSequence;
+      } else {
+        missed.forEach(subscriber::offer);
+      }
+      subscribers.add(subscriber);
+      emitter.onCompletion(() -> subscribers.remove(subscriber));
+      emitter.onTimeout(() -> subscribers.remove(subscriber));
+      emitter.onError(error -> subscribers.remove(subscriber));
+      subscriber.schedule();
+    } finally {
+      lock.unlock();
+    }
+    return emitter;
+  }
+
+  public int subscriberCount() {
+    return subscribers.size();
+  }
+
+  /**
+   * Changes published after {@code lastEventId}, or {@code null} when the buffer cannot tell (the id is
+   * older than the oldest buffered change, or was never handed out by this instance).
+   */
+  List<WidgetChange> replay(long lastEventId) {
+    lock.lock();
+    try {
+      long oldest = Math.max(lastSequence - replayBuffer.length + 1, firstSequence);
+      if (lastEventId > lastSequence || lastEventId + 1 < oldest) {
+        return null;
+      }
+      List<WidgetChange> missed = new ArrayList<>((int) (lastSequence - lastEventId));
+      for (long sequence = lastEventId + 1; sequence <= lastSequence; sequence++) {
+        missed.add(replayBuffer[slot(sequence)]);
+      }
+      return missed;
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  /**
+   * Disconnects every subscriber whose current write has been blocked for longer than the send timeout. The
+   * emitter is not touched here, since a blocked send holds its lock; the sender completes it once it returns.
+   */
+  void disconnectStalledSubscribers() {
+    long now = System.nanoTime();
+    for (Subscriber subscriber : subscribers) {
+      // The state is read before the start time, so the start time belongs to this send or a later one
+      if (subscriber.sendState.get() == SENDING && now - subscriber.sendStartedNanos > sendTimeout.toNanos()
+          && subscriber.sendState.compareAndSet(SENDING, STALLED)) {
+        subscribers.remove(subscriber);
+        resizeSenders(1);
+        slowDisconnects.increment();
+        log.warn("Disconnecting stalled widget change subscriber {}", kv("queued", subscriber.queue.size()));
+      }
+    }
+  }
+
+  long lastSequence() {
+    lock.lock();
+    try {
+      return lastSequence;
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  @PreDestroy
+  public void close() {
+    if (watchdog != null) {
+      watchdog.shutdownNow();
+    }
+    subscribers.forEach(subscriber -> subscriber.emitter.complete());
+    subscribers.clear();
+    if (sender instanceof ExecutorService executorService) {
+      executorService.shutdownNow();
+    }
+  }
+
+  private int slot(long sequence) {
+    return (int) Math.floorMod(sequence, (long) replayBuffer.length);
+  }
+
+  // A stalled sender keeps its pool thread until the write returns, so the pool grows by one meanwhile
+  private void resizeSenders(int delta) {
+    if (sender instanceof ThreadPoolExecutor pool) {
+      lock.lock();
+      try {
+        pool.setCorePoolSize(pool.getCorePoolSize() + delta);
+      } finally {
+        lock.unlock();
+      }
+    }
+  }
+
+  private class Subscriber {
+
+    private final SseEmitter emitter;
+
+    private final BlockingQueue<WidgetChange> queue;
+
+    private final AtomicBoolean draining = new AtomicBoolean();
+
+    // IDLE or SENDING, until the watchdog moves a send that blocked too long to STALLED for good
+    private final AtomicInteger sendState = new AtomicInteger(IDLE);
+
+    private volatile long sendStartedNanos;
+
+    private volatile long resetSequence = -1;
+
+    private volatile boolean closing;
+
+    private Subscriber(SseEmitter emitter, int capacity) {
+      this.emitter = emitter;
+      this.queue = new ArrayBlockingQueue<>(capacity);
+    }
+
+    private void offer(WidgetChange change) {
+      if (queue.offer(change)) {
+        schedule();
+      } else if (subscribers.remove(this)) {
+        slowDisconnects.increment();
+        log.warn("Disconnecting slow widget change subscriber {}", kv("queued", queue.size()));
+        // Completed by the sender: a send blocked on this emitter holds its lock, and the writer must not wait
+        closing = true;
+        schedule();
+      }
+    }
+
+    private void schedule() {
+      if (draining.compareAndSet(false, true)) {
+        sender.execute(this::drain);
+      }
+    }
+
+    // At most one drain per subscriber runs at a time, so events leave in the order they were queued
+    private void drain() {
+      try {
+        if (resetSequence >= 0 && !closing) {
+          send(SseEmitter.event().id(Long.toString(resetSequence)).name(RESET_EVENT).data(""));
+          resetSequence = -1;
+        }
+        WidgetChange change;
+        while (!closing && (change = queue.poll()) != null) {
+          send(SseEmitter.event()
+              .id(Long.toString(change.getSequence()))
+              .name(change.getType().name())
+              .data(change, MediaType.APPLICATION_JSON));
+        }
+      } catch (IOException | IllegalStateException e) {
+        subscribers.remove(this);
+        queue.clear();
+        emitter.completeWithError(e);
+        return;
+      } finally {
+        draining.set(false);
+      }
+      if (closing) {
+        queue.clear();
+        emitter.complete();
+      } else if (!queue.isEmpty() && subscribers.contains(this)) {
+        schedule();
+      }
+    }
+
+    private void send(SseEmitter.SseEventBuilder event) throws IOException {
+      sendStartedNanos = System.nanoTime();
+      if (!sendState.compareAndSet(IDLE, SENDING)) {
+        throw new IOException("Widget change subscriber stalled");
+      }
+      try {
+        emitter.send(event);
+      } finally {
+        if (!sendState.compareAndSet(SENDING, IDLE)) {
+          // The watchdog disconnected this subscriber while the write was blocked and added a sender for it
+          resizeSenders(-1);
+        }
+      }
+      if (sendState.get() == STALLED) {
+        throw new IOException("Widget change subscriber stalled");
+      }
+    }
+  }
+}
@@ -0,0 +1,61 @@
+package com.talentreef.interviewquestions.takehome.services;
+
+import com.talentreef.interviewquestions.exceptions.InvalidRequestException;
+import com.talentreef.interviewquestions.takehome.models.Widget;
+import com.talentreef.interviewquestions.takehome.models.WidgetPage;
+import com.talentreef.interviewquestions.takehome.models.WidgetSort;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.List;
+
+/**
+ * Opaque keyset position: the sort key of the last widget handed out, encoded as url-safe base64.
+ */
+record WidgetCursor(WidgetSort sort, BigDecimal price, String name) {
+
+  private static final String SEPARATOR = "|";
+
+  static WidgetCursor after(WidgetSort sort, Widget widget) {
+    return new WidgetCursor(sort, widget.getPrice(), widget.getName());
+  }
+
+  /**
+   * Builds a page from a query that asked for one row more than the limit; that extra row only signals a next page.
+   */
+  static WidgetPage page(List<Widget> rows, int limit, WidgetSort sort) {
+    if (rows.size() <= limit) {
+      return WidgetPage.builder().items(rows).build();
+    }
+
+    List<Widget> items = rows.subList(0, limit);
+    return WidgetPage.builder()
+        .items(items)
+        .nextCursor(after(sort, items.get(limit - 1)).encode())
+        .build();
+  }
+
+  String encode() {
+    String raw = sort == WidgetSort.PRICE
+        ? sort.name() + SEPARATOR + price.toPlainString() + SEPARATOR + name
+        : sort.name() + SEPARATOR + name;
+    return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+  }
+
+  static WidgetCursor decode(String cursor, WidgetSort expectedSort) {
+    try {
+      String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+      String[] parts = raw.split("\\" + SEPARATOR, expectedSort == WidgetSort.PRICE ? 3 : 2);
+      WidgetSort sort = WidgetSort.valueOf(parts[0]);
+      if (sort != expectedSort) {
+        throw new InvalidRequestException(String.format("Cursor was issued for sort=%s", sort.name().toLowerCase()));
+      }
+      return sort == WidgetSort.PRICE
+          ? new WidgetCursor(sort, new BigDecimal(parts[1]), parts[2])
+          : new WidgetCursor(sort, null, parts[1]);
+    } catch (IllegalArgumentException | ArrayIndexOutOfBoundsException e) {
+      throw new InvalidRequestException(String.format("Invalid cursor=%s", cursor));
+    }
+  }
+}
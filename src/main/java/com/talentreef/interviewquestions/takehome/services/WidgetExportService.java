@@ -0,0 +1,69 @@
+package com.talentreef.interviewquestions.takehome.services;
+
+import static net.logstash.logback.argument.StructuredArguments.kv;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.talentreef.interviewquestions.takehome.models.Widget;
+import com.talentreef.interviewquestions.takehome.respositories.WidgetRepository;
+import jakarta.persistence.EntityManager;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.util.Assert;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Iterator;
+import java.util.stream.Stream;
+
+@Slf4j
+@Service
+public class WidgetExportService {
+
+  // Matches the fetch size hint on the streaming query, so each fetched block is released before the next one
+  static final int CLEAR_INTERVAL = 500;
+
+  private static final int NEWLINE = '\n';
+
+  private final WidgetRepository widgetRepository;
+
+  private final EntityManager entityManager;
+
+  private final ObjectWriter widgetWriter;
+
+  @Autowired
+  public WidgetExportService(WidgetRepository widgetRepository, EntityManager entityManager, ObjectMapper objectMapper) {
+    Assert.notNull(widgetRepository, "widgetRepository must not be null");
+    Assert.notNull(entityManager, "entityManager must not be null");
+    Assert.notNull(objectMapper, "objectMapper must not be null");
+    this.widgetRepository = widgetRepository;
+    this.entityManager = entityManager;
+    this.widgetWriter = objectMapper.writerFor(Widget.class).without(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+  }
+
+  @Transactional(readOnly = true)
+  public long exportWidgets(OutputStream outputStream) throws IOException {
+    long exported = 0;
+    OutputStream out = new BufferedOutputStream(outputStream);
+
+    try (Stream<Widget> widgets = widgetRepository.streamAllByOrderByNameAsc()) {
+      Iterator<Widget> iterator = widgets.iterator();
+      while (iterator.hasNext()) {
+        widgetWriter.writeValue(out, iterator.next());
+        out.write(NEWLINE);
+
+        if (++exported % CLEAR_INTERVAL == 0) {
+          entityManager.clear();
+        }
+      }
+    }
+
+    out.flush();
+    log.info("Widget export finished {}", kv("widgets", exported));
+    return exported;
+  }
+}
@@ -0,0 +1,468 @@
+package com.talentreef.interviewquestions.takehome.services;
+
+import static net.logstash.logback.argument.StructuredArguments.kv;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.talentreef.interviewquestions.exceptions.InvalidRequestException;
+import com.talentreef.interviewquestions.exceptions.ServiceUnavailableException;
+import com.talentreef.interviewquestions.takehome.models.Widget;
+import com.talentreef.interviewquestions.takehome.models.WidgetImportError;
+import com.talentreef.interviewquestions.takehome.models.WidgetImportReport;
+import com.talentreef.interviewquestions.takehome.models.WidgetOperation;
+import com.talentreef.interviewquestions.takehome.models.WidgetOperationResult;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.util.Assert;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Queue;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+
+/**
+ * Imports widgets from a CSV or NDJSON upload. The request thread parses and validates one line at a time and
+ * hands batches of valid widgets to a writer, which creates them through {@link WidgetBatchService}. The
+ * queue between the two is bounded, so a slow database stops the parser from reading further ahead and an
+ * import holds at most {@code (queue-capacity + 2) * batch-size} widgets in memory whatever the file size.
+ *
+ * <p>CSV files need a header row naming the {@code name}, {@code description} and {@code price} columns, in
+ * any order; quoted fields may contain commas and doubled quotes but not line breaks.
+ *
+ * <p>Every import has an id, chosen by the client or generated, under which {@link #getImport} reports its
+ * progress while it runs and its final report for {@link #FINISHED_RETENTION} after it ends.
+ */
+@Slf4j
+@Service
+public class WidgetImportService {
+
+  public enum Format {
+    CSV,
+    NDJSON
+  }
+
+  private static final long RETRY_AFTER_SECONDS = 30;
+
+  private static final List<Row> END = List.of();
+
+  static final Duration FINISHED_RETENTION = Duration.ofHours(1);
+
+  private static final int FINISHED_MAXIMUM = 100;
+
+  private static final Pattern ID = Pattern.compile("[A-Za-z0-9._-]{1,64}");
+
+  private final WidgetBatchService widgetBatchService;
+
+  private final Validator validator;
+
+  private final ObjectReader widgetReader;
+
+  private final int batchSize;
+
+  private final int queueCapacity;
+
+  private final int maxErrors;
+
+  private final Semaphore imports;
+
+  private final Executor writer;
+
+  private final Counter importedRows;
+
+  private final Counter failedRows;
+
+  private final Timer batchTimer;
+
+  private final Map<String, Import> running = new ConcurrentHashMap<>();
+
+  private final Cache<String, WidgetImportReport> finished = Caffeine.newBuilder()
+      .maximumSize(FINISHED_MAXIMUM)
+      .expireAfterWrite(FINISHED_RETENTION)
+      .build();
+
+  @Autowired
+  public WidgetImportService(WidgetBatchService widgetBatchService, Validator validator, ObjectMapper objectMapper,
+                             MeterRegistry meterRegistry,
+                             @Value("${widgets.import.batch-size:500}") int batchSize,
+                             @Value("${widgets.import.queue-capacity:4}") int queueCapacity,
+                             @Value("${widgets.import.max-errors:1000}") int maxErrors,
+                             @Value("${widgets.import.max-concurrent:2}") int maxConcurrent,
+                             @Value("${spring.threads.virtual.enabled:false}") boolean virtualThreads) {
+    this(widgetBatchService, validator, objectMapper, meterRegistry, batchSize, queueCapacity, maxErrors,
+        maxConcurrent, virtualThreads
+            ? Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("widget-import-", 0).factory())
+            : Executors.newCachedThreadPool(new CustomizableThreadFactory("widget-import-")));
+  }
+
+  WidgetImportService(WidgetBatchService widgetBatchService, Validator validator, ObjectMapper objectMapper,
+                      MeterRegistry meterRegistry, int batchSize, int queueCapacity, int maxErrors,
+                      int maxConcurrent, Executor writer) {
+    Assert.notNull(widgetBatchService, "widgetBatchService must not be null");
+    Assert.notNull(validator, "validator must not be null");
+    Assert.notNull(objectMapper, "objectMapper must not be null");
+    Assert.notNull(meterRegistry, "meterRegistry must not be null");
+    Assert.isTrue(batchSize > 0, "batchSize must be positive");
+    Assert.isTrue(queueCapacity > 0, "queueCapacity must be positive");
+    Assert.isTrue(maxConcurrent > 0, "maxConcurrent must be positive");
+    Assert.notNull(writer, "writer must not be null");
+    this.widgetBatchService = widgetBatchService;
+    this.validator = validator;
+    this.widgetReader = objectMapper.readerFor(Widget.class);
+    this.batchSize = batchSize;
+    this.queueCapacity = queueCapacity;
+    this.maxErrors = maxErrors;
+    this.imports = new Semaphore(maxConcurrent);
+    this.writer = writer;
+    this.importedRows = Counter.builder("widgets.import.rows")
+        .description("Widget import rows by outcome")
+        .tag("result", "imported")
+        .register(meterRegistry);
+    this.failedRows = Counter.builder("widgets.import.rows")
+        .description("Widget import rows by outcome")
+        .tag("result", "failed")
+        .register(meterRegistry);
+    this.batchTimer = Timer.builder("widgets.import.batches")
+        .description("Time to write one widget import batch")
+        .register(meterRegistry);
+  }
+
+  public WidgetImportReport importWidgets(InputStream inputStream, Format format) throws IOException {
+    return importWidgets(inputStream, format, null);
+  }
+
+  /**
+   * Runs the import under the given id, or a generated one when it is null. The id must not belong to an
+   * import that is running or still reported.
+   */
+  public WidgetImportReport importWidgets(InputStream inputStream, Format format, String id) throws IOException {
+    if (id != null && !ID.matcher(id).matches()) {
+      throw new InvalidRequestException("id must be 1 to 64 letters, digits, '.', '_' or '-'");
+    }
+    if (!imports.tryAcquire()) {
+      throw new ServiceUnavailableException("Too many widget imports in progress", RETRY_AFTER_SECONDS);
+    }
+    try {
+      Import job = new Import(id == null ? UUID.randomUUID().toString() : id, format);
+      if (finished.getIfPresent(job.id) != null || running.putIfAbsent(job.id, job) != null) {
+        throw new InvalidRequestException(String.format("Widget import with id=%s already exists", job.id));
+      }
+      try {
+        WidgetImportReport report = job.run(inputStream);
+        finished.put(job.id, report);
+        return report;
+      } finally {
+        running.remove(job.id);
+      }
+    } finally {
+      imports.release();
+    }
+  }
+
+  /**
+   * Progress of a running import, or the final report of one that ended within {@link #FINISHED_RETENTION}.
+   */
+  public Optional<WidgetImportReport> getImport(String id) {
+    Import job = running.get(id);
+    return job != null ? Optional.of(job.report(false)) : Optional.ofNullable(finished.getIfPresent(id));
+  }
+
+  static List<String> parseCsvLine(String line) {
+    List<String> fields = new ArrayList<>();
+    StringBuilder field = new StringBuilder();
+    boolean quoted = false;
+    for (int i = 0; i < line.length(); i++) {
+      char c = line.charAt(i);
+      if (quoted) {
+        if (c != '"') {
+          field.append(c);
+        } else if (i + 1 < line.length() && line.charAt(i + 1) == '"') {
+          field.append('"');
+          i++;
+        } else {
+          quoted = false;
+        }
+      } else if (c == '"') {
+        quoted = true;
+      } else if (c == ',') {
+        fields.add(field.toString());
+        field.setLength(0);
+      } else {
+        field.append(c);
+      }
+    }
+    if (quoted) {
+      throw new IllegalArgumentException("Unterminated quoted field");
+    }
+    fields.add(field.toString());
+    return fields;
+  }
+
+  private record Row(long line, Widget widget) {
+  }
+
+  private final class Import {
+
+    private final String id;
+
+    private final Format format;
+
+    private final BlockingQueue<List<Row>> batches = new ArrayBlockingQueue<>(queueCapacity);
+
+    // Added to by the parser and the writer; holds at most maxErrors entries, one per failure counted below it
+    private final Queue<WidgetImportError> errors = new ConcurrentLinkedQueue<>();
+
+    private final AtomicLong rows = new AtomicLong();
+
+    private final AtomicLong imported = new AtomicLong();
+
+    private final AtomicLong failed = new AtomicLong();
+
+    private int nameColumn = -1;
+
+    private int descriptionColumn = -1;
+
+    private int priceColumn = -1;
+
+    private final long start = System.nanoTime();
+
+    private Import(String id, Format format) {
+      this.id = id;
+      this.format = format;
+    }
+
+    WidgetImportReport run(InputStream inputStream) throws IOException {
+      CompletableFuture<Void> written = CompletableFuture.runAsync(this::drain, writer);
+      try {
+        parse(new BufferedReader(new InputStreamReader(inputStream, StandardCharsets.UTF_8)), written);
+      } finally {
+        enqueue(END, written);
+        try {
+          written.join();
+        } finally {
+          // Empty after END; otherwise the writer stopped early and these batches were never written
+          rejectQueued();
+        }
+      }
+
+      WidgetImportReport report = report(true);
+      log.info("Widget import finished {} {} {} {} {} {}", kv("id", id), kv("format", report.getFormat()),
+          kv("rows", report.getRows()), kv("imported", report.getImported()), kv("failed", report.getFailed()),
+          kv("rowsPerSecond", report.getRowsPerSecond()));
+      return report;
+    }
+
+    // Also called from other requests while the import runs, so each count is read once
+    WidgetImportReport report(boolean done) {
+      long elapsedMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+      long failedRows = failed.get();
+      long readRows = rows.get();
+      List<WidgetImportError> reportedErrors = List.copyOf(errors);
+      return WidgetImportReport.builder()
+          .id(id)
+          .finished(done)
+          .format(format.name().toLowerCase(Locale.ROOT))
+          .rows(readRows)
+          .imported(imported.get())
+          .failed(failedRows)
+          .elapsedMillis(elapsedMillis)
+          .rowsPerSecond(readRows * 1000 / Math.max(elapsedMillis, 1))
+          .errors(reportedErrors)
+          .errorsTruncated(failedRows > reportedErrors.size())
+          .build();
+    }
+
+    private void parse(BufferedReader reader, CompletableFuture<Void> written) throws IOException {
+      List<Row> batch = new ArrayList<>(batchSize);
+      long lineNumber = 0;
+      String line;
+      while ((line = reader.readLine()) != null) {
+        lineNumber++;
+        if (line.isBlank()) {
+          continue;
+        }
+        if (format == Format.CSV && nameColumn < 0) {
+          readHeader(line);
+          continue;
+        }
+
+        rows.incrementAndGet();
+        Widget widget;
+        try {
+          widget = format == Format.CSV ? csvWidget(line) : ndjsonWidget(line);
+        } catch (IllegalArgumentException | JsonProcessingException e) {
+          reject(lineNumber, null, e instanceof JsonProcessingException json ? json.getOriginalMessage() : e.getMessage());
+          continue;
+        }
+        Set<ConstraintViolation<Widget>> violations = validator.validate(widget);
+        if (!violations.isEmpty()) {
+          reject(lineNumber, widget.getName(), violations.stream()
+              .map(violation -> violation.getPropertyPath() + " " + violation.getMessage())
+              .sorted()
+              .collect(Collectors.joining(", ")));
+          continue;
+        }
+
+        batch.add(new Row(lineNumber, widget));
+        if (batch.size() == batchSize) {
+          enqueue(batch, written);
+          batch = new ArrayList<>(batchSize);
+        }
+      }
+      if (!batch.isEmpty()) {
+        enqueue(batch, written);
+      }
+    }
+
+    private void readHeader(String line) {
+      List<String> header = parseCsvLine(line);
+      for (int i = 0; i < header.size(); i++) {
+        switch (header.get(i).trim().toLowerCase(Locale.ROOT)) {
+          case "name" -> nameColumn = i;
+          case "description" -> descriptionColumn = i;
+          case "price" -> priceColumn = i;
+          default -> { }
+        }
+      }
+      if (nameColumn < 0 || descriptionColumn < 0 || priceColumn < 0) {
+        throw new InvalidRequestException("CSV header must name the name, description and price columns");
+      }
+    }
+
+    private Widget csvWidget(String line) {
+      List<String> fields = parseCsvLine(line);
+      int columns = Math.max(nameColumn, Math.max(descriptionColumn, priceColumn)) + 1;
+      if (fields.size() < columns) {
+        throw new IllegalArgumentException(String.format("Expected %d columns but found %d", columns, fields.size()));
+      }
+      BigDecimal price;
+      try {
+        price = new BigDecimal(fields.get(priceColumn).trim());
+      } catch (NumberFormatException e) {
+        throw new IllegalArgumentException(String.format("price=%s is not a number", fields.get(priceColumn)));
+      }
+      return Widget.builder()
+          .name(fields.get(nameColumn))
+          .description(fields.get(descriptionColumn))
+          .price(price)
+          .build();
+    }
+
+    private Widget ndjsonWidget(String line) throws JsonProcessingException {
+      Widget widget = widgetReader.readValue(line);
+      // A version would make the new entity look detached to persist
+      return widget.toBuilder().version(null).build();
+    }
+
+    // Blocks while the writer is queueCapacity batches behind, which is what bounds the memory of an import
+    private void enqueue(List<Row> batch, CompletableFuture<Void> written) {
+      try {
+        while (!batches.offer(batch, 100, TimeUnit.MILLISECONDS)) {
+          if (written.isDone()) {
+            rejectUnwritten(batch);
+            return;
+          }
+        }
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        rejectUnwritten(batch);
+        throw new IllegalStateException("Interrupted while queueing widget import batch", e);
+      }
+    }
+
+    private void drain() {
+      try {
+        List<Row> batch;
+        while ((batch = batches.take()) != END) {
+          write(batch, true);
+          log.info("Widget import progress {} {} {} {}", kv("id", id), kv("rows", rows.get()),
+              kv("imported", imported.get()), kv("failed", failed.get()));
+        }
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+      }
+    }
+
+    private void rejectQueued() {
+      List<Row> batch;
+      while ((batch = batches.poll()) != null) {
+        rejectUnwritten(batch);
+      }
+    }
+
+    private void rejectUnwritten(List<Row> batch) {
+      batch.forEach(row -> reject(row.line(), row.widget().getName(), "Import stopped before the row was written"));
+    }
+
+    private void write(List<Row> batch, boolean retryRowByRow) {
+      List<WidgetOperation> operations = batch.stream()
+          .map(row -> WidgetOperation.builder().type(WidgetOperation.Type.CREATE).widget(row.widget()).build())
+          .toList();
+      List<WidgetOperationResult> results;
+      try {
+        results = batchTimer.record(() -> widgetBatchService.applyBatch(operations));
+      } catch (RuntimeException e) {
+        // Usually a widget created concurrently outside the import; retrying alone isolates the offending rows
+        if (retryRowByRow && batch.size() > 1) {
+          log.warn("Widget import batch failed, retrying row by row {}", kv("rows", batch.size()), e);
+          batch.forEach(row -> write(List.of(row), false));
+        } else {
+          batch.forEach(row -> reject(row.line(), row.widget().getName(), e.getMessage()));
+        }
+        return;
+      }
+
+      long created = 0;
+      for (WidgetOperationResult result : results) {
+        if (result.getError() == null) {
+          created++;
+        } else {
+          Row row = batch.get(result.getIndex());
+          reject(row.line(), row.widget().getName(), result.getError());
+        }
+      }
+      importedRows.increment(created);
+      imported.addAndGet(created);
+    }
+
+    private void reject(long line, String name, String error) {
+      failedRows.increment();
+      if (failed.incrementAndGet() <= maxErrors) {
+        errors.add(new WidgetImportError(line, name, error));
+      }
+    }
+  }
+}
@@ -0,0 +1,26 @@
+package com.talentreef.interviewquestions.takehome.services;
+
+import com.talentreef.interviewquestions.takehome.models.Widget;
+
+/**
+ * In-memory structure derived from the widget catalog. Implementations are loaded and kept in sync by
+ * {@link WidgetIndexMaintainer}.
+ */
+public interface WidgetIndex {
+
+  /**
+   * Adds the widget, replacing whatever was indexed for the same normalized name.
+   */
+  void add(Widget widget);
+
+  /**
+   * Re-indexes a widget whose name is already indexed. Structures that only track names can ignore it.
+   */
+  default void update(Widget widget) {
+    add(widget);
+  }
+
+  void remove(String normalizedName);
+
+  void clear();
+}
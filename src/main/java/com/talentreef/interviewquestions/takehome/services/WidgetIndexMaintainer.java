@@ -0,0 +1,91 @@
+package com.talentreef.interviewquestions.takehome.services;
+
+import static net.logstash.logback.argument.StructuredArguments.kv;
+
+import com.talentreef.interviewquestions.takehome.events.WidgetChangedEvent;
+import com.talentreef.interviewquestions.takehome.models.Widget;
+import com.talentreef.interviewquestions.takehome.respositories.WidgetRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.util.Assert;
+
+import java.util.List;
+
+/**
+ * Loads every {@link WidgetIndex} from the repository before the application starts serving requests, then
+ * applies committed widget changes to them.
+ */
+@Slf4j
+@Component
+public class WidgetIndexMaintainer implements SmartInitializingSingleton {
+
+  static final int LOAD_PAGE_SIZE = 1000;
+
+  private final WidgetRepository widgetRepository;
+
+  private final List<WidgetIndex> widgetIndexes;
+
+  private volatile boolean loaded;
+
+  @Autowired
+  public WidgetIndexMaintainer(WidgetRepository widgetRepository, List<WidgetIndex> widgetIndexes) {
+    Assert.notNull(widgetRepository, "widgetRepository must not be null");
+    Assert.notNull(widgetIndexes, "widgetIndexes must not be null");
+    this.widgetRepository = widgetRepository;
+    this.widgetIndexes = widgetIndexes;
+  }
+
+  @Override
+  public void afterSingletonsInstantiated() {
+    rebuild();
+  }
+
+  public boolean isLoaded() {
+    return loaded;
+  }
+
+  public void rebuild() {
+    loaded = false;
+    long start = System.nanoTime();
+    widgetIndexes.forEach(WidgetIndex::clear);
+
+    // Keyset pages over the primary key, so memory is bounded by the page size rather than the catalog
+    Pageable pageable = PageRequest.ofSize(LOAD_PAGE_SIZE);
+    long count = 0;
+    List<Widget> page = widgetRepository.findAllByOrderByNameAsc(pageable);
+    while (!page.isEmpty()) {
+      for (Widget widget : page) {
+        widgetIndexes.forEach(index -> index.add(widget));
+      }
+      count += page.size();
+      page = page.size() < LOAD_PAGE_SIZE
+          ? List.of()
+          : widgetRepository.findByNameGreaterThanOrderByNameAsc(page.get(page.size() - 1).getName(), pageable);
+    }
+
+    loaded = true;
+    log.info("Loaded widget indexes {} {} {}", kv("widgets", count), kv("indexes", widgetIndexes.size()),
+        kv("durationMs", (System.nanoTime() - start) / 1_000_000));
+  }
+
+  @TransactionalEventListener(fallbackExecution = true)
+  public void onWidgetChanged(WidgetChangedEvent event) {
+    if (event.getType() == WidgetChangedEvent.Type.DELETED) {
+      String normalizedName = Widget.normalize(event.getWidget().getName());
+      widgetIndexes.forEach(index -> index.remove(normalizedName));
+    } else {
+      // Indexes share one detached copy; the event carries an entity the publisher may keep using
+      Widget widget = event.getWidget().toBuilder().build();
+      if (event.getType() == WidgetChangedEvent.Type.UPDATED) {
+        widgetIndexes.forEach(index -> index.update(widget));
+      } else {
+        widgetIndexes.forEach(index -> index.add(widget));
+      }
+    }
+  }
+}
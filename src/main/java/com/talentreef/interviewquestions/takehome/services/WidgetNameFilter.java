@@ -0,0 +1,176 @@
+package com.talentreef.interviewquestions.takehome.services;
+
+import com.talentreef.interviewquestions.takehome.models.Widget;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.util.Assert;
+
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+/**
+ * Counting Bloom filter of normalized widget names. A negative answer is definite, so a lookup for a name
+ * the filter has never seen can be answered without the database; a positive answer still has to be checked.
+ * Counters are four bits, packed eight to an int, so names can be removed again; a counter that reaches
+ * fifteen stays there, which can only cost extra false positives.
+ */
+@Component
+public class WidgetNameFilter implements WidgetIndex {
+
+  private static final int COUNTER_BITS = 4;
+
+  private static final int COUNTER_MAX = (1 << COUNTER_BITS) - 1;
+
+  private static final int COUNTERS_PER_WORD = Integer.SIZE / COUNTER_BITS;
+
+  private final AtomicIntegerArray words;
+
+  private final int counters;
+
+  private final int hashes;
+
+  private final Counter definiteNegatives;
+
+  private final Counter truePositives;
+
+  private final Counter falsePositives;
+
+  @Autowired
+  public WidgetNameFilter(MeterRegistry meterRegistry,
+                          @Value("${widgets.name-filter.expected-widgets:100000}") int expectedWidgets,
+                          @Value("${widgets.name-filter.false-positive-probability:0.01}") double falsePositiveProbability) {
+    Assert.notNull(meterRegistry, "meterRegistry must not be null");
+    Assert.isTrue(expectedWidgets > 0, "expectedWidgets must be positive");
+    Assert.isTrue(falsePositiveProbability > 0 && falsePositiveProbability < 1,
+        "falsePositiveProbability must be between 0 and 1");
+    double optimalCounters = -expectedWidgets * Math.log(falsePositiveProbability) / (Math.log(2) * Math.log(2));
+    this.counters = (int) Math.ceil(optimalCounters / COUNTERS_PER_WORD) * COUNTERS_PER_WORD;
+    this.hashes = Math.max(1, (int) Math.round(optimalCounters / expectedWidgets * Math.log(2)));
+    this.words = new AtomicIntegerArray(counters / COUNTERS_PER_WORD);
+
+    this.definiteNegatives = lookups(meterRegistry, "definite_negative");
+    this.truePositives = lookups(meterRegistry, "true_positive");
+    this.falsePositives = lookups(meterRegistry, "false_positive");
+    Gauge.builder("widgets.name.filter.expected.fpp", this, WidgetNameFilter::expectedFalsePositiveProbability)
+        .description("False-positive probability implied by the current filter occupancy")
+        .register(meterRegistry);
+  }
+
+  public boolean mightContain(String normalizedName) {
+    long hash = hash(normalizedName);
+    for (int i = 0; i < hashes; i++) {
+      if (counter(index(hash, i)) == 0) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  /**
+   * Records how a lookup the filter answered turned out, so the observed false-positive rate can be tracked
+   * as {@code false_positive / (false_positive + definite_negative)}.
+   */
+  public void recordLookup(boolean mightContain, boolean found) {
+    if (!mightContain) {
+      definiteNegatives.increment();
+    } else if (found) {
+      truePositives.increment();
+    } else {
+      falsePositives.increment();
+    }
+  }
+
+  @Override
+  public void add(Widget widget) {
+    long hash = hash(Widget.normalize(widget.getName()));
+    for (int i = 0; i < hashes; i++) {
+      adjust(index(hash, i), 1);
+    }
+  }
+
+  // The name is already counted; adding it again would leave it behind after the delete
+  @Override
+  public void update(Widget widget) {
+  }
+
+  @Override
+  public void remove(String normalizedName) {
+    if (!mightContain(normalizedName)) {
+      return;
+    }
+    long hash = hash(normalizedName);
+    for (int i = 0; i < hashes; i++) {
+      adjust(index(hash, i), -1);
+    }
+  }
+
+  @Override
+  public void clear() {
+    for (int i = 0; i < words.length(); i++) {
+      words.set(i, 0);
+    }
+  }
+
+  double expectedFalsePositiveProbability() {
+    long occupied = 0;
+    for (int i = 0; i < counters; i++) {
+      if (counter(i) != 0) {
+        occupied++;
+      }
+    }
+    return Math.pow((double) occupied / counters, hashes);
+  }
+
+  private int counter(int index) {
+    int shift = (index % COUNTERS_PER_WORD) * COUNTER_BITS;
+    return (words.get(index / COUNTERS_PER_WORD) >>> shift) & COUNTER_MAX;
+  }
+
+  private void adjust(int index, int delta) {
+    int word = index / COUNTERS_PER_WORD;
+    int shift = (index % COUNTERS_PER_WORD) * COUNTER_BITS;
+    while (true) {
+      int current = words.get(word);
+      int value = (current >>> shift) & COUNTER_MAX;
+      if (value == COUNTER_MAX || value + delta < 0) {
+        return;
+      }
+      int updated = (current & ~(COUNTER_MAX << shift)) | ((value + delta) << shift);
+      if (words.compareAndSet(word, current, updated)) {
+        return;
+      }
+    }
+  }
+
+  // Double hashing (Kirsch-Mitzenmacher): counter i is h1 + i * h2, both halves of one 64-bit hash
+  private int index(long hash, int i) {
+    int combined = (int) hash + i * (int) (hash >>> 32);
+    return Math.floorMod(combined, counters);
+  }
+
+  private static long hash(String normalizedName) {
+    // 64-bit FNV-1a over the UTF-8 bytes, finished with the murmur3 mixer to spread the low bits
+    long hash = 0xcbf29ce484222325L;
+    for (byte b : normalizedName.getBytes(StandardCharsets.UTF_8)) {
+      hash ^= b;
+      hash *= 0x100000001b3L;
+    }
+    hash ^= hash >>> 33;
+    hash *= 0xff51afd7ed558ccdL;
+    hash ^= hash >>> 33;
+    hash *= 0xc4ceb9fe1a85ec53L;
+    hash ^= hash >>> 33;
+    return hash;
+  }
+
+  private static Counter lookups(MeterRegistry meterRegistry, String result) {
+    return Counter.builder("widgets.name.filter.lookups")
+        .description("Widget lookups answered with the name filter, by outcome")
+        .tag("result", result)
+        .register(meterRegistry);
+  }
+}
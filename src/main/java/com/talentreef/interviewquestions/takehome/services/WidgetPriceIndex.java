@@ -0,0 +1,118 @@
+package com.talentreef.interviewquestions.takehome.services;
+
+import com.talentreef.interviewquestions.takehome.models.Widget;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Widgets ordered by (price in cents, name), the same order as the idx_widgets_price_name index, so cursors
+ * handed out from here stay valid against the repository and the other way round.
+ */
+@Component
+public class WidgetPriceIndex implements WidgetIndex {
+
+  private final NavigableMap<PriceKey, Widget> widgetsByPrice = new ConcurrentSkipListMap<>();
+
+  private final Map<String, PriceKey> keysByName = new ConcurrentHashMap<>();
+
+  private final ReentrantLock writeLock = new ReentrantLock();
+
+  @Override
+  public void add(Widget widget) {
+    PriceKey key = new PriceKey(PriceCents.of(widget.getPrice()), widget.getName());
+    writeLock.lock();
+    try {
+      PriceKey previous = keysByName.put(Widget.normalize(widget.getName()), key);
+      if (previous != null) {
+        widgetsByPrice.remove(previous);
+      }
+      widgetsByPrice.put(key, widget);
+    } finally {
+      writeLock.unlock();
+    }
+  }
+
+  @Override
+  public void remove(String normalizedName) {
+    writeLock.lock();
+    try {
+      PriceKey previous = keysByName.remove(normalizedName);
+      if (previous != null) {
+        widgetsByPrice.remove(previous);
+      }
+    } finally {
+      writeLock.unlock();
+    }
+  }
+
+  @Override
+  public void clear() {
+    writeLock.lock();
+    try {
+      keysByName.clear();
+      widgetsByPrice.clear();
+    } finally {
+      writeLock.unlock();
+    }
+  }
+
+  /**
+   * Widgets priced within [minCents, maxCents], in price order, starting after the given position when one
+   * is given. Costs O(log n + limit).
+   */
+  public List<Widget> range(long minCents, long maxCents, Long afterCents, String afterName, int limit) {
+    PriceKey from = new PriceKey(minCents, "");
+    boolean fromInclusive = true;
+    if (afterCents != null) {
+      PriceKey after = new PriceKey(afterCents, afterName);
+      if (after.compareTo(from) >= 0) {
+        from = after;
+        fromInclusive = false;
+      }
+    }
+
+    NavigableMap<PriceKey, Widget> band;
+    if (maxCents == Long.MAX_VALUE) {
+      band = widgetsByPrice.tailMap(from, fromInclusive);
+    } else {
+      PriceKey to = new PriceKey(maxCents + 1, "");
+      // A cursor at or past the upper bound leaves nothing to return, and subMap rejects a reversed range
+      if (from.compareTo(to) >= 0) {
+        return List.of();
+      }
+      band = widgetsByPrice.subMap(from, fromInclusive, to, false);
+    }
+
+    List<Widget> widgets = new ArrayList<>(Math.min(limit, 64));
+    for (Widget widget : band.values()) {
+      if (widgets.size() == limit) {
+        break;
+      }
+      widgets.add(widget);
+    }
+    return widgets;
+  }
+
+  public int size() {
+    return keysByName.size();
+  }
+
+  record PriceKey(long cents, String name) implements Comparable<PriceKey> {
+
+    private static final Comparator<PriceKey> ORDER = Comparator.comparingLong(PriceKey::cents)
+        .thenComparing(PriceKey::name);
+
+    @Override
+    public int compareTo(PriceKey other) {
+      return ORDER.compare(this, other);
+    }
+  }
+}
@@ -0,0 +1,89 @@
+package com.talentreef.interviewquestions.takehome.services;
+
+import com.talentreef.interviewquestions.exceptions.InvalidRequestException;
+import com.talentreef.interviewquestions.takehome.models.Widget;
+import com.talentreef.interviewquestions.takehome.models.WidgetPage;
+import com.talentreef.interviewquestions.takehome.models.WidgetSort;
+import com.talentreef.interviewquestions.takehome.respositories.WidgetRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.stereotype.Service;
+import org.springframework.util.Assert;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.List;
+
+@Service
+public class WidgetPriceRangeService {
+
+  private final WidgetRepository widgetRepository;
+
+  private final WidgetPriceIndex widgetPriceIndex;
+
+  private final WidgetIndexMaintainer widgetIndexMaintainer;
+
+  @Autowired
+  public WidgetPriceRangeService(WidgetRepository widgetRepository, WidgetPriceIndex widgetPriceIndex,
+                                 WidgetIndexMaintainer widgetIndexMaintainer) {
+    Assert.notNull(widgetRepository, "widgetRepository must not be null");
+    Assert.notNull(widgetPriceIndex, "widgetPriceIndex must not be null");
+    Assert.notNull(widgetIndexMaintainer, "widgetIndexMaintainer must not be null");
+    this.widgetRepository = widgetRepository;
+    this.widgetPriceIndex = widgetPriceIndex;
+    this.widgetIndexMaintainer = widgetIndexMaintainer;
+  }
+
+  /**
+   * Widgets priced within [minPrice, maxPrice] ordered by price. Served from the in-memory price index once it
+   * is loaded, and from the (price, name) database index before that; cursors work against either.
+   */
+  public WidgetPage getWidgetsByPrice(BigDecimal minPrice, BigDecimal maxPrice, int limit, String after) {
+    if (limit < 1 || limit > WidgetService.MAX_PAGE_SIZE) {
+      throw new InvalidRequestException(String.format("limit must be between 1 and %d", WidgetService.MAX_PAGE_SIZE));
+    }
+    BigDecimal min = minPrice == null ? BigDecimal.ZERO : minPrice;
+    checkInRange("minPrice", min);
+    if (maxPrice != null) {
+      checkInRange("maxPrice", maxPrice);
+    }
+    if (maxPrice != null && min.compareTo(maxPrice) > 0) {
+      throw new InvalidRequestException(String.format("minPrice=%s is greater than maxPrice=%s", min, maxPrice));
+    }
+
+    WidgetCursor cursor = after == null || after.isBlank() ? null : WidgetCursor.decode(after, WidgetSort.PRICE);
+    if (cursor != null) {
+      checkInRange("after", cursor.price());
+    }
+    List<Widget> widgets = widgetIndexMaintainer.isLoaded()
+        ? fromIndex(min, maxPrice, cursor, limit + 1)
+        : fromRepository(min, maxPrice, cursor, limit + 1);
+    return WidgetCursor.page(widgets, limit, WidgetSort.PRICE);
+  }
+
+  private List<Widget> fromIndex(BigDecimal min, BigDecimal max, WidgetCursor cursor, int rows) {
+    // The database compares the exact bounds, so rounding them outwards would admit prices it excludes
+    return widgetPriceIndex.range(
+        PriceCents.of(min, RoundingMode.CEILING),
+        max == null ? Long.MAX_VALUE : PriceCents.of(max, RoundingMode.FLOOR),
+        cursor == null ? null : PriceCents.of(cursor.price()),
+        cursor == null ? null : cursor.name(),
+        rows);
+  }
+
+  private static void checkInRange(String parameter, BigDecimal price) {
+    if (price.abs().compareTo(PriceCents.MAX_PRICE) > 0) {
+      throw new InvalidRequestException(String.format("%s=%s is out of range", parameter, price.toPlainString()));
+    }
+  }
+
+  private List<Widget> fromRepository(BigDecimal min, BigDecimal max, WidgetCursor cursor, int rows) {
+    Pageable pageable = PageRequest.ofSize(rows);
+    BigDecimal upper = max == null ? PriceCents.toPrice(Long.MAX_VALUE) : max;
+    if (cursor == null || cursor.price().compareTo(min) < 0) {
+      return widgetRepository.findByPriceBetweenOrderByPriceAscNameAsc(min, upper, pageable);
+    }
+    return widgetRepository.findPriceRangeKeysetPage(upper, cursor.price(), cursor.name(), pageable);
+  }
+}
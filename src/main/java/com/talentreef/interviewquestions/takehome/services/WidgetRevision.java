@@ -0,0 +1,24 @@
+package com.talentreef.interviewquestions.takehome.services;
+
+import com.talentreef.interviewquestions.takehome.models.Widget;
+
+import java.util.Objects;
+
+/**
+ * What a widget's ETag is made of. The version alone is not enough: a widget deleted and created again starts
+ * from version 0 with new content.
+ */
+public record WidgetRevision(Long version, int contentHash) {
+
+  public static WidgetRevision of(Widget widget) {
+    return new WidgetRevision(widget.getVersion(),
+        Objects.hash(Widget.normalize(widget.getName()), widget.getDescription(), widget.getPrice()));
+  }
+
+  /**
+   * Revisions without a version cannot be ordered and are never older.
+   */
+  boolean isOlderThan(WidgetRevision other) {
+    return version != null && other.version != null && version < other.version;
+  }
+}
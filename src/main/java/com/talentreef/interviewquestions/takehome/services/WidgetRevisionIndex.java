@@ -0,0 +1,39 @@
+package com.talentreef.interviewquestions.takehome.services;
+
+import com.talentreef.interviewquestions.takehome.models.Widget;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * The {@link WidgetRevision} of every widget, so a conditional lookup by name can be answered without loading
+ * the widget. A revision only replaces a newer one when it cannot be ordered, since after-commit events of
+ * concurrent writes can arrive in either order.
+ */
+@Component
+public class WidgetRevisionIndex implements WidgetIndex {
+
+  private final Map<String, WidgetRevision> revisions = new ConcurrentHashMap<>();
+
+  @Override
+  public void add(Widget widget) {
+    revisions.merge(Widget.normalize(widget.getName()), WidgetRevision.of(widget),
+        (indexed, revision) -> revision.isOlderThan(indexed) ? indexed : revision);
+  }
+
+  @Override
+  public void remove(String normalizedName) {
+    revisions.remove(normalizedName);
+  }
+
+  @Override
+  public void clear() {
+    revisions.clear();
+  }
+
+  public Optional<WidgetRevision> get(String normalizedName) {
+    return Optional.ofNullable(revisions.get(normalizedName));
+  }
+}
@@ -0,0 +1,273 @@
+package com.talentreef.interviewquestions.takehome.services;
+
+import com.talentreef.interviewquestions.takehome.models.Widget;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.regex.Pattern;
+
+/**
+ * Inverted index over widget names and descriptions. Terms live in a sorted map so a prefix is a single
+ * range lookup; every query term must match a term of the widget either exactly or as a prefix.
+ * Reads are lock-free, writes are serialized.
+ *
+ * <p>The query term whose prefix range holds the fewest postings drives the scan and the others only filter
+ * its candidates. Posting counts are kept per prefix of at least {@link #MIN_PREFIX_LENGTH} characters, so
+ * picking the driver costs one lookup per term; shorter terms span most of a large catalog and never drive.
+ *
+ * <p>The postings of a term are grouped by the weight the term has in each widget, so the driver's candidates
+ * are visited from the highest score they can add down. The scan stops once the page is full and its lowest
+ * score beats anything the remaining candidates could reach, which for a term shared by most of the catalog
+ * usually means after its name matches.
+ */
+@Component
+public class WidgetSearchIndex implements WidgetIndex {
+
+  static final int NAME_WEIGHT = 3;
+
+  static final int DESCRIPTION_WEIGHT = 1;
+
+  static final int EXACT_MATCH_BOOST = 2;
+
+  public static final int MIN_PREFIX_LENGTH = 3;
+
+  private static final Pattern TOKEN_SEPARATOR = Pattern.compile("[^\\p{L}\\p{N}]+");
+
+  private static final Comparator<ScoredWidget> RANKING = Comparator.comparingInt(ScoredWidget::score)
+      .reversed()
+      .thenComparing(scored -> scored.document().key());
+
+  private static final Comparator<Tier> HIGHEST_FIRST = Comparator.comparingInt(Tier::bound).reversed();
+
+  // Widget keys per term, grouped by the weight of the term in the widget, heaviest first
+  private final NavigableMap<String, NavigableMap<Integer, Set<String>>> postings = new ConcurrentSkipListMap<>();
+
+  private final Map<String, Document> documents = new ConcurrentHashMap<>();
+
+  // Number of postings under each prefix of at least MIN_PREFIX_LENGTH characters, i.e. the size of its range scan
+  private final Map<String, Integer> prefixPostings = new ConcurrentHashMap<>();
+
+  // Highest weight of any term ever indexed, an upper bound on what a query term other than the driver can add.
+  // Only reset by clear(), as keeping it exact would mean rescanning on removals
+  private volatile int maxWeight;
+
+  private final ReentrantLock writeLock = new ReentrantLock();
+
+  @Override
+  public void add(Widget widget) {
+    String key = Widget.normalize(widget.getName());
+    Map<String, Integer> terms = new HashMap<>();
+    tokenize(widget.getName()).forEach(term -> terms.merge(term, NAME_WEIGHT, Integer::sum));
+    tokenize(widget.getDescription()).forEach(term -> terms.merge(term, DESCRIPTION_WEIGHT, Integer::sum));
+
+    writeLock.lock();
+    try {
+      unindex(documents.put(key, Document.of(key, widget, terms)));
+      terms.forEach((term, weight) -> {
+        boolean added = postings.computeIfAbsent(term, t -> new ConcurrentSkipListMap<>(Comparator.reverseOrder()))
+            .computeIfAbsent(weight, w -> ConcurrentHashMap.newKeySet())
+            .add(key);
+        if (added) {
+          countPrefixes(term, 1);
+        }
+        maxWeight = Math.max(maxWeight, weight);
+      });
+    } finally {
+      writeLock.unlock();
+    }
+  }
+
+  @Override
+  public void remove(String normalizedName) {
+    writeLock.lock();
+    try {
+      unindex(documents.remove(normalizedName));
+    } finally {
+      writeLock.unlock();
+    }
+  }
+
+  @Override
+  public void clear() {
+    writeLock.lock();
+    try {
+      documents.clear();
+      postings.clear();
+      prefixPostings.clear();
+      maxWeight = 0;
+    } finally {
+      writeLock.unlock();
+    }
+  }
+
+  /**
+   * Empty when the query has no term of at least {@link #MIN_PREFIX_LENGTH} characters.
+   */
+  public List<Widget> search(String query, int limit) {
+    List<String> queryTerms = tokenize(query);
+    if (queryTerms.isEmpty()) {
+      return List.of();
+    }
+
+    String driver = null;
+    int driverPostings = Integer.MAX_VALUE;
+    for (String queryTerm : queryTerms) {
+      if (queryTerm.length() >= MIN_PREFIX_LENGTH) {
+        int termPostings = prefixPostings(queryTerm);
+        if (termPostings < driverPostings) {
+          driver = queryTerm;
+          driverPostings = termPostings;
+        }
+      }
+    }
+    // No driving term, or one that matches nothing, so no widget can match every term
+    if (driver == null || driverPostings == 0) {
+      return List.of();
+    }
+    String drivingTerm = driver;
+    List<Tier> tiers = new ArrayList<>();
+    postings.subMap(drivingTerm, true, drivingTerm + Character.MAX_VALUE, false).forEach((term, byWeight) -> {
+      int boost = term.equals(drivingTerm) ? EXACT_MATCH_BOOST : 1;
+      byWeight.forEach((weight, keys) -> tiers.add(new Tier(weight * boost, keys)));
+    });
+    tiers.sort(HIGHEST_FIRST);
+    int otherTermsBound = (queryTerms.size() - 1) * maxWeight * EXACT_MATCH_BOOST;
+
+    PriorityQueue<ScoredWidget> top = new PriorityQueue<>(limit + 1, RANKING.reversed());
+    Set<String> seen = new HashSet<>();
+    for (Tier tier : tiers) {
+      // A widget first reached in this tier gets at most its bound from the driver; ties could still win on key
+      if (top.size() == limit && top.peek().score() > tier.bound() + otherTermsBound) {
+        break;
+      }
+      for (String key : tier.keys()) {
+        Document document = documents.get(key);
+        if (document == null || !seen.add(key)) {
+          continue;
+        }
+        int score = score(document, queryTerms);
+        if (score > 0) {
+          top.offer(new ScoredWidget(document, score));
+          if (top.size() > limit) {
+            top.poll();
+          }
+        }
+      }
+    }
+
+    List<ScoredWidget> ranked = new ArrayList<>(top);
+    ranked.sort(RANKING);
+    return ranked.stream().map(scored -> scored.document().widget()).toList();
+  }
+
+  public int size() {
+    return documents.size();
+  }
+
+  int prefixPostings(String prefix) {
+    return prefixPostings.getOrDefault(prefix, 0);
+  }
+
+  static boolean hasDrivingTerm(List<String> queryTerms) {
+    return queryTerms.stream().anyMatch(term -> term.length() >= MIN_PREFIX_LENGTH);
+  }
+
+  static List<String> tokenize(String text) {
+    if (text == null || text.isBlank()) {
+      return List.of();
+    }
+    List<String> tokens = new ArrayList<>();
+    for (String token : TOKEN_SEPARATOR.split(text.toLowerCase(Locale.ROOT))) {
+      if (!token.isEmpty()) {
+        tokens.add(token);
+      }
+    }
+    return tokens;
+  }
+
+  /**
+   * Sum over the query terms of the best matching widget term, or 0 when any query term does not match. The
+   * widget's terms are sorted, so each query term is a binary search plus the run of terms it prefixes.
+   */
+  private static int score(Document document, List<String> queryTerms) {
+    String[] terms = document.terms();
+    int total = 0;
+    for (String queryTerm : queryTerms) {
+      int position = Arrays.binarySearch(terms, queryTerm);
+      int best = 0;
+      if (position >= 0) {
+        best = document.weights()[position] * EXACT_MATCH_BOOST;
+      } else {
+        for (int i = -position - 1; i < terms.length && terms[i].startsWith(queryTerm); i++) {
+          best = Math.max(best, document.weights()[i]);
+        }
+      }
+      if (best == 0) {
+        return 0;
+      }
+      total += best;
+    }
+    return total;
+  }
+
+  private void unindex(Document document) {
+    if (document == null) {
+      return;
+    }
+    for (int i = 0; i < document.terms().length; i++) {
+      String term = document.terms()[i];
+      int weight = document.weights()[i];
+      postings.computeIfPresent(term, (t, byWeight) -> {
+        byWeight.computeIfPresent(weight, (w, keys) -> {
+          if (keys.remove(document.key())) {
+            countPrefixes(term, -1);
+          }
+          return keys.isEmpty() ? null : keys;
+        });
+        return byWeight.isEmpty() ? null : byWeight;
+      });
+    }
+  }
+
+  // Called under the write lock; a count that drops to zero is removed
+  private void countPrefixes(String term, int delta) {
+    for (int length = MIN_PREFIX_LENGTH; length <= term.length(); length++) {
+      prefixPostings.merge(term.substring(0, length), delta,
+          (count, change) -> count + change == 0 ? null : count + change);
+    }
+  }
+
+  // Terms sorted, with the weight of each term at the same position
+  private record Document(String key, Widget widget, String[] terms, int[] weights) {
+
+    static Document of(String key, Widget widget, Map<String, Integer> weightedTerms) {
+      String[] terms = weightedTerms.keySet().toArray(String[]::new);
+      Arrays.sort(terms);
+      int[] weights = new int[terms.length];
+      for (int i = 0; i < terms.length; i++) {
+        weights[i] = weightedTerms.get(terms[i]);
+      }
+      return new Document(key, widget, terms, weights);
+    }
+  }
+
+  private record ScoredWidget(Document document, int score) {
+  }
+
+  // Postings of one weight of one term, and the most the driving query term can score for them
+  private record Tier(int bound, Set<String> keys) {
+  }
+}
@@ -0,0 +1,43 @@
+package com.talentreef.interviewquestions.takehome.services;
+
+import com.talentreef.interviewquestions.exceptions.InvalidRequestException;
+import com.talentreef.interviewquestions.exceptions.ServiceUnavailableException;
+import com.talentreef.interviewquestions.takehome.models.Widget;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.util.Assert;
+
+import java.util.List;
+
+@Service
+public class WidgetSearchService {
+
+  public static final int MAX_RESULTS = 100;
+
+  private final WidgetSearchIndex widgetSearchIndex;
+
+  private final WidgetIndexMaintainer widgetIndexMaintainer;
+
+  @Autowired
+  public WidgetSearchService(WidgetSearchIndex widgetSearchIndex, WidgetIndexMaintainer widgetIndexMaintainer) {
+    Assert.notNull(widgetSearchIndex, "widgetSearchIndex must not be null");
+    Assert.notNull(widgetIndexMaintainer, "widgetIndexMaintainer must not be null");
+    this.widgetSearchIndex = widgetSearchIndex;
+    this.widgetIndexMaintainer = widgetIndexMaintainer;
+  }
+
+  public List<Widget> search(String query, int limit) {
+    if (limit < 1 || limit > MAX_RESULTS) {
+      throw new InvalidRequestException(String.format("limit must be between 1 and %d", MAX_RESULTS));
+    }
+    List<String> terms = WidgetSearchIndex.tokenize(query);
+    if (!terms.isEmpty() && !WidgetSearchIndex.hasDrivingTerm(terms)) {
+      throw new InvalidRequestException(String.format("q must contain a term of at least %d characters",
+          WidgetSearchIndex.MIN_PREFIX_LENGTH));
+    }
+    if (!widgetIndexMaintainer.isLoaded()) {
+      throw new ServiceUnavailableException("Widget search index is still loading", 5);
+    }
+    return widgetSearchIndex.search(query, limit);
+  }
+}
@@ -1,70 +1,250 @@
 package com.talentreef.interviewquestions.takehome.services;
 
+import static net.logstash.logback.argument.StructuredArguments.kv;
+
 import com.talentreef.interviewquestions.exceptions.ElementAlreadyExistsException;
 import com.talentreef.interviewquestions.exceptions.ElementNotFoundException;
+import com.talentreef.interviewquestions.exceptions.ElementVersionConflictException;
+import com.talentreef.interviewquestions.exceptions.InvalidRequestException;
+import com.talentreef.interviewquestions.takehome.events.WidgetChangedEvent;
 import com.talentreef.interviewquestions.takehome.models.Widget;
+import com.talentreef.interviewquestions.takehome.models.WidgetField;
+import com.talentreef.interviewquestions.takehome.models.WidgetPage;
+import com.talentreef.interviewquestions.takehome.models.WidgetPatch;
+import com.talentreef.interviewquestions.takehome.models.WidgetSort;
+import com.talentreef.interviewquestions.takehome.models.WidgetWriteResult;
 import com.talentreef.interviewquestions.takehome.respositories.WidgetRepository;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 import org.springframework.util.Assert;
 
+import java.math.BigDecimal;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 
 @Slf4j
 @Service
 public class WidgetService {
 
+  public static final int MAX_PAGE_SIZE = 1000;
+
   private final WidgetRepository widgetRepository;
 
+  private final WidgetCache widgetCache;
+
+  private final ApplicationEventPublisher eventPublisher;
+
+  private final WidgetNameFilter widgetNameFilter;
+
+  private final WidgetIndexMaintainer widgetIndexMaintainer;
+
+  private final WidgetWriteBehind widgetWriteBehind;
+
+  private final WidgetRevisionIndex widgetRevisionIndex;
+
+  private final SingleFlight<String, Optional<Widget>> lookups = new SingleFlight<>();
+
   @Autowired
-  private WidgetService(WidgetRepository widgetRepository) {
+  private WidgetService(WidgetRepository widgetRepository, WidgetCache widgetCache,
+                        ApplicationEventPublisher eventPublisher, WidgetNameFilter widgetNameFilter,
+                        WidgetIndexMaintainer widgetIndexMaintainer, WidgetWriteBehind widgetWriteBehind,
+                        WidgetRevisionIndex widgetRevisionIndex) {
     Assert.notNull(widgetRepository, "widgetRepository must not be null");
+    Assert.notNull(widgetCache, "widgetCache must not be null");
+    Assert.notNull(eventPublisher, "eventPublisher must not be null");
+    Assert.notNull(widgetNameFilter, "widgetNameFilter must not be null");
+    Assert.notNull(widgetIndexMaintainer, "widgetIndexMaintainer must not be null");
+    Assert.notNull(widgetWriteBehind, "widgetWriteBehind must not be null");
+    Assert.notNull(widgetRevisionIndex, "widgetRevisionIndex must not be null");
     this.widgetRepository = widgetRepository;
+    this.widgetCache = widgetCache;
+    this.eventPublisher = eventPublisher;
+    this.widgetNameFilter = widgetNameFilter;
+    this.widgetIndexMaintainer = widgetIndexMaintainer;
+    this.widgetWriteBehind = widgetWriteBehind;
+    this.widgetRevisionIndex = widgetRevisionIndex;
   }
 
   public List<Widget> getAllWidgets() {
     return widgetRepository.findAll();
   }
 
+  public List<Map<String, Object>> getAllWidgets(Set<WidgetField> fields) {
+    return widgetRepository.findAllProjected(fields);
+  }
+
+  public WidgetPage getWidgetsPage(int limit, String after, WidgetSort sort) {
+    if (limit < 1 || limit > MAX_PAGE_SIZE) {
+      throw new InvalidRequestException(String.format("limit must be between 1 and %d", MAX_PAGE_SIZE));
+    }
+
+    // One extra row tells us whether there is a next page without issuing a count query
+    Pageable pageable = PageRequest.ofSize(limit + 1);
+    WidgetCursor cursor = after == null || after.isBlank() ? null : WidgetCursor.decode(after, sort);
+    List<Widget> widgets = switch (sort) {
+      case NAME -> cursor == null
+          ? widgetRepository.findAllByOrderByNameAsc(pageable)
+          : widgetRepository.findByNameGreaterThanOrderByNameAsc(cursor.name(), pageable);
+      case PRICE -> cursor == null
+          ? widgetRepository.findAllByOrderByPriceAscNameAsc(pageable)
+          : widgetRepository.findPriceKeysetPage(cursor.price(), cursor.name(), pageable);
+    };
+
+    return WidgetCursor.page(widgets, limit, sort);
+  }
+
   public Widget getWidgetByName(String name) {
-      return widgetRepository.findByNameIgnoreCase(name).orElseThrow(() -> new ElementNotFoundException(String.format("Widget with name=%s not found", name)));
+      return findWidget(name).orElseThrow(() -> new ElementNotFoundException(String.format("Widget with name=%s not found", name)));
     }
-  public Widget createWidget(Widget widget) {
-    Optional<Widget> storedWidget = widgetRepository.findByNameIgnoreCase(widget.getName());
 
-    if (storedWidget.isPresent()) {
-      log.error(String.format("Unable to create widget with name=%s - ALREADY EXISTS", widget.getName()));
-      throw new ElementAlreadyExistsException(String.format("Widget with name=%s already exists", widget.getName()));
+  /**
+   * The revision of a widget as far as memory knows it, without reading the database; empty when it is not
+   * known there, including while the indexes load.
+   */
+  public Optional<WidgetRevision> getWidgetRevision(String name) {
+    String normalizedName = Widget.normalize(name);
+    Optional<Widget> pendingWidget = widgetWriteBehind.get(normalizedName);
+    if (pendingWidget.isPresent()) {
+      return pendingWidget.map(WidgetRevision::of);
     }
+    return widgetIndexMaintainer.isLoaded() ? widgetRevisionIndex.get(normalizedName) : Optional.empty();
+  }
 
-    log.info(String.format("Widget with name=%s created successfully", widget.getName()));
-    return widgetRepository.save(widget);
+  public Widget createWidget(Widget widget) {
+    // A null version makes save() persist instead of merging
+    widget.setVersion(null);
+    Widget created;
+    try {
+      // The unique constraints detect duplicates, so there is no separate existence check to race with
+      created = widgetRepository.saveAndFlush(widget);
+    } catch (DataIntegrityViolationException e) {
+      log.error("Unable to create widget {} - ALREADY EXISTS", kv("name", widget.getName()));
+      throw new ElementAlreadyExistsException(String.format("Widget with name=%s already exists", widget.getName()));
+    }
+    log.info("Widget {} created successfully", kv("name", widget.getName()));
+    eventPublisher.publishEvent(new WidgetChangedEvent(WidgetChangedEvent.Type.CREATED, created));
+    return created;
   }
 
   public Widget updateWidget(Widget newWidgetData) {
-    Widget widget = widgetRepository.findByNameIgnoreCase(newWidgetData.getName()).orElseThrow(() -> {
-      log.error(String.format("Unable to update widget with name=%s - NOT FOUND", newWidgetData.getName()));
-      return new ElementNotFoundException(String.format("Widget with name=%s not found", newWidgetData.getName()));
-    });
+    return update(newWidgetData.getName(), newWidgetData.getDescription(), newWidgetData.getPrice(),
+        newWidgetData.getVersion());
+  }
 
-    widget.setPrice(newWidgetData.getPrice());
-    widget.setDescription(newWidgetData.getDescription());
+  public Widget patchWidget(String name, WidgetPatch patch) {
+    return update(name, patch.getDescription(), patch.getPrice(), patch.getVersion());
+  }
+
+  /**
+   * Creates the widget, or replaces its description and price when one with the same name exists.
+   */
+  public WidgetWriteResult upsertWidget(String name, Widget widget) {
+    if (!Widget.normalize(name).equals(Widget.normalize(widget.getName()))) {
+      throw new InvalidRequestException(String.format("Widget name=%s does not match path name=%s",
+          widget.getName(), name));
+    }
 
-    log.info(String.format("Widget with name=%s updated successfully", widget.getName()));
-    return widgetRepository.save(widget);
+    widgetWriteBehind.settle(List.of(Widget.normalize(name)));
+    Widget upserted;
+    try {
+      upserted = upsert(widget);
+    } catch (DataIntegrityViolationException e) {
+      // A concurrent upsert inserted the same name first; the retry takes the update branch
+      upserted = upsert(widget);
+    }
+
+    // Only the insert branch writes version 0; every update increments it
+    boolean created = upserted.getVersion() == 0;
+    log.info("Widget {} {} successfully", kv("name", upserted.getName()), created ? "created" : "updated");
+    eventPublisher.publishEvent(new WidgetChangedEvent(
+        created ? WidgetChangedEvent.Type.CREATED : WidgetChangedEvent.Type.UPDATED, upserted));
+    return new WidgetWriteResult(upserted, created);
   }
 
   public Widget deleteWidgetByName(String name) {
-    Widget widget = widgetRepository.findByNameIgnoreCase(name).orElseThrow(() -> {
-        log.error(String.format("Unable to delete widget with name=%s - NOT FOUND", name));
+    Widget widget = findWidget(name).orElseThrow(() -> {
+        log.error("Unable to delete widget {} - NOT FOUND", kv("name", name));
         return new ElementNotFoundException(String.format("Widget with name=%s not found", name));
       });
 
+    widgetWriteBehind.settle(List.of(Widget.normalize(widget.getName())));
     widgetRepository.delete(widget);
-    log.info(String.format("Widget with name=%s deleted successfully", name));
+    log.info("Widget {} deleted successfully", kv("name", name));
+    eventPublisher.publishEvent(new WidgetChangedEvent(WidgetChangedEvent.Type.DELETED, widget));
 
     return widget;
   }
+
+  private Widget update(String name, String description, BigDecimal price, Long expectedVersion) {
+    String normalizedName = Widget.normalize(name);
+    Optional<Widget> updated = widgetWriteBehind.isEnabled()
+        ? widgetWriteBehind.update(normalizedName, description, price, expectedVersion)
+        : widgetRepository.updateInPlace(normalizedName, description, price, expectedVersion);
+    if (updated.isEmpty()) {
+      // Only the failure path reads the row, to tell a missing widget from a stale version
+      Widget stored = widgetWriteBehind.get(normalizedName)
+          .or(() -> widgetRepository.findByNormalizedName(normalizedName))
+          .orElseThrow(() -> {
+            log.error("Unable to update widget {} - NOT FOUND", kv("name", name));
+            return new ElementNotFoundException(String.format("Widget with name=%s not found", name));
+          });
+      log.error("Unable to update widget {} - VERSION CONFLICT", kv("name", name));
+      throw new ElementVersionConflictException(String.format("Widget with name=%s has version=%d, not version=%d",
+          name, stored.getVersion(), expectedVersion));
+    }
+
+    log.info("Widget {} updated successfully", kv("name", name));
+    eventPublisher.publishEvent(new WidgetChangedEvent(WidgetChangedEvent.Type.UPDATED, updated.get()));
+    return updated.get();
+  }
+
+  private Widget upsert(Widget widget) {
+    return widgetRepository.upsert(widget, widget.getVersion()).orElseThrow(() -> {
+      log.error("Unable to update widget {} - VERSION CONFLICT", kv("name", widget.getName()));
+      return new ElementVersionConflictException(String.format("Widget with name=%s is not at version=%d",
+          widget.getName(), widget.getVersion()));
+    });
+  }
+
+  private Optional<Widget> findWidget(String name) {
+    // Unflushed write-behind updates are newer than anything the cache or the database can return
+    Optional<Widget> pendingWidget = widgetWriteBehind.get(Widget.normalize(name));
+    if (pendingWidget.isPresent()) {
+      return pendingWidget;
+    }
+
+    Optional<Widget> cachedWidget = widgetCache.get(name);
+    if (cachedWidget.isPresent()) {
+      return cachedWidget;
+    }
+
+    // Callers that coalesced onto one query share its entity, so each gets its own copy
+    String normalizedName = Widget.normalize(name);
+    return lookups.execute(normalizedName, () -> loadWidget(normalizedName))
+        .map(widget -> widget.toBuilder().build());
+  }
+
+  private Optional<Widget> loadWidget(String normalizedName) {
+    // Until the indexes are loaded the filter has not seen every name, so its negatives cannot be trusted
+    boolean filtered = widgetIndexMaintainer.isLoaded();
+    if (filtered && !widgetNameFilter.mightContain(normalizedName)) {
+      widgetNameFilter.recordLookup(false, false);
+      return Optional.empty();
+    }
+
+    long generation = widgetCache.generation();
+    Optional<Widget> storedWidget = widgetRepository.findByNormalizedName(normalizedName);
+    if (filtered) {
+      widgetNameFilter.recordLookup(true, storedWidget.isPresent());
+    }
+    storedWidget.ifPresent(widget -> widgetCache.putIfAbsent(widget, generation));
+    return storedWidget;
+  }
 }
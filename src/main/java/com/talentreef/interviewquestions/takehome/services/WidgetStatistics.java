@@ -0,0 +1,124 @@
+package com.talentreef.interviewquestions.takehome.services;
+
+import com.talentreef.interviewquestions.takehome.models.Widget;
+import com.talentreef.interviewquestions.takehome.models.WidgetStats;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Catalog aggregates kept up to date on every write with long-cents arithmetic. The published
+ * {@link WidgetStats} snapshot is rebuilt at most once per batch of writes, on the first read after them.
+ */
+@Component
+public class WidgetStatistics implements WidgetIndex {
+
+  static final double RELATIVE_ACCURACY = 0.005;
+
+  // Highest price the API accepts; larger prices still count but share the top percentile bucket
+  static final long MAX_CENTS = 2_000_000;
+
+  private final ReentrantLock lock = new ReentrantLock();
+
+  private final Map<String, Long> centsByName = new HashMap<>();
+
+  // Exact min and max survive deletes: price in cents -> number of widgets at that price
+  private final TreeMap<Long, Integer> widgetsByCents = new TreeMap<>();
+
+  private final PriceQuantileSketch sketch = new PriceQuantileSketch(RELATIVE_ACCURACY, MAX_CENTS);
+
+  private long sumCents;
+
+  private volatile WidgetStats snapshot = WidgetStats.builder().build();
+
+  private volatile boolean dirty;
+
+  @Override
+  public void add(Widget widget) {
+    long cents = PriceCents.of(widget.getPrice());
+    lock.lock();
+    try {
+      Long previous = centsByName.put(Widget.normalize(widget.getName()), cents);
+      if (previous != null) {
+        unrecord(previous);
+      }
+      sumCents += cents;
+      widgetsByCents.merge(cents, 1, Integer::sum);
+      sketch.add(cents);
+      dirty = true;
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  @Override
+  public void remove(String normalizedName) {
+    lock.lock();
+    try {
+      Long previous = centsByName.remove(normalizedName);
+      if (previous != null) {
+        unrecord(previous);
+        dirty = true;
+      }
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  @Override
+  public void clear() {
+    lock.lock();
+    try {
+      centsByName.clear();
+      widgetsByCents.clear();
+      sketch.clear();
+      sumCents = 0;
+      dirty = true;
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  public WidgetStats getStats() {
+    if (!dirty) {
+      return snapshot;
+    }
+    lock.lock();
+    try {
+      if (dirty) {
+        snapshot = buildSnapshot();
+        dirty = false;
+      }
+      return snapshot;
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  private void unrecord(long cents) {
+    sumCents -= cents;
+    widgetsByCents.computeIfPresent(cents, (price, count) -> count == 1 ? null : count - 1);
+    sketch.remove(cents);
+  }
+
+  private WidgetStats buildSnapshot() {
+    long count = centsByName.size();
+    if (count == 0) {
+      return WidgetStats.builder().build();
+    }
+    return WidgetStats.builder()
+        .count(count)
+        .minPrice(PriceCents.toPrice(widgetsByCents.firstKey()))
+        .maxPrice(PriceCents.toPrice(widgetsByCents.lastKey()))
+        .averagePrice(PriceCents.toPrice(sumCents).divide(BigDecimal.valueOf(count), 2, RoundingMode.HALF_UP))
+        .medianPrice(PriceCents.toPrice(sketch.quantile(0.5)))
+        .p90Price(PriceCents.toPrice(sketch.quantile(0.9)))
+        .p99Price(PriceCents.toPrice(sketch.quantile(0.99)))
+        .build();
+  }
+}
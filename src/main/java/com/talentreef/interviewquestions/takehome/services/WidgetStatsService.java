@@ -0,0 +1,30 @@
+package com.talentreef.interviewquestions.takehome.services;
+
+import com.talentreef.interviewquestions.exceptions.ServiceUnavailableException;
+import com.talentreef.interviewquestions.takehome.models.WidgetStats;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.util.Assert;
+
+@Service
+public class WidgetStatsService {
+
+  private final WidgetStatistics widgetStatistics;
+
+  private final WidgetIndexMaintainer widgetIndexMaintainer;
+
+  @Autowired
+  public WidgetStatsService(WidgetStatistics widgetStatistics, WidgetIndexMaintainer widgetIndexMaintainer) {
+    Assert.notNull(widgetStatistics, "widgetStatistics must not be null");
+    Assert.notNull(widgetIndexMaintainer, "widgetIndexMaintainer must not be null");
+    this.widgetStatistics = widgetStatistics;
+    this.widgetIndexMaintainer = widgetIndexMaintainer;
+  }
+
+  public WidgetStats getStats() {
+    if (!widgetIndexMaintainer.isLoaded()) {
+      throw new ServiceUnavailableException("Widget statistics are still loading", 5);
+    }
+    return widgetStatistics.getStats();
+  }
+}
@@ -0,0 +1,418 @@
+package com.talentreef.interviewquestions.takehome.services;
+
+import static net.logstash.logback.argument.StructuredArguments.kv;
+
+import com.talentreef.interviewquestions.metrics.DatabaseStatementCounter;
+import com.talentreef.interviewquestions.takehome.events.WidgetChangedEvent;
+import com.talentreef.interviewquestions.takehome.events.WidgetsFlushedEvent;
+import com.talentreef.interviewquestions.takehome.models.Widget;
+import com.talentreef.interviewquestions.takehome.respositories.WidgetRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Component;
+import org.springframework.util.Assert;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.Collectors;
+
+/**
+ * Opt-in write-behind for widget updates ({@code widgets.write-behind.enabled}). An update is applied to an
+ * in-memory view of the widget, appended to the {@link WidgetWriteJournal} and acknowledged; every
+ * {@code flush-interval} the pending updates, coalesced to the latest state per widget, are written to the
+ * database in one batch. Journal segments left by a crash are replayed into the database at startup.
+ *
+ * <p>The view only holds widgets with unflushed updates and is the source of truth for them; lookups by name
+ * read it first. Listings read the database and only show an update once it is flushed, which publishes a
+ * {@link WidgetsFlushedEvent} so catalog tags and cached listings move on. Creates, upserts, deletes and
+ * batches stay synchronous and {@link #settle} pending updates to the widgets they touch first. An update the
+ * flush had to skip because its widget was deleted or replaced meanwhile is dropped, and the state of a replaced
+ * widget is published again so caches holding the dropped update are corrected.
+ */
+@Slf4j
+@Component
+public class WidgetWriteBehind implements SmartInitializingSingleton {
+
+  private final WidgetRepository widgetRepository;
+
+  private final ApplicationEventPublisher eventPublisher;
+
+  private final boolean enabled;
+
+  private final Duration flushInterval;
+
+  private final Path journalDirectory;
+
+  private final boolean syncWrites;
+
+  private final Map<String, Widget> view = new ConcurrentHashMap<>();
+
+  // Guards the journal, the pending updates and their timestamps, so a flush takes exactly what was journaled
+  private final ReentrantLock lock = new ReentrantLock();
+
+  private final ReentrantLock flushLock = new ReentrantLock();
+
+  private Map<String, Widget> pending = new HashMap<>();
+
+  // Bumped under the lock whenever flushed widgets leave the view, which makes database reads taken before stale
+  private volatile long evictions;
+
+  private volatile long oldestPendingNanos;
+
+  private volatile long oldestInFlightNanos;
+
+  // Segments whose updates are not all in the database yet; only touched under flushLock
+  private final List<Path> sealedSegments = new ArrayList<>();
+
+  private WidgetWriteJournal journal;
+
+  private ScheduledExecutorService flusher;
+
+  private final Counter updates;
+
+  private final Counter coalesced;
+
+  private final Counter flushFailures;
+
+  private final Timer flushes;
+
+  private final DistributionSummary flushStatements;
+
+  @Autowired
+  public WidgetWriteBehind(WidgetRepository widgetRepository, ApplicationEventPublisher eventPublisher,
+                           MeterRegistry meterRegistry,
+                           @Value("${widgets.write-behind.enabled:false}") boolean enabled,
+                           @Value("${widgets.write-behind.flush-interval:200ms}") Duration flushInterval,
+                           @Value("${widgets.write-behind.journal-dir:widgets-journal}") Path journalDirectory,
+                           @Value("${widgets.write-behind.sync-writes:true}") boolean syncWrites) {
+    Assert.notNull(widgetRepository, "widgetRepository must not be null");
+    Assert.notNull(eventPublisher, "eventPublisher must not be null");
+    Assert.notNull(meterRegistry, "meterRegistry must not be null");
+    Assert.isTrue(!flushInterval.isNegative() && !flushInterval.isZero(), "flushInterval must be positive");
+    Assert.notNull(journalDirectory, "journalDirectory must not be null");
+    this.widgetRepository = widgetRepository;
+    this.eventPublisher = eventPublisher;
+    this.enabled = enabled;
+    this.flushInterval = flushInterval;
+    this.journalDirectory = journalDirectory;
+    this.syncWrites = syncWrites;
+    Gauge.builder("widgets.write.behind.pending", this, WidgetWriteBehind::pendingCount)
+        .description("Widgets with updates not yet flushed to the database")
+        .register(meterRegistry);
+    Gauge.builder("widgets.write.behind.lag", this, WidgetWriteBehind::lagSeconds)
+        .description("Age of the oldest update not yet flushed to the database")
+        .baseUnit("seconds")
+        .register(meterRegistry);
+    this.updates = Counter.builder("widgets.write.behind.updates")
+        .description("Widget updates acknowledged by the write-behind view")
+        .register(meterRegistry);
+    this.coalesced = Counter.builder("widgets.write.behind.coalesced")
+        .description("Widget updates superseded by a later update before being flushed")
+        .register(meterRegistry);
+    this.flushFailures = Counter.builder("widgets.write.behind.flush.failures")
+        .description("Write-behind flushes that failed and were retried")
+        .register(meterRegistry);
+    this.flushes = Timer.builder("widgets.write.behind.flush")
+        .description("Time to write one coalesced batch of widget updates")
+        .register(meterRegistry);
+    this.flushStatements = DistributionSummary.builder("widgets.write.behind.flush.statements")
+        .description("Database statements executed by scheduled flushes that had updates to write")
+        .baseUnit("statements")
+        .register(meterRegistry);
+  }
+
+  @Override
+  public void afterSingletonsInstantiated() {
+    if (!enabled) {
+      return;
+    }
+    try {
+      replay();
+      journal = WidgetWriteJournal.open(journalDirectory, syncWrites);
+    } catch (IOException e) {
+      throw new UncheckedIOException("Unable to open the widget journal in " + journalDirectory, e);
+    }
+    // Daemon, since shutdown() does the final flush and a stuck flusher must not keep the JVM alive
+    CustomizableThreadFactory threadFactory = new CustomizableThreadFactory("widget-write-behind-");
+    threadFactory.setDaemon(true);
+    flusher = Executors.newSingleThreadScheduledExecutor(threadFactory);
+    flusher.scheduleWithFixedDelay(this::scheduledFlush, flushInterval.toMillis(), flushInterval.toMillis(),
+        TimeUnit.MILLISECONDS);
+  }
+
+  @PreDestroy
+  public void shutdown() throws Exception {
+    if (!enabled || flusher == null) {
+      return;
+    }
+    flusher.shutdown();
+    flusher.awaitTermination(flushInterval.toMillis() * 10, TimeUnit.MILLISECONDS);
+    flush();
+    lock.lock();
+    try {
+      journal.close();
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  public boolean isEnabled() {
+    return enabled;
+  }
+
+  public Optional<Widget> get(String normalizedName) {
+    return Optional.ofNullable(view.get(normalizedName)).map(widget -> widget.toBuilder().build());
+  }
+
+  /**
+   * Same contract as {@link WidgetRepository#updateInPlace}: empty when no widget has the name or the version
+   * does not match. The widget is read from the database only when the view does not hold it, and outside the
+   * lock; a flush that evicted anything from the view since the read may have written a newer row, so the
+   * read is then retried. The journal is forced after the lock is released, once for concurrent updates.
+   */
+  public Optional<Widget> update(String normalizedName, String description, BigDecimal price, Long expectedVersion) {
+    Assert.state(enabled, "Widget write-behind is not enabled");
+    while (true) {
+      long evictionsBeforeRead = evictions;
+      Optional<Widget> stored = view.containsKey(normalizedName)
+          ? Optional.empty()
+          : widgetRepository.findByNormalizedName(normalizedName);
+      Optional<Widget> applied = apply(normalizedName, stored, evictionsBeforeRead, description, price,
+          expectedVersion);
+      if (applied != null) {
+        return applied;
+      }
+    }
+  }
+
+  // Null when the database read has to be retried
+  private Optional<Widget> apply(String normalizedName, Optional<Widget> stored, long evictionsBeforeRead,
+                                 String description, BigDecimal price, Long expectedVersion) {
+    Widget updated;
+    long record;
+    lock.lock();
+    try {
+      Widget current = view.get(normalizedName);
+      if (current == null) {
+        if (evictions != evictionsBeforeRead) {
+          return null;
+        }
+        current = stored.orElse(null);
+      }
+      if (current == null || (expectedVersion != null && !expectedVersion.equals(current.getVersion()))) {
+        return Optional.empty();
+      }
+
+      updated = current.toBuilder()
+          .description(description == null ? current.getDescription() : description)
+          .price(price == null ? current.getPrice() : price)
+          .version(current.getVersion() + 1)
+          .build();
+      record = journal.append(updated);
+      view.put(normalizedName, updated);
+      if (pending.isEmpty()) {
+        oldestPendingNanos = System.nanoTime();
+      }
+      if (pending.put(normalizedName, updated) != null) {
+        coalesced.increment();
+      }
+      updates.increment();
+    } catch (IOException e) {
+      throw new UncheckedIOException("Unable to journal widget update", e);
+    } finally {
+      lock.unlock();
+    }
+
+    try {
+      journal.awaitDurable(record);
+    } catch (IOException e) {
+      throw new UncheckedIOException("Unable to sync the widget journal", e);
+    }
+    return Optional.of(updated.toBuilder().build());
+  }
+
+  /**
+   * Flushes now when any of the widgets has updates in the view, so a synchronous write that follows starts
+   * from the database state and is not overwritten by an older flush.
+   */
+  public void settle(Collection<String> normalizedNames) {
+    if (enabled && normalizedNames.stream().anyMatch(view::containsKey)) {
+      flush();
+    }
+  }
+
+  public void flush() {
+    flushLock.lock();
+    try {
+      Map<String, Widget> batch;
+      lock.lock();
+      try {
+        if (pending.isEmpty()) {
+          return;
+        }
+        batch = pending;
+        pending = new HashMap<>();
+        oldestInFlightNanos = oldestPendingNanos;
+        oldestPendingNanos = 0;
+        sealedSegments.add(journal.rotate());
+      } catch (IOException e) {
+        throw new UncheckedIOException("Unable to rotate the widget journal", e);
+      } finally {
+        lock.unlock();
+      }
+
+      Set<String> skipped;
+      try {
+        skipped = Set.copyOf(flushes.record(() -> widgetRepository.overwriteAll(List.copyOf(batch.values()))));
+      } catch (RuntimeException e) {
+        flushFailures.increment();
+        log.warn("Widget write-behind flush failed, retrying {}", kv("widgets", batch.size()), e);
+        requeue(batch);
+        return;
+      }
+
+      for (Path segment : sealedSegments) {
+        deleteQuietly(segment);
+      }
+      sealedSegments.clear();
+      evictFlushed(batch, skipped);
+      if (!skipped.isEmpty()) {
+        log.warn("Widget write-behind updates skipped, deleted or replaced meanwhile {}", kv("widgets", skipped));
+        republish(skipped);
+      }
+      Set<String> written = batch.keySet().stream().filter(name -> !skipped.contains(name)).collect(Collectors.toSet());
+      if (!written.isEmpty()) {
+        eventPublisher.publishEvent(new WidgetsFlushedEvent(written));
+      }
+    } finally {
+      flushLock.unlock();
+    }
+  }
+
+  int pendingCount() {
+    return view.size();
+  }
+
+  double lagSeconds() {
+    long oldest = oldestInFlightNanos != 0 ? oldestInFlightNanos : oldestPendingNanos;
+    return oldest == 0 ? 0 : (System.nanoTime() - oldest) / 1e9;
+  }
+
+  // Flushes run by settle() on a request thread count towards that request instead
+  private void scheduledFlush() {
+    DatabaseStatementCounter.start();
+    try {
+      flush();
+    } catch (RuntimeException e) {
+      // An exception would cancel the schedule
+      log.error("Widget write-behind flush failed", e);
+    } finally {
+      long statements = DatabaseStatementCounter.stop();
+      if (statements > 0) {
+        flushStatements.record(statements);
+      }
+    }
+  }
+
+  private void replay() throws IOException {
+    List<Path> segments = WidgetWriteJournal.segments(journalDirectory);
+    if (segments.isEmpty()) {
+      return;
+    }
+    Map<String, Widget> replayed = WidgetWriteJournal.replay(segments);
+    Set<String> skipped = Set.copyOf(widgetRepository.overwriteAll(List.copyOf(replayed.values())));
+    replayed.forEach((normalizedName, widget) -> {
+      if (!skipped.contains(normalizedName)) {
+        eventPublisher.publishEvent(new WidgetChangedEvent(WidgetChangedEvent.Type.UPDATED, widget));
+      }
+    });
+    for (Path segment : segments) {
+      Files.delete(segment);
+    }
+    log.info("Widget journal replayed {} {} {}", kv("segments", segments.size()), kv("widgets", replayed.size()),
+        kv("skipped", skipped.size()));
+  }
+
+  private void requeue(Map<String, Widget> batch) {
+    lock.lock();
+    try {
+      // Updates made during the failed flush are newer than the batch and win
+      batch.forEach(pending::putIfAbsent);
+      if (oldestPendingNanos == 0 || oldestInFlightNanos < oldestPendingNanos) {
+        oldestPendingNanos = oldestInFlightNanos;
+      }
+      oldestInFlightNanos = 0;
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  private void evictFlushed(Map<String, Widget> batch, Set<String> skipped) {
+    lock.lock();
+    try {
+      // A widget updated again since the batch was taken stays in the view until that update is flushed
+      batch.forEach((normalizedName, widget) -> {
+        if (skipped.contains(normalizedName)) {
+          // Any later update builds on the skipped one and would be skipped as well
+          pending.remove(normalizedName);
+          view.remove(normalizedName);
+        } else if (!pending.containsKey(normalizedName)) {
+          view.remove(normalizedName, widget);
+        }
+      });
+      if (pending.isEmpty()) {
+        oldestPendingNanos = 0;
+      }
+      oldestInFlightNanos = 0;
+      evictions++;
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  /**
+   * The skipped updates were acknowledged and published, so listeners are handed the state that won instead. A
+   * widget that is gone was deleted by a synchronous delete, which already published that; publishing it again
+   * would remove the name from the counting name filter twice.
+   */
+  private void republish(Set<String> skipped) {
+    for (String normalizedName : skipped) {
+      widgetRepository.findByNormalizedName(normalizedName).ifPresent(stored ->
+          eventPublisher.publishEvent(new WidgetChangedEvent(WidgetChangedEvent.Type.UPDATED, stored)));
+    }
+  }
+
+  private static void deleteQuietly(Path segment) {
+    try {
+      Files.deleteIfExists(segment);
+    } catch (IOException e) {
+      log.warn("Unable to delete flushed widget journal segment {}", segment, e);
+    }
+  }
+}
@@ -0,0 +1,213 @@
+package com.talentreef.interviewquestions.takehome.services;
+
+import com.talentreef.interviewquestions.takehome.models.Widget;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+import java.util.zip.CRC32C;
+
+/**
+ * Append-only log of the write-behind mutations, in numbered segment files. A segment is sealed when a flush
+ * takes the mutations it holds and deleted once they are in the database, so the segments on disk at startup
+ * are exactly the mutations that may not have been flushed.
+ *
+ * <p>Each record is the payload length, a CRC32C of the payload and the payload: name and description as
+ * modified UTF-8, then price in cents and version. A record cut short by a crash fails its length or checksum
+ * and ends the replay of its segment.
+ */
+@Slf4j
+final class WidgetWriteJournal implements Closeable {
+
+  private static final Pattern SEGMENT = Pattern.compile("widgets-(\\d+)\\.journal");
+
+  private static final int HEADER_BYTES = 8;
+
+  private final Path directory;
+
+  private final boolean syncWrites;
+
+  private final ByteArrayOutputStream record = new ByteArrayOutputStream(256);
+
+  private final Object forceLock = new Object();
+
+  private long segmentNumber;
+
+  private Path segment;
+
+  private volatile FileChannel channel;
+
+  // Records appended so far, and how many of them are known to be on disk
+  private volatile long appended;
+
+  private volatile long forced;
+
+  private WidgetWriteJournal(Path directory, long segmentNumber, boolean syncWrites) throws IOException {
+    this.directory = directory;
+    this.syncWrites = syncWrites;
+    this.segmentNumber = segmentNumber;
+    openSegment();
+  }
+
+  /**
+   * Opens a new segment numbered after any segment already in the directory.
+   */
+  static WidgetWriteJournal open(Path directory, boolean syncWrites) throws IOException {
+    Files.createDirectories(directory);
+    List<Path> existing = segments(directory);
+    long next = existing.isEmpty() ? 1 : number(existing.get(existing.size() - 1)) + 1;
+    return new WidgetWriteJournal(directory, next, syncWrites);
+  }
+
+  static List<Path> segments(Path directory) throws IOException {
+    if (!Files.isDirectory(directory)) {
+      return List.of();
+    }
+    try (Stream<Path> files = Files.list(directory)) {
+      return files.filter(file -> SEGMENT.matcher(file.getFileName().toString()).matches())
+          .sorted(Comparator.comparingLong(WidgetWriteJournal::number))
+          .toList();
+    }
+  }
+
+  /**
+   * The latest state of every widget in the segments, which are read oldest first.
+   */
+  static Map<String, Widget> replay(List<Path> segments) throws IOException {
+    Map<String, Widget> widgets = new LinkedHashMap<>();
+    for (Path segment : segments) {
+      ByteBuffer buffer = ByteBuffer.wrap(Files.readAllBytes(segment));
+      while (buffer.remaining() >= HEADER_BYTES) {
+        int length = buffer.getInt();
+        int checksum = buffer.getInt();
+        if (length <= 0 || length > buffer.remaining()) {
+          log.warn("Widget journal segment ends in a partial record {}", segment);
+          break;
+        }
+        byte[] payload = new byte[length];
+        buffer.get(payload);
+        if (checksum(payload) != checksum) {
+          log.warn("Widget journal segment ends in a corrupt record {}", segment);
+          break;
+        }
+        Widget widget = decode(payload);
+        widgets.put(widget.getNormalizedName(), widget);
+      }
+    }
+    return widgets;
+  }
+
+  /**
+   * Writes the record and returns its sequence number for {@link #awaitDurable}. Appends are serialized by the
+   * caller.
+   */
+  long append(Widget widget) throws IOException {
+    record.reset();
+    DataOutputStream payload = new DataOutputStream(record);
+    payload.writeUTF(widget.getName());
+    payload.writeUTF(widget.getDescription());
+    payload.writeLong(PriceCents.of(widget.getPrice()));
+    payload.writeLong(widget.getVersion());
+    byte[] bytes = record.toByteArray();
+
+    ByteBuffer buffer = ByteBuffer.allocate(HEADER_BYTES + bytes.length);
+    buffer.putInt(bytes.length).putInt(checksum(bytes)).put(bytes).flip();
+    while (buffer.hasRemaining()) {
+      channel.write(buffer);
+    }
+    return ++appended;
+  }
+
+  /**
+   * Returns once the record is on disk when writes are synced. Called outside the caller's append lock, so
+   * concurrent callers share one force of everything appended before it started.
+   */
+  void awaitDurable(long record) throws IOException {
+    if (!syncWrites || forced >= record) {
+      return;
+    }
+    synchronized (forceLock) {
+      if (forced >= record) {
+        return;
+      }
+      // Read before the channel, so every record up to it is in this channel or in one rotate() already forced
+      long target = appended;
+      try {
+        channel.force(false);
+      } catch (ClosedChannelException e) {
+        // Rotated meanwhile, which forced the segment before closing it
+      }
+      forced = Math.max(forced, target);
+    }
+  }
+
+  /**
+   * Closes the current segment and starts the next one; returns the closed segment.
+   */
+  Path rotate() throws IOException {
+    Path sealed = segment;
+    channel.force(false);
+    channel.close();
+    segmentNumber++;
+    openSegment();
+    return sealed;
+  }
+
+  @Override
+  public void close() throws IOException {
+    channel.force(false);
+    channel.close();
+    // An empty segment holds nothing to replay
+    if (Files.size(segment) == 0) {
+      Files.delete(segment);
+    }
+  }
+
+  private void openSegment() throws IOException {
+    segment = directory.resolve("widgets-" + segmentNumber + ".journal");
+    channel = FileChannel.open(segment, StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE);
+  }
+
+  private static Widget decode(byte[] payload) throws IOException {
+    DataInputStream in = new DataInputStream(new ByteArrayInputStream(payload));
+    String name = in.readUTF();
+    return Widget.builder()
+        .name(name)
+        .normalizedName(Widget.normalize(name))
+        .description(in.readUTF())
+        .price(PriceCents.toPrice(in.readLong()))
+        .version(in.readLong())
+        .build();
+  }
+
+  private static int checksum(byte[] bytes) {
+    CRC32C crc = new CRC32C();
+    crc.update(bytes);
+    return (int) crc.getValue();
+  }
+
+  private static long number(Path segment) {
+    Matcher matcher = SEGMENT.matcher(segment.getFileName().toString());
+    if (!matcher.matches()) {
+      throw new IllegalArgumentException("Not a widget journal segment: " + segment);
+    }
+    return Long.parseLong(matcher.group(1));
+  }
+}
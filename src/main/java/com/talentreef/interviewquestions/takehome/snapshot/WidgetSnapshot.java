@@ -0,0 +1,4 @@
+package com.talentreef.interviewquestions.takehome.snapshot;
+
+public record WidgetSnapshot(String path, long widgets, long bytes) {
+}
@@ -0,0 +1,30 @@
+package com.talentreef.interviewquestions.takehome.snapshot;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.WriteOperation;
+import org.springframework.stereotype.Component;
+import org.springframework.util.Assert;
+
+import java.io.IOException;
+
+/**
+ * {@code POST /actuator/widgetsnapshot} writes the running catalog to the snapshot file.
+ */
+@Component
+@Endpoint(id = "widgetsnapshot")
+public class WidgetSnapshotEndpoint {
+
+  private final WidgetSnapshotWriter widgetSnapshotWriter;
+
+  @Autowired
+  public WidgetSnapshotEndpoint(WidgetSnapshotWriter widgetSnapshotWriter) {
+    Assert.notNull(widgetSnapshotWriter, "widgetSnapshotWriter must not be null");
+    this.widgetSnapshotWriter = widgetSnapshotWriter;
+  }
+
+  @WriteOperation
+  public WidgetSnapshot takeSnapshot() throws IOException {
+    return widgetSnapshotWriter.writeSnapshot();
+  }
+}
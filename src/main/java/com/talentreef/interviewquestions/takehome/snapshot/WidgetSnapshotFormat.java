@@ -0,0 +1,106 @@
+package com.talentreef.interviewquestions.takehome.snapshot;
+
+import com.talentreef.interviewquestions.takehome.models.Widget;
+import com.talentreef.interviewquestions.takehome.services.PriceCents;
+
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Binary catalog snapshot: a magic number and format version, then one record per widget until the end of the
+ * file. A record is the name and description as length-prefixed UTF-8 followed by the price in cents and the
+ * entity version, all big-endian. The normalized name is derived again on load.
+ */
+public final class WidgetSnapshotFormat {
+
+  static final int MAGIC = 0x57534E50;
+
+  static final int FORMAT_VERSION = 1;
+
+  private static final int MAX_STRING_BYTES = 0xFFFF;
+
+  private WidgetSnapshotFormat() {
+  }
+
+  @FunctionalInterface
+  public interface RowHandler {
+    void row(String name, String description, long priceCents, long version) throws Exception;
+  }
+
+  public static Output open(OutputStream outputStream) throws IOException {
+    return new Output(outputStream);
+  }
+
+  /**
+   * Decodes every record in the buffer, from its current position to its limit, and returns how many there were.
+   */
+  public static long read(ByteBuffer buffer, RowHandler handler) throws Exception {
+    if (buffer.remaining() < 2 * Integer.BYTES || buffer.getInt() != MAGIC) {
+      throw new IllegalArgumentException("Not a widget snapshot");
+    }
+    int formatVersion = buffer.getInt();
+    if (formatVersion != FORMAT_VERSION) {
+      throw new IllegalArgumentException("Unsupported widget snapshot format version " + formatVersion);
+    }
+
+    byte[] scratch = new byte[MAX_STRING_BYTES];
+    long rows = 0;
+    while (buffer.hasRemaining()) {
+      String name = readString(buffer, scratch);
+      String description = readString(buffer, scratch);
+      handler.row(name, description, buffer.getLong(), buffer.getLong());
+      rows++;
+    }
+    return rows;
+  }
+
+  private static String readString(ByteBuffer buffer, byte[] scratch) {
+    int length = Short.toUnsignedInt(buffer.getShort());
+    buffer.get(scratch, 0, length);
+    return new String(scratch, 0, length, StandardCharsets.UTF_8);
+  }
+
+  public static final class Output implements Closeable {
+
+    private final DataOutputStream data;
+
+    private long rows;
+
+    private Output(OutputStream outputStream) throws IOException {
+      this.data = new DataOutputStream(new BufferedOutputStream(outputStream, 1 << 16));
+      data.writeInt(MAGIC);
+      data.writeInt(FORMAT_VERSION);
+    }
+
+    public void write(Widget widget) throws IOException {
+      writeString(widget.getName());
+      writeString(widget.getDescription());
+      data.writeLong(PriceCents.of(widget.getPrice()));
+      data.writeLong(widget.getVersion() == null ? 0 : widget.getVersion());
+      rows++;
+    }
+
+    public long rows() {
+      return rows;
+    }
+
+    @Override
+    public void close() throws IOException {
+      data.close();
+    }
+
+    private void writeString(String value) throws IOException {
+      byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+      if (bytes.length > MAX_STRING_BYTES) {
+        throw new IllegalArgumentException("Snapshot strings are limited to " + MAX_STRING_BYTES + " bytes");
+      }
+      data.writeShort(bytes.length);
+      data.write(bytes);
+    }
+  }
+}
@@ -0,0 +1,182 @@
+package com.talentreef.interviewquestions.takehome.snapshot;
+
+import static net.logstash.logback.argument.StructuredArguments.kv;
+
+import com.talentreef.interviewquestions.sharding.WidgetShardRouter;
+import com.talentreef.interviewquestions.takehome.models.Widget;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.DependsOn;
+import org.springframework.jdbc.datasource.DataSourceUtils;
+import org.springframework.stereotype.Component;
+import org.springframework.util.Assert;
+
+import javax.sql.DataSource;
+import java.math.BigDecimal;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Restores the catalog from a {@link WidgetSnapshotFormat} file at startup, before the widget indexes are built.
+ * The file is memory-mapped and its records go straight into JDBC batches in a single transaction, so no
+ * entities are created and nothing is parsed as SQL per row. When the catalog is sharded each row goes to the
+ * shard of its normalized name, with one connection, batch and transaction per shard.
+ */
+@Slf4j
+@Component
+@DependsOn("entityManagerFactory")
+@ConditionalOnProperty(name = "widgets.snapshot.load-on-startup", havingValue = "true")
+public class WidgetSnapshotLoader {
+
+  static final int BATCH_SIZE = 5000;
+
+  private static final String INSERT =
+      "INSERT INTO widgets (name, normalized_name, description, price, version) VALUES (?, ?, ?, ?, ?)";
+
+  private final DataSource dataSource;
+
+  private final WidgetShardRouter router;
+
+  private final Path path;
+
+  @Autowired
+  public WidgetSnapshotLoader(DataSource dataSource, WidgetShardRouter router,
+                              @Value("${widgets.snapshot.path:widgets.snapshot}") Path path) {
+    Assert.notNull(dataSource, "dataSource must not be null");
+    Assert.notNull(router, "router must not be null");
+    Assert.notNull(path, "path must not be null");
+    this.dataSource = dataSource;
+    this.router = router;
+    this.path = path;
+  }
+
+  @PostConstruct
+  public void loadOnStartup() throws Exception {
+    if (!Files.isRegularFile(path)) {
+      log.warn("No widget snapshot to load {}", kv("path", path.toAbsolutePath()));
+      return;
+    }
+    load(path);
+  }
+
+  public long load(Path snapshot) throws Exception {
+    long start = System.nanoTime();
+    List<Connection> connections = new ArrayList<>(router.count());
+    try (FileChannel channel = FileChannel.open(snapshot, StandardOpenOption.READ)) {
+      if (channel.size() > Integer.MAX_VALUE) {
+        throw new IllegalStateException("Widget snapshots larger than 2GB cannot be mapped in one piece");
+      }
+      for (int shard = 0; shard < router.count(); shard++) {
+        int target = shard;
+        // The routing data source picks the shard when the connection is taken
+        connections.add(router.inShard(target, () -> DataSourceUtils.getConnection(dataSource)));
+      }
+      if (countWidgets(connections) > 0) {
+        log.warn("Skipping widget snapshot, the catalog is not empty {}", kv("path", snapshot.toAbsolutePath()));
+        return 0;
+      }
+      MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+
+      long rows = insert(buffer, connections);
+      log.info("Loaded widget snapshot {} {} {} {}", kv("path", snapshot.toAbsolutePath()), kv("widgets", rows),
+          kv("shards", connections.size()), kv("durationMs", (System.nanoTime() - start) / 1_000_000));
+      return rows;
+    } finally {
+      for (Connection connection : connections) {
+        connection.close();
+      }
+    }
+  }
+
+  private long insert(MappedByteBuffer buffer, List<Connection> connections) throws Exception {
+    List<PreparedStatement> inserts = new ArrayList<>(connections.size());
+    try {
+      for (Connection connection : connections) {
+        connection.setAutoCommit(false);
+        inserts.add(connection.prepareStatement(INSERT));
+      }
+      BatchInserter inserter = new BatchInserter(inserts);
+      long rows = WidgetSnapshotFormat.read(buffer, inserter::row);
+      inserter.flush();
+      // Each shard commits on its own; a failure part way leaves the committed shards loaded, and the
+      // non-empty catalog makes the next startup skip the snapshot rather than load it twice
+      for (Connection connection : connections) {
+        connection.commit();
+      }
+      return rows;
+    } catch (Exception e) {
+      for (Connection connection : connections) {
+        connection.rollback();
+      }
+      throw e;
+    } finally {
+      for (PreparedStatement insert : inserts) {
+        insert.close();
+      }
+      for (Connection connection : connections) {
+        connection.setAutoCommit(true);
+      }
+    }
+  }
+
+  private static long countWidgets(List<Connection> connections) throws Exception {
+    long count = 0;
+    for (Connection connection : connections) {
+      try (Statement statement = connection.createStatement();
+           ResultSet resultSet = statement.executeQuery("SELECT COUNT(*) FROM widgets")) {
+        resultSet.next();
+        count += resultSet.getLong(1);
+      }
+    }
+    return count;
+  }
+
+  private final class BatchInserter {
+
+    private final List<PreparedStatement> inserts;
+
+    private final int[] pending;
+
+    private BatchInserter(List<PreparedStatement> inserts) {
+      this.inserts = inserts;
+      this.pending = new int[inserts.size()];
+    }
+
+    private void row(String name, String description, long priceCents, long version) throws Exception {
+      String normalizedName = Widget.normalize(name);
+      int shard = router.shardFor(normalizedName);
+      PreparedStatement insert = inserts.get(shard);
+      insert.setString(1, name);
+      insert.setString(2, normalizedName);
+      insert.setString(3, description);
+      insert.setBigDecimal(4, BigDecimal.valueOf(priceCents, 2));
+      insert.setLong(5, version);
+      insert.addBatch();
+      if (++pending[shard] == BATCH_SIZE) {
+        insert.executeBatch();
+        pending[shard] = 0;
+      }
+    }
+
+    private void flush() throws Exception {
+      for (int shard = 0; shard < inserts.size(); shard++) {
+        if (pending[shard] > 0) {
+          inserts.get(shard).executeBatch();
+          pending[shard] = 0;
+        }
+      }
+    }
+  }
+}
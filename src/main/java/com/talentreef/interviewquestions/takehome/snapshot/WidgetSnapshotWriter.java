@@ -0,0 +1,78 @@
+package com.talentreef.interviewquestions.takehome.snapshot;
+
+import static net.logstash.logback.argument.StructuredArguments.kv;
+
+import com.talentreef.interviewquestions.takehome.models.Widget;
+import com.talentreef.interviewquestions.takehome.respositories.WidgetRepository;
+import jakarta.persistence.EntityManager;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.util.Assert;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Iterator;
+import java.util.stream.Stream;
+
+/**
+ * Streams the catalog into a new snapshot file. The file is written next to the target and moved into place
+ * once complete, so a reader never maps a half-written snapshot.
+ */
+@Slf4j
+@Component
+public class WidgetSnapshotWriter {
+
+  // Matches the fetch size hint on the streaming query, as in the NDJSON export
+  static final int CLEAR_INTERVAL = 500;
+
+  private final WidgetRepository widgetRepository;
+
+  private final EntityManager entityManager;
+
+  private final Path path;
+
+  @Autowired
+  public WidgetSnapshotWriter(WidgetRepository widgetRepository, EntityManager entityManager,
+                              @Value("${widgets.snapshot.path:widgets.snapshot}") Path path) {
+    Assert.notNull(widgetRepository, "widgetRepository must not be null");
+    Assert.notNull(entityManager, "entityManager must not be null");
+    Assert.notNull(path, "path must not be null");
+    this.widgetRepository = widgetRepository;
+    this.entityManager = entityManager;
+    this.path = path.toAbsolutePath();
+  }
+
+  @Transactional(readOnly = true)
+  public WidgetSnapshot writeSnapshot() throws IOException {
+    long start = System.nanoTime();
+    Files.createDirectories(path.getParent());
+    Path temporary = Files.createTempFile(path.getParent(), path.getFileName().toString(), ".tmp");
+    long rows;
+    try {
+      try (Stream<Widget> widgets = widgetRepository.streamAllByOrderByNameAsc();
+           WidgetSnapshotFormat.Output output = WidgetSnapshotFormat.open(Files.newOutputStream(temporary))) {
+        Iterator<Widget> iterator = widgets.iterator();
+        while (iterator.hasNext()) {
+          output.write(iterator.next());
+          if (output.rows() % CLEAR_INTERVAL == 0) {
+            entityManager.clear();
+          }
+        }
+        rows = output.rows();
+      }
+      Files.move(temporary, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    } finally {
+      Files.deleteIfExists(temporary);
+    }
+
+    WidgetSnapshot snapshot = new WidgetSnapshot(path.toString(), rows, Files.size(path));
+    log.info("Wrote widget snapshot {} {} {} {}", kv("path", snapshot.path()), kv("widgets", rows),
+        kv("bytes", snapshot.bytes()), kv("durationMs", (System.nanoTime() - start) / 1_000_000));
+    return snapshot;
+  }
+}
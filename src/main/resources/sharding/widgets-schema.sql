@@ -0,0 +1,11 @@
+-- Mirrors the Widget entity mapping; applied to every shard because Hibernate only manages the default one
+CREATE TABLE IF NOT EXISTS widgets (
+  name VARCHAR(100) NOT NULL PRIMARY KEY,
+  description VARCHAR(1000) NOT NULL,
+  price NUMERIC(7, 2) NOT NULL,
+  version BIGINT,
+  normalized_name VARCHAR(100) NOT NULL,
+  CONSTRAINT uk_widgets_normalized_name UNIQUE (normalized_name)
+);
+
+CREATE INDEX IF NOT EXISTS idx_widgets_price_name ON widgets (price, name);
@@ -0,0 +1,57 @@
+package com.talentreef.interviewquestions.admission;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import com.talentreef.interviewquestions.exceptions.ServiceUnavailableException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.time.Duration;
+
+public class AdmissionControlInterceptorTests {
+
+  final private SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+  final private AimdLimiter readLimiter = new AimdLimiter(1, 1, 1, Duration.ofSeconds(1), 0.9);
+
+  final private AimdLimiter writeLimiter = new AimdLimiter(1, 1, 1, Duration.ofSeconds(1), 0.9);
+
+  final private AdmissionControlInterceptor interceptor =
+      new AdmissionControlInterceptor(meterRegistry, readLimiter, writeLimiter, Duration.ofSeconds(2));
+
+  @Test
+  public void when_readLimitReached_expect_serviceUnavailable() throws Exception {
+    MockHttpServletRequest first = new MockHttpServletRequest("GET", "/v1/widgets");
+    interceptor.preHandle(first, new MockHttpServletResponse(), null);
+
+    assertThatThrownBy(() -> interceptor.preHandle(new MockHttpServletRequest("GET", "/v1/widgets"),
+        new MockHttpServletResponse(), null))
+        .isInstanceOf(ServiceUnavailableException.class)
+        .extracting("retryAfterSeconds").isEqualTo(2L);
+    assertThat(meterRegistry.get("widgets.admission.rejected").tag("pool", "read").counter().count()).isEqualTo(1);
+  }
+
+  @Test
+  public void when_readLimitReached_expect_writesStillAdmitted() throws Exception {
+    interceptor.preHandle(new MockHttpServletRequest("GET", "/v1/widgets"), new MockHttpServletResponse(), null);
+
+    assertThat(interceptor.preHandle(new MockHttpServletRequest("POST", "/v1/widgets"),
+        new MockHttpServletResponse(), null)).isTrue();
+  }
+
+  @Test
+  public void when_requestCompletes_expect_slotReleased() throws Exception {
+    MockHttpServletRequest request = new MockHttpServletRequest("GET", "/v1/widgets");
+    MockHttpServletResponse response = new MockHttpServletResponse();
+    interceptor.preHandle(request, response, null);
+
+    interceptor.afterCompletion(request, response, null, null);
+
+    assertThat(readLimiter.getInFlight()).isZero();
+    assertThat(interceptor.preHandle(new MockHttpServletRequest("GET", "/v1/widgets"),
+        new MockHttpServletResponse(), null)).isTrue();
+  }
+}
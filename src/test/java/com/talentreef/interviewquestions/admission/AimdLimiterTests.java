@@ -0,0 +1,60 @@
+package com.talentreef.interviewquestions.admission;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.junit.Test;
+
+import java.time.Duration;
+
+public class AimdLimiterTests {
+
+  private static final long FAST = Duration.ofMillis(10).toNanos();
+
+  private static final long SLOW = Duration.ofSeconds(1).toNanos();
+
+  final private AimdLimiter limiter = new AimdLimiter(4, 2, 6, Duration.ofMillis(100), 0.5);
+
+  @Test
+  public void when_limitReached_expect_rejected() throws Exception {
+    for (int i = 0; i < 4; i++) {
+      assertThat(limiter.tryAcquire()).isTrue();
+    }
+
+    assertThat(limiter.tryAcquire()).isFalse();
+    assertThat(limiter.getInFlight()).isEqualTo(4);
+  }
+
+  @Test
+  public void when_fastRequestsUnderLoad_expect_limitGrowsToMax() throws Exception {
+    for (int i = 0; i < 10; i++) {
+      limiter.tryAcquire();
+      limiter.tryAcquire();
+      limiter.tryAcquire();
+      limiter.release(FAST, false);
+      limiter.release(FAST, false);
+      limiter.release(FAST, false);
+    }
+
+    assertThat(limiter.getLimit()).isEqualTo(6);
+    assertThat(limiter.getInFlight()).isZero();
+  }
+
+  @Test
+  public void when_idle_expect_limitUnchanged() throws Exception {
+    limiter.tryAcquire();
+    limiter.release(FAST, false);
+
+    assertThat(limiter.getLimit()).isEqualTo(4);
+  }
+
+  @Test
+  public void when_slowOrFailedRequests_expect_limitBacksOffToMin() throws Exception {
+    limiter.tryAcquire();
+    limiter.release(SLOW, false);
+    assertThat(limiter.getLimit()).isEqualTo(2);
+
+    limiter.tryAcquire();
+    limiter.release(FAST, true);
+    assertThat(limiter.getLimit()).isEqualTo(2);
+  }
+}
@@ -0,0 +1,121 @@
+package com.talentreef.interviewquestions.logging;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.LoggerContext;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.core.AppenderBase;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicLong;
+
+public class BoundedAsyncAppenderTests {
+
+  final private LoggerContext loggerContext = new LoggerContext();
+
+  final private CountDownLatch release = new CountDownLatch(1);
+
+  final private BlockingAppender downstream = new BlockingAppender(release);
+
+  final private BoundedAsyncAppender appender = new BoundedAsyncAppender();
+
+  private Logger logger;
+
+  @Before
+  public void init() {
+    downstream.setContext(loggerContext);
+    downstream.start();
+    appender.setContext(loggerContext);
+    appender.setName("test");
+    appender.setQueueSize(2);
+    appender.setDiscardingThreshold(0);
+    appender.addAppender(downstream);
+    appender.start();
+
+    logger = loggerContext.getLogger("test");
+    logger.setAdditive(false);
+    logger.setLevel(Level.INFO);
+    logger.addAppender(appender);
+  }
+
+  @After
+  public void cleanup() {
+    release.countDown();
+    appender.stop();
+  }
+
+  @Test
+  public void when_queueFull_expect_callerNotBlockedAndDropsCounted() throws Exception {
+    long droppedBefore = overflowedWarnings().get();
+    long sampledBefore = BoundedAsyncAppender.droppedEvents(BoundedAsyncAppender.DropReason.SAMPLED, Level.WARN).get();
+
+    for (int i = 0; i < 20; i++) {
+      logger.warn("event {}", i);
+    }
+    long dropped = overflowedWarnings().get() - droppedBefore;
+    release.countDown();
+    appender.stop();
+
+    assertThat(dropped).isGreaterThanOrEqualTo(17);
+    assertThat(downstream.received).hasSize((int) (20 - dropped));
+    assertThat(BoundedAsyncAppender.droppedEvents(BoundedAsyncAppender.DropReason.SAMPLED, Level.WARN).get())
+        .isEqualTo(sampledBefore);
+  }
+
+  @Test
+  public void when_queueHasRoom_expect_allEventsDelivered() throws Exception {
+    release.countDown();
+
+    logger.info("first");
+    logger.info("second");
+    appender.stop();
+
+    assertThat(downstream.received).extracting(ILoggingEvent::getFormattedMessage).containsExactly("first", "second");
+  }
+
+  @Test
+  public void when_stopped_expect_queuedEventsFlushedWithoutInterruptingDownstream() throws Exception {
+    logger.info("queued");
+    release.countDown();
+    appender.stop();
+
+    assertThat(downstream.received).extracting(ILoggingEvent::getFormattedMessage).containsExactly("queued");
+    assertThat(downstream.interrupted).isFalse();
+  }
+
+  private static AtomicLong overflowedWarnings() {
+    return BoundedAsyncAppender.droppedEvents(BoundedAsyncAppender.DropReason.OVERFLOW, Level.WARN);
+  }
+
+  private static class BlockingAppender extends AppenderBase<ILoggingEvent> {
+
+    private final List<ILoggingEvent> received = Collections.synchronizedList(new ArrayList<>());
+
+    private final CountDownLatch release;
+
+    private volatile boolean interrupted;
+
+    BlockingAppender(CountDownLatch release) {
+      this.release = release;
+    }
+
+    @Override
+    protected void append(ILoggingEvent event) {
+      try {
+        release.await();
+      } catch (InterruptedException e) {
+        interrupted = true;
+        Thread.currentThread().interrupt();
+      }
+      received.add(event);
+    }
+  }
+}
@@ -0,0 +1,62 @@
+package com.talentreef.interviewquestions.metrics;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.Test;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.web.servlet.HandlerMapping;
+
+public class DatabaseStatementMetricsFilterTests {
+
+  final private SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+  final private DatabaseStatementMetricsFilter filter = new DatabaseStatementMetricsFilter(meterRegistry);
+
+  @Test
+  public void when_requestRunsStatements_expect_countRecorded() throws Exception {
+    MockHttpServletRequest request = new MockHttpServletRequest("GET", "/v1/widgets");
+    request.setAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE, "/v1/widgets");
+
+    filter.doFilter(request, new MockHttpServletResponse(), new MockFilterChain() {
+      @Override
+      public void doFilter(jakarta.servlet.ServletRequest request, jakarta.servlet.ServletResponse response) {
+        DatabaseStatementCounter.increment();
+        DatabaseStatementCounter.increment();
+      }
+    });
+
+    DistributionSummary summary = meterRegistry.get(DatabaseStatementMetricsFilter.METRIC_NAME)
+        .tag("uri", "/v1/widgets")
+        .summary();
+    assertThat(summary.count()).isEqualTo(1);
+    assertThat(summary.totalAmount()).isEqualTo(2);
+  }
+
+  @Test
+  public void when_statementsOutsideRequest_expect_notCounted() throws Exception {
+    DatabaseStatementCounter.increment();
+
+    assertThat(DatabaseStatementCounter.stop()).isZero();
+  }
+
+  @Test
+  public void when_taskPropagated_expect_countedOnAnotherThread() throws Exception {
+    DatabaseStatementCounter.start();
+    Thread worker = new Thread(DatabaseStatementCounter.propagate(DatabaseStatementCounter::increment));
+    worker.start();
+    worker.join();
+
+    assertThat(DatabaseStatementCounter.stop()).isEqualTo(1);
+  }
+
+  @Test
+  public void when_nonApiRequest_expect_notRecorded() throws Exception {
+    filter.doFilter(new MockHttpServletRequest("GET", "/actuator/health"), new MockHttpServletResponse(), new MockFilterChain());
+
+    assertThat(meterRegistry.find(DatabaseStatementMetricsFilter.METRIC_NAME).summary()).isNull();
+  }
+}
@@ -0,0 +1,49 @@
+package com.talentreef.interviewquestions.metrics;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.h2.jdbc.JdbcConnection;
+import org.h2.jdbcx.JdbcDataSource;
+import org.junit.Test;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.Statement;
+
+public class StatementCountingDataSourceTests {
+
+  private final StatementCountingDataSource dataSource = new StatementCountingDataSource(h2());
+
+  @Test
+  public void when_jdbcStatementsAndBatch_expect_oneCountPerRoundTrip() throws Exception {
+    DatabaseStatementCounter.start();
+    try (Connection connection = dataSource.getConnection();
+         Statement statement = connection.createStatement()) {
+      statement.execute("CREATE TABLE IF NOT EXISTS counted (id INT)");
+      try (PreparedStatement insert = connection.prepareStatement("INSERT INTO counted VALUES (?)")) {
+        for (int id = 0; id < 3; id++) {
+          insert.setInt(1, id);
+          insert.addBatch();
+        }
+        insert.executeBatch();
+      }
+      statement.executeQuery("SELECT COUNT(*) FROM counted").close();
+    }
+
+    assertThat(DatabaseStatementCounter.stop()).isEqualTo(3);
+  }
+
+  @Test
+  public void when_sameConnection_expect_equalToItself() throws Exception {
+    try (Connection connection = dataSource.getConnection()) {
+      assertThat(connection).isEqualTo(connection);
+      assertThat(connection.unwrap(JdbcConnection.class)).isNotNull();
+    }
+  }
+
+  private static JdbcDataSource h2() {
+    JdbcDataSource h2 = new JdbcDataSource();
+    h2.setURL("jdbc:h2:mem:statement-counting;DB_CLOSE_DELAY=-1");
+    return h2;
+  }
+}
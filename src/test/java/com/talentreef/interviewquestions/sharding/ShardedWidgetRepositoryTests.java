@@ -0,0 +1,170 @@
+package com.talentreef.interviewquestions.sharding;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.talentreef.interviewquestions.takehome.models.Widget;
+import com.talentreef.interviewquestions.takehome.models.WidgetField;
+import com.talentreef.interviewquestions.takehome.respositories.WidgetRepository;
+import org.junit.After;
+import org.junit.Test;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+public class ShardedWidgetRepositoryTests {
+
+  private static final int SHARDS = 3;
+
+  private final WidgetShardRouter router = new WidgetShardRouter(SHARDS, false);
+
+  private final WidgetRepository target = mock(WidgetRepository.class);
+
+  private final WidgetRepository repository = ShardedWidgetRepository.wrap(target, router);
+
+  // Every widget stored on the shard its name hashes to, in name order
+  private final Map<Integer, List<Widget>> shards = IntStream.range(0, 30)
+      .mapToObj(i -> widget("widget-" + i, String.valueOf(1 + (i * 7) % 10)))
+      .sorted(Comparator.comparing(Widget::getName))
+      .collect(Collectors.groupingBy(widget -> router.shardFor(widget.getNormalizedName())));
+
+  @After
+  public void tearDown() {
+    router.shutdown();
+  }
+
+  @Test
+  public void when_namesHashed_expect_evenSpread() throws Exception {
+    int[] counts = new int[4];
+    WidgetShardRouter fourShards = new WidgetShardRouter(4, false);
+    for (int i = 0; i < 40_000; i++) {
+      counts[fourShards.shardFor("widget-" + i)]++;
+    }
+    fourShards.shutdown();
+
+    for (int count : counts) {
+      assertThat(count).isBetween(9_000, 11_000);
+    }
+  }
+
+  @Test
+  public void when_findByNormalizedName_expect_onlyOwningShardQueried() throws Exception {
+    List<Integer> queried = new ArrayList<>();
+    when(target.findByNormalizedName("widget-7")).thenAnswer(invocation -> {
+      queried.add(router.currentShard());
+      return Optional.empty();
+    });
+
+    repository.findByNormalizedName("widget-7");
+
+    assertThat(queried).containsExactly(router.shardFor("widget-7"));
+  }
+
+  @Test
+  public void when_pageByPrice_expect_shardPagesMergedInOrder() throws Exception {
+    when(target.findAllByOrderByPriceAscNameAsc(any())).thenAnswer(invocation -> {
+      Pageable pageable = invocation.getArgument(0);
+      return shards.getOrDefault(router.currentShard(), List.of()).stream()
+          .sorted(Comparator.comparing(Widget::getPrice).thenComparing(Widget::getName))
+          .limit(pageable.getPageSize())
+          .toList();
+    });
+
+    List<Widget> page = repository.findAllByOrderByPriceAscNameAsc(PageRequest.ofSize(5));
+
+    List<Widget> expected = shards.values().stream()
+        .flatMap(List::stream)
+        .sorted(Comparator.comparing(Widget::getPrice).thenComparing(Widget::getName))
+        .limit(5)
+        .toList();
+    assertThat(page).containsExactlyElementsOf(expected);
+    verify(target, times(SHARDS)).findAllByOrderByPriceAscNameAsc(any());
+  }
+
+  @Test
+  public void when_secondPageByPrice_expect_offsetSkippedAcrossShards() throws Exception {
+    when(target.findAllByOrderByPriceAscNameAsc(any())).thenAnswer(invocation -> {
+      Pageable pageable = invocation.getArgument(0);
+      return shards.getOrDefault(router.currentShard(), List.of()).stream()
+          .sorted(Comparator.comparing(Widget::getPrice).thenComparing(Widget::getName))
+          .skip(pageable.getOffset())
+          .limit(pageable.getPageSize())
+          .toList();
+    });
+
+    List<Widget> page = repository.findAllByOrderByPriceAscNameAsc(PageRequest.of(1, 5));
+
+    List<Widget> expected = shards.values().stream()
+        .flatMap(List::stream)
+        .sorted(Comparator.comparing(Widget::getPrice).thenComparing(Widget::getName))
+        .skip(5)
+        .limit(5)
+        .toList();
+    assertThat(page).containsExactlyElementsOf(expected);
+  }
+
+  @Test
+  public void when_findAll_expect_shardPagesMergedByName() throws Exception {
+    when(target.findAllByOrderByNameAsc(any())).thenAnswer(invocation -> shards.getOrDefault(router.currentShard(), List.of()));
+
+    List<Widget> widgets = repository.findAll();
+
+    assertThat(widgets).extracting(Widget::getName).hasSize(30).isSorted();
+    verify(target, never()).findAll();
+  }
+
+  @Test
+  public void when_streamAll_expect_everyWidgetInNameOrder() throws Exception {
+    when(target.findAllByOrderByNameAsc(any())).thenAnswer(invocation -> shards.getOrDefault(router.currentShard(), List.of()));
+
+    List<String> names;
+    try (Stream<Widget> widgets = repository.streamAllByOrderByNameAsc()) {
+      names = widgets.map(Widget::getName).toList();
+    }
+
+    assertThat(names).hasSize(30).isSorted();
+  }
+
+  @Test
+  public void when_findAllProjected_expect_shardRowsMergedByName() throws Exception {
+    Set<WidgetField> fields = Set.of(WidgetField.NAME);
+    when(target.findProjectedPage(eq(fields), isNull(), anyInt())).thenAnswer(invocation -> shards
+        .getOrDefault(router.currentShard(), List.of())
+        .stream()
+        .map(widget -> Map.<String, Object>of(WidgetField.NAME.getAttribute(), widget.getName()))
+        .toList());
+
+    List<Map<String, Object>> rows = repository.findAllProjected(fields);
+
+    assertThat(rows).extracting(row -> (String) row.get(WidgetField.NAME.getAttribute()))
+        .hasSize(30)
+        .isSorted();
+  }
+
+  private static Widget widget(String name, String price) {
+    return Widget.builder()
+        .name(name)
+        .normalizedName(Widget.normalize(name))
+        .description("sharded description")
+        .price(new BigDecimal(price))
+        .build();
+  }
+}
@@ -2,29 +2,50 @@ package com.talentreef.interviewquestions.takehome.controllers;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultHandlers.print;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 import com.fasterxml.jackson.core.type.TypeReference;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.databind.CBORMapper;
+import com.talentreef.interviewquestions.RestResponseEntityExceptionHandler;
 import com.talentreef.interviewquestions.takehome.models.Widget;
+import com.talentreef.interviewquestions.takehome.models.WidgetField;
+import com.talentreef.interviewquestions.takehome.models.WidgetPage;
+import com.talentreef.interviewquestions.takehome.models.WidgetSort;
+import com.talentreef.interviewquestions.takehome.models.WidgetWriteResult;
+import com.talentreef.interviewquestions.takehome.services.CatalogVersion;
+import com.talentreef.interviewquestions.takehome.services.WidgetRevision;
 import com.talentreef.interviewquestions.takehome.services.WidgetService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.Before;
 import org.junit.Test;
 import org.junit.runner.RunWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.MockitoJUnitRunner;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
 import org.springframework.test.web.servlet.MvcResult;
 import org.springframework.test.web.servlet.setup.MockMvcBuilders;
 
 import java.math.BigDecimal;
+import java.util.EnumSet;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
 
 @RunWith(MockitoJUnitRunner.class)
 @SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
@@ -37,12 +58,20 @@ public class WidgetControllerTests {
   @Mock
   private WidgetService widgetService;
 
+  @Mock
+  private CatalogVersion catalogVersion;
+
+  @Spy
+  private WidgetResponseCache widgetResponseCache = new WidgetResponseCache(new ObjectMapper(), new SimpleMeterRegistry(), 100);
+
   @InjectMocks
   private WidgetController widgetController;
 
   @Before
   public void init() {
-    mockMvc = MockMvcBuilders.standaloneSetup(widgetController).build();
+    mockMvc = MockMvcBuilders.standaloneSetup(widgetController)
+        .setControllerAdvice(new RestResponseEntityExceptionHandler())
+        .build();
   }
 
   @Test
@@ -61,6 +90,162 @@ public class WidgetControllerTests {
     assertThat(parsedResult).isEqualTo(allWidgets);
   }
 
+  @Test
+  public void when_getAllWidgets_acceptCbor_expect_cbor() throws Exception {
+    Widget widget = Widget.builder().name("Widget von Hammersmark").price(new BigDecimal("20.00")).build();
+    when(catalogVersion.current()).thenReturn(42L);
+    when(widgetService.getAllWidgets()).thenReturn(List.of(widget));
+
+    MvcResult result = mockMvc.perform(get("/v1/widgets").accept(MediaType.APPLICATION_CBOR))
+            .andExpect(status().isOk())
+            .andExpect(header().string(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_CBOR_VALUE))
+            .andExpect(header().string(HttpHeaders.ETAG, "\"catalog-42-cbor\""))
+            .andReturn();
+
+    List<Widget> parsedResult = new CBORMapper().readValue(result.getResponse().getContentAsByteArray(),
+        new TypeReference<List<Widget>>(){});
+    assertThat(parsedResult).containsExactly(widget);
+  }
+
+  @Test
+  public void when_createWidget_cborBody_expect_widget() throws Exception {
+    Widget newWidget = Widget.builder().name("new widget").price(new BigDecimal("20.0")).description("this is a description example").build();
+    when(widgetService.createWidget(any())).thenReturn(newWidget);
+
+    mockMvc.perform(post("/v1/widgets").contentType(MediaType.APPLICATION_CBOR)
+            .content(new CBORMapper().writeValueAsBytes(newWidget)))
+            .andExpect(status().isOk());
+
+    verify(widgetService).createWidget(eq(newWidget));
+  }
+
+  @Test
+  public void when_getAllWidgets_expect_catalogETag() throws Exception {
+    when(catalogVersion.current()).thenReturn(42L);
+    when(widgetService.getAllWidgets()).thenReturn(List.of());
+
+    mockMvc.perform(get("/v1/widgets"))
+            .andExpect(status().isOk())
+            .andExpect(header().string(HttpHeaders.ETAG, "\"catalog-42\""));
+  }
+
+  @Test
+  public void when_getAllWidgets_unchangedCatalog_expect_serializedOnce() throws Exception {
+    Widget widget = Widget.builder().name("Widget von Hammersmark").build();
+    when(catalogVersion.current()).thenReturn(42L);
+    when(widgetService.getAllWidgets()).thenReturn(List.of(widget));
+
+    String first = mockMvc.perform(get("/v1/widgets"))
+            .andExpect(status().isOk())
+            .andReturn().getResponse().getContentAsString();
+    String second = mockMvc.perform(get("/v1/widgets"))
+            .andExpect(status().isOk())
+            .andReturn().getResponse().getContentAsString();
+
+    assertThat(second).isEqualTo(first);
+    verify(widgetService, times(1)).getAllWidgets();
+  }
+
+  @Test
+  public void when_getAllWidgets_unchangedCatalog_expect_notModified() throws Exception {
+    when(catalogVersion.current()).thenReturn(42L);
+
+    mockMvc.perform(get("/v1/widgets").header(HttpHeaders.IF_NONE_MATCH, "\"catalog-42\""))
+            .andExpect(status().isNotModified())
+            .andDo(print());
+
+    verify(widgetService, never()).getAllWidgets();
+  }
+
+  @Test
+  public void when_getWidgetByName_unchangedWidget_expect_notModified() throws Exception {
+    Widget widget = Widget.builder().name("test widget").description("description").price(BigDecimal.TEN).version(3L).build();
+    when(widgetService.getWidgetByName(any())).thenReturn(widget);
+
+    String eTag = mockMvc.perform(get("/v1/widgets?name=test widget"))
+            .andExpect(status().isOk())
+            .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+
+    mockMvc.perform(get("/v1/widgets?name=test widget").header(HttpHeaders.IF_NONE_MATCH, eTag))
+            .andExpect(status().isNotModified());
+  }
+
+  @Test
+  public void when_getWidgetByName_unchangedRevision_expect_notModifiedWithoutLoading() throws Exception {
+    Widget widget = Widget.builder().name("test widget").description("description").price(BigDecimal.TEN).version(3L).build();
+    when(widgetService.getWidgetRevision(any())).thenReturn(Optional.of(WidgetRevision.of(widget)));
+
+    mockMvc.perform(get("/v1/widgets?name=test widget").header(HttpHeaders.IF_NONE_MATCH, WidgetETags.widget(widget)))
+            .andExpect(status().isNotModified());
+
+    verify(widgetService, never()).getWidgetByName(any());
+  }
+
+  @Test
+  public void when_getWidgetByName_changedRevision_expect_loadedWidget() throws Exception {
+    Widget widget = Widget.builder().name("test widget").description("description").price(BigDecimal.TEN).version(3L).build();
+    when(widgetService.getWidgetRevision(any())).thenReturn(Optional.of(WidgetRevision.of(widget)));
+    when(widgetService.getWidgetByName(any())).thenReturn(widget);
+
+    mockMvc.perform(get("/v1/widgets?name=test widget").header(HttpHeaders.IF_NONE_MATCH, "\"2-0\""))
+            .andExpect(status().isOk())
+            .andExpect(header().string(HttpHeaders.ETAG, WidgetETags.widget(widget)));
+  }
+
+  @Test
+  public void when_getAllWidgets_withFields_expect_onlySelectedFields() throws Exception {
+    Map<String, Object> row = new LinkedHashMap<>();
+    row.put("name", "Widget von Hammersmark");
+    row.put("price", new BigDecimal("20.00"));
+    when(catalogVersion.current()).thenReturn(42L);
+    when(widgetService.getAllWidgets(eq(EnumSet.of(WidgetField.NAME, WidgetField.PRICE)))).thenReturn(List.of(row));
+
+    MvcResult result = mockMvc.perform(get("/v1/widgets?fields=price"))
+            .andExpect(status().isOk())
+            .andExpect(header().string(HttpHeaders.ETAG, "\"catalog-42-name,price\""))
+            .andReturn();
+
+    assertThat(result.getResponse().getContentAsString())
+            .isEqualTo("[{\"name\":\"Widget von Hammersmark\",\"price\":20.00}]");
+    verify(widgetService, never()).getAllWidgets();
+  }
+
+  @Test
+  public void when_getAllWidgets_withFieldsAndLimitOrName_expect_badRequest() throws Exception {
+    mockMvc.perform(get("/v1/widgets?fields=price&limit=10"))
+            .andExpect(status().isBadRequest());
+    mockMvc.perform(get("/v1/widgets?fields=price&name=Widget"))
+            .andExpect(status().isBadRequest());
+
+    verify(widgetService, never()).getAllWidgets();
+    verify(widgetService, never()).getAllWidgets(any());
+  }
+
+  @Test
+  public void when_getWidgets_withLimitAndName_expect_badRequest() throws Exception {
+    mockMvc.perform(get("/v1/widgets?limit=10&name=Widget"))
+            .andExpect(status().isBadRequest());
+
+    verify(widgetService, never()).getWidgetsPage(anyInt(), any(), any());
+    verify(widgetService, never()).getWidgetByName(any());
+  }
+
+  @Test
+  public void when_getWidgetsPage_expect_page() throws Exception {
+    Widget widget = Widget.builder().name("Widget von Hammersmark").build();
+    WidgetPage page = WidgetPage.builder().items(List.of(widget)).nextCursor("cursor").build();
+    when(widgetService.getWidgetsPage(eq(1), eq("previous"), eq(WidgetSort.PRICE))).thenReturn(page);
+
+    MvcResult result = mockMvc.perform(get("/v1/widgets?limit=1&after=previous&sort=price"))
+            .andExpect(status().isOk())
+            .andDo(print())
+            .andReturn();
+
+    WidgetPage parsedResult = objectMapper.readValue(result.getResponse().getContentAsString(),
+            new TypeReference<WidgetPage>() {});
+    assertThat(parsedResult).isEqualTo(page);
+  }
+
   @Test
   public void when_getWidgetByName_expect_widget() throws Exception {
     Widget firstWidget = Widget.builder().name("test widget").build();
@@ -221,6 +406,48 @@ public class WidgetControllerTests {
     assertThat(result.getResponse().getErrorMessage()).isEqualTo("Invalid request content.");
   }
 
+  @Test
+  public void when_upsertWidget_newName_expect_created() throws Exception {
+    Widget widget = Widget.builder().name("new widget").price(new BigDecimal("20.0")).description("this is a description example").build();
+    when(widgetService.upsertWidget(eq("new widget"), any())).thenReturn(new WidgetWriteResult(widget, true));
+
+    mockMvc.perform(put("/v1/widgets/new widget").contentType(MediaType.APPLICATION_JSON)
+                    .content(objectMapper.writeValueAsString(widget)))
+            .andExpect(status().isCreated());
+  }
+
+  @Test
+  public void when_upsertWidget_existingName_expect_ok() throws Exception {
+    Widget widget = Widget.builder().name("old widget").price(new BigDecimal("20.0")).description("this is a description example").build();
+    when(widgetService.upsertWidget(eq("old widget"), any())).thenReturn(new WidgetWriteResult(widget, false));
+
+    mockMvc.perform(put("/v1/widgets/old widget").contentType(MediaType.APPLICATION_JSON)
+                    .content(objectMapper.writeValueAsString(widget)))
+            .andExpect(status().isOk());
+  }
+
+  @Test
+  public void when_patchWidget_expect_widget() throws Exception {
+    Widget patchedWidget = Widget.builder().name("patched").price(new BigDecimal("25.00")).description("this is a description example").build();
+    when(widgetService.patchWidget(eq("patched"), any())).thenReturn(patchedWidget);
+
+    MvcResult result = mockMvc.perform(patch("/v1/widgets/patched").contentType(MediaType.APPLICATION_JSON)
+                    .content("{\"price\": 25.00}"))
+            .andExpect(status().isOk())
+            .andReturn();
+
+    Widget parsedResult = objectMapper.readValue(result.getResponse().getContentAsString(), new TypeReference<Widget>() {});
+    assertThat(parsedResult).isEqualTo(patchedWidget);
+  }
+
+  @Test
+  public void when_patchWidget_noFields_expect_badRequest() throws Exception {
+    mockMvc.perform(patch("/v1/widgets/patched").contentType(MediaType.APPLICATION_JSON).content("{}"))
+            .andExpect(status().isBadRequest());
+
+    verify(widgetService, never()).patchWidget(any(), any());
+  }
+
   @Test
   public void when_deleteWidgetByName_expect_widget() throws Exception {
     Widget deletedWidget = Widget.builder().name("deleted").build();
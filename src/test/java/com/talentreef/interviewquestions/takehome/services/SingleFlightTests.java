@@ -0,0 +1,99 @@
+package com.talentreef.interviewquestions.takehome.services;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import org.junit.After;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class SingleFlightTests {
+
+  final private SingleFlight<String, String> singleFlight = new SingleFlight<>();
+
+  final private ExecutorService executor = Executors.newFixedThreadPool(8);
+
+  @After
+  public void tearDown() {
+    executor.shutdownNow();
+  }
+
+  @Test
+  public void when_concurrentCallsForOneKey_expect_oneLoad() throws Exception {
+    CountDownLatch release = new CountDownLatch(1);
+    AtomicInteger loads = new AtomicInteger();
+
+    List<Future<String>> results = new ArrayList<>();
+    for (int i = 0; i < 8; i++) {
+      results.add(executor.submit(() -> singleFlight.execute("widget", () -> {
+        loads.incrementAndGet();
+        await(release);
+        return "loaded";
+      })));
+    }
+    awaitInFlight();
+    Thread.sleep(100);
+    release.countDown();
+
+    for (Future<String> result : results) {
+      assertThat(result.get(5, TimeUnit.SECONDS)).isEqualTo("loaded");
+    }
+    assertThat(loads.get()).isEqualTo(1);
+    assertThat(singleFlight.inFlight()).isZero();
+  }
+
+  @Test
+  public void when_loadFails_expect_everyCallerFails() throws Exception {
+    CountDownLatch release = new CountDownLatch(1);
+
+    Future<String> leader = executor.submit(() -> singleFlight.execute("widget", () -> {
+      await(release);
+      throw new IllegalStateException("database unavailable");
+    }));
+    awaitInFlight();
+    Future<String> follower = executor.submit(() -> singleFlight.execute("widget", () -> "not coalesced"));
+    Thread.sleep(100);
+    release.countDown();
+
+    assertThatThrownBy(() -> leader.get(5, TimeUnit.SECONDS)).hasCauseInstanceOf(IllegalStateException.class);
+    assertThatThrownBy(() -> follower.get(5, TimeUnit.SECONDS)).hasCauseInstanceOf(IllegalStateException.class);
+  }
+
+  @Test
+  public void when_otherKeyInFlight_expect_noWait() throws Exception {
+    CountDownLatch release = new CountDownLatch(1);
+    executor.submit(() -> singleFlight.execute("slow widget", () -> {
+      await(release);
+      return "slow";
+    }));
+    awaitInFlight();
+
+    try {
+      assertThat(singleFlight.execute("fast widget", () -> "fast")).isEqualTo("fast");
+    } finally {
+      release.countDown();
+    }
+  }
+
+  private void awaitInFlight() throws InterruptedException {
+    while (singleFlight.inFlight() == 0) {
+      Thread.sleep(1);
+    }
+  }
+
+  private static void await(CountDownLatch latch) {
+    try {
+      latch.await(5, TimeUnit.SECONDS);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+  }
+}
@@ -0,0 +1,179 @@
+package com.talentreef.interviewquestions.takehome.services;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.talentreef.interviewquestions.sharding.WidgetShardRouter;
+import com.talentreef.interviewquestions.takehome.events.WidgetChangedEvent;
+import com.talentreef.interviewquestions.takehome.models.Widget;
+import com.talentreef.interviewquestions.takehome.models.WidgetOperation;
+import com.talentreef.interviewquestions.takehome.models.WidgetOperationResult;
+import com.talentreef.interviewquestions.takehome.respositories.WidgetRepository;
+import jakarta.persistence.EntityManager;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.InOrder;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Spy;
+import org.mockito.junit.MockitoJUnitRunner;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionSystemException;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+@RunWith(MockitoJUnitRunner.class)
+public class WidgetBatchServiceTests {
+
+  @Mock
+  private WidgetRepository widgetRepository;
+
+  @Mock
+  private EntityManager entityManager;
+
+  @Mock
+  private ApplicationEventPublisher eventPublisher;
+
+  @Mock
+  private PlatformTransactionManager transactionManager;
+
+  @Spy
+  private WidgetShardRouter widgetShardRouter = new WidgetShardRouter(1, false);
+
+  @Mock
+  private WidgetWriteBehind widgetWriteBehind;
+
+  @InjectMocks
+  private WidgetBatchService widgetBatchService;
+
+  @Test
+  public void when_applyBatch_expect_resultPerOperation() throws Exception {
+    Widget stored = storedWidget("Widgette Nielson", "10.00");
+    when(widgetRepository.findByNormalizedNameIn(any())).thenReturn(List.of(stored));
+
+    List<WidgetOperationResult> results = widgetBatchService.applyBatch(List.of(
+        create("New widget"),
+        update("WIDGETTE NIELSON", "25.00"),
+        WidgetOperation.builder().type(WidgetOperation.Type.DELETE).name("Missing widget").build(),
+        create("widgette nielson")));
+
+    assertThat(results).extracting(WidgetOperationResult::getStatus).containsExactly(200, 200, 404, 400);
+    assertThat(results).extracting(WidgetOperationResult::getIndex).containsExactly(0, 1, 2, 3);
+    assertThat(stored.getPrice()).isEqualTo(new BigDecimal("25.00"));
+    verify(widgetRepository, times(1)).findByNormalizedNameIn(any());
+    verify(entityManager, times(1)).persist(any());
+    verify(eventPublisher, times(2)).publishEvent(any(WidgetChangedEvent.class));
+  }
+
+  @Test
+  public void when_applyBatch_createThenDelete_expect_bothApplied() throws Exception {
+    when(widgetRepository.findByNormalizedNameIn(any())).thenReturn(List.of());
+
+    List<WidgetOperationResult> results = widgetBatchService.applyBatch(List.of(
+        create("New widget"),
+        WidgetOperation.builder().type(WidgetOperation.Type.DELETE).name("new widget").build()));
+
+    assertThat(results).extracting(WidgetOperationResult::getStatus).containsExactly(200, 200);
+    verify(entityManager, times(1)).persist(any());
+    verify(entityManager, times(1)).remove(any());
+  }
+
+  @Test
+  public void when_applyBatch_updateMissing_expect_nothingWritten() throws Exception {
+    when(widgetRepository.findByNormalizedNameIn(any())).thenReturn(List.of());
+
+    List<WidgetOperationResult> results = widgetBatchService.applyBatch(List.of(update("Missing widget", "25.00")));
+
+    assertThat(results.get(0).getStatus()).isEqualTo(404);
+    assertThat(results.get(0).getError()).isEqualTo("Widget with name=Missing widget not found");
+    verify(eventPublisher, never()).publishEvent(any(WidgetChangedEvent.class));
+  }
+
+  @Test
+  public void when_applyBatch_createWithVersion_expect_versionCleared() throws Exception {
+    when(widgetRepository.findByNormalizedNameIn(any())).thenReturn(List.of());
+    WidgetOperation operation = create("New widget");
+    operation.getWidget().setVersion(3L);
+
+    List<WidgetOperationResult> results = widgetBatchService.applyBatch(List.of(operation));
+
+    assertThat(results.get(0).getStatus()).isEqualTo(200);
+    verify(entityManager).persist(argThat(widget -> ((Widget) widget).getVersion() == null));
+  }
+
+  @Test
+  public void when_applyBatch_updateWithStaleVersion_expect_conflict() throws Exception {
+    Widget stored = storedWidget("Widgette Nielson", "10.00");
+    stored.setVersion(2L);
+    when(widgetRepository.findByNormalizedNameIn(any())).thenReturn(List.of(stored));
+    WidgetOperation operation = update("Widgette Nielson", "25.00");
+    operation.getWidget().setVersion(1L);
+
+    List<WidgetOperationResult> results = widgetBatchService.applyBatch(List.of(operation));
+
+    assertThat(results.get(0).getStatus()).isEqualTo(409);
+    assertThat(results.get(0).getError()).isEqualTo("Widget with name=Widgette Nielson has version=2, not version=1");
+    assertThat(stored.getPrice()).isEqualTo(new BigDecimal("10.00"));
+    verify(eventPublisher, never()).publishEvent(any(WidgetChangedEvent.class));
+  }
+
+  @Test
+  public void when_applyBatch_commitFails_expect_everyOperationFailedWithoutEvents() throws Exception {
+    Widget stored = storedWidget("Widgette Nielson", "10.00");
+    when(widgetRepository.findByNormalizedNameIn(any())).thenReturn(List.of(stored));
+    doThrow(new TransactionSystemException("commit failed")).when(transactionManager).commit(any());
+
+    List<WidgetOperationResult> results = widgetBatchService.applyBatch(List.of(
+        create("New widget"),
+        update("Widgette Nielson", "25.00"),
+        update("Missing widget", "25.00")));
+
+    assertThat(results).extracting(WidgetOperationResult::getStatus).containsExactly(500, 500, 500);
+    assertThat(results).extracting(WidgetOperationResult::getWidget).containsOnlyNulls();
+    assertThat(results.get(0).getError()).isEqualTo("Widget with name=New widget was not written, its transaction failed");
+    verify(eventPublisher, never()).publishEvent(any(WidgetChangedEvent.class));
+  }
+
+  @Test
+  public void when_applyBatch_expect_eventsAfterCommit() throws Exception {
+    when(widgetRepository.findByNormalizedNameIn(any())).thenReturn(List.of());
+    InOrder inOrder = inOrder(transactionManager, eventPublisher);
+
+    widgetBatchService.applyBatch(List.of(create("New widget")));
+
+    inOrder.verify(transactionManager).commit(any());
+    inOrder.verify(eventPublisher).publishEvent(any(WidgetChangedEvent.class));
+  }
+
+  private static WidgetOperation create(String name) {
+    return WidgetOperation.builder()
+        .type(WidgetOperation.Type.CREATE)
+        .widget(Widget.builder().name(name).description("batch description").price(new BigDecimal("10.00")).build())
+        .build();
+  }
+
+  private static WidgetOperation update(String name, String price) {
+    return WidgetOperation.builder()
+        .type(WidgetOperation.Type.UPDATE)
+        .widget(Widget.builder().name(name).description("updated description").price(new BigDecimal(price)).build())
+        .build();
+  }
+
+  private static Widget storedWidget(String name, String price) {
+    return Widget.builder()
+        .name(name)
+        .normalizedName(Widget.normalize(name))
+        .description("stored description")
+        .price(new BigDecimal(price))
+        .build();
+  }
+}
@@ -0,0 +1,81 @@
+package com.talentreef.interviewquestions.takehome.services;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.talentreef.interviewquestions.takehome.events.WidgetChangedEvent;
+import com.talentreef.interviewquestions.takehome.models.Widget;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.Test;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+
+public class WidgetCacheTests {
+
+  final private SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+  final private WidgetCache widgetCache = new WidgetCache(meterRegistry, 100, Duration.ofMinutes(1));
+
+  @Test
+  public void when_get_withDifferentCase_expect_hit() throws Exception {
+    Widget widget = Widget.builder().name("Widgette Nielson").build();
+    widgetCache.putIfAbsent(widget, widgetCache.generation());
+
+    assertThat(widgetCache.get("widgette nielson")).contains(widget);
+    assertThat(meterRegistry.get("cache.gets").tag("result", "hit").functionCounter().count()).isEqualTo(1);
+  }
+
+  @Test
+  public void when_putIfAbsent_afterWrite_expect_writeKept() throws Exception {
+    Widget updated = Widget.builder().name("Widgette Nielson").price(new BigDecimal("20.00")).build();
+    Widget stale = Widget.builder().name("Widgette Nielson").price(new BigDecimal("10.00")).build();
+
+    long generation = widgetCache.generation();
+    widgetCache.onWidgetChanged(new WidgetChangedEvent(WidgetChangedEvent.Type.UPDATED, updated));
+    widgetCache.putIfAbsent(stale, generation);
+
+    assertThat(widgetCache.get("Widgette Nielson")).contains(updated);
+  }
+
+  @Test
+  public void when_widgetUpdated_outOfOrder_expect_newerVersionKept() throws Exception {
+    Widget older = Widget.builder().name("Widgette Nielson").price(new BigDecimal("10.00")).version(1L).build();
+    Widget newer = Widget.builder().name("Widgette Nielson").price(new BigDecimal("20.00")).version(2L).build();
+
+    widgetCache.onWidgetChanged(new WidgetChangedEvent(WidgetChangedEvent.Type.UPDATED, newer));
+    widgetCache.onWidgetChanged(new WidgetChangedEvent(WidgetChangedEvent.Type.UPDATED, older));
+
+    assertThat(widgetCache.get("Widgette Nielson")).contains(newer);
+  }
+
+  @Test
+  public void when_widgetDeleted_expect_evicted() throws Exception {
+    Widget widget = Widget.builder().name("Widgette Nielson").build();
+    widgetCache.put(widget);
+
+    widgetCache.onWidgetChanged(new WidgetChangedEvent(WidgetChangedEvent.Type.DELETED, widget));
+
+    assertThat(widgetCache.get("Widgette Nielson")).isEmpty();
+  }
+
+  @Test
+  public void when_putIfAbsent_afterDelete_expect_notResurrected() throws Exception {
+    Widget widget = Widget.builder().name("Widgette Nielson").build();
+    // The read loaded the row, then the delete committed and evicted before the read filled the cache
+    long generation = widgetCache.generation();
+    widgetCache.onWidgetChanged(new WidgetChangedEvent(WidgetChangedEvent.Type.DELETED, widget));
+    widgetCache.putIfAbsent(widget, generation);
+
+    assertThat(widgetCache.get("Widgette Nielson")).isEmpty();
+  }
+
+  @Test
+  public void when_cachedWidgetModified_expect_entryUnchanged() throws Exception {
+    Widget widget = Widget.builder().name("Widgette Nielson").price(new BigDecimal("10.00")).build();
+    widgetCache.put(widget);
+
+    widgetCache.get("Widgette Nielson").orElseThrow().setPrice(new BigDecimal("99.00"));
+
+    assertThat(widgetCache.get("Widgette Nielson").orElseThrow().getPrice()).isEqualTo(new BigDecimal("10.00"));
+  }
+}
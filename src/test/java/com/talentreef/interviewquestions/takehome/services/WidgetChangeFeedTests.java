@@ -0,0 +1,122 @@
+package com.talentreef.interviewquestions.takehome.services;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.talentreef.interviewquestions.takehome.events.WidgetChangedEvent;
+import com.talentreef.interviewquestions.takehome.models.Widget;
+import com.talentreef.interviewquestions.takehome.models.WidgetChange;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.Test;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+public class WidgetChangeFeedTests {
+
+  @Test
+  public void when_changesPublished_expect_increasingSequencesReplayed() throws Exception {
+    WidgetChangeFeed feed = feed(8, 4);
+    long start = feed.lastSequence();
+
+    feed.onWidgetChanged(event(WidgetChangedEvent.Type.CREATED, "Widget A"));
+    feed.onWidgetChanged(event(WidgetChangedEvent.Type.UPDATED, "Widget A"));
+    feed.onWidgetChanged(event(WidgetChangedEvent.Type.DELETED, "Widget A"));
+    List<WidgetChange> missed = feed.replay(start + 1);
+
+    assertThat(missed).extracting(WidgetChange::getSequence).containsExactly(start + 2, start + 3);
+    assertThat(missed).extracting(WidgetChange::getType)
+        .containsExactly(WidgetChangedEvent.Type.UPDATED, WidgetChangedEvent.Type.DELETED);
+    assertThat(feed.replay(start + 3)).isEmpty();
+  }
+
+  @Test
+  public void when_lastEventIdOutsideBuffer_expect_reset() throws Exception {
+    WidgetChangeFeed feed = feed(2, 4);
+    long start = feed.lastSequence();
+
+    for (int i = 0; i < 5; i++) {
+      feed.onWidgetChanged(event(WidgetChangedEvent.Type.CREATED, "Widget " + i));
+    }
+
+    assertThat(feed.replay(start + 2)).isNull();
+    assertThat(feed.replay(start + 3)).extracting(WidgetChange::getSequence).containsExactly(start + 4, start + 5);
+    assertThat(feed.replay(start + 99)).isNull();
+  }
+
+  @Test
+  public void when_subscriberFallsBehind_expect_disconnected() throws Exception {
+    // The sender never runs, so nothing is ever drained from the subscriber queue
+    WidgetChangeFeed feed = new WidgetChangeFeed(new SimpleMeterRegistry(), 8, 2, Duration.ofMinutes(1),
+        Duration.ofSeconds(5), task -> { });
+    feed.subscribe(null);
+    assertThat(feed.subscriberCount()).isEqualTo(1);
+
+    for (int i = 0; i < 3; i++) {
+      feed.onWidgetChanged(event(WidgetChangedEvent.Type.CREATED, "Widget " + i));
+    }
+
+    assertThat(feed.subscriberCount()).isZero();
+  }
+
+  @Test
+  public void when_sendBlocked_expect_subscriberDisconnectedAndOthersServed() throws Exception {
+    SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    ThreadPoolExecutor senders = WidgetChangeFeed.senderPool(1, Executors.defaultThreadFactory());
+    WidgetChangeFeed feed = new WidgetChangeFeed(meterRegistry, 8, 4, Duration.ofMinutes(1), Duration.ofMillis(50),
+        senders);
+    CountDownLatch sending = new CountDownLatch(1);
+    CountDownLatch release = new CountDownLatch(1);
+    CountDownLatch received = new CountDownLatch(1);
+    try {
+      feed.subscribe(null, new SseEmitter() {
+        @Override
+        public void send(SseEventBuilder event) throws IOException {
+          sending.countDown();
+          try {
+            release.await();
+          } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+          }
+        }
+      });
+      feed.onWidgetChanged(event(WidgetChangedEvent.Type.CREATED, "Widget A"));
+      assertThat(sending.await(5, TimeUnit.SECONDS)).isTrue();
+
+      // The only sender is stuck in the blocked write, so the second subscriber is not served
+      feed.subscribe(null, new SseEmitter() {
+        @Override
+        public void send(SseEventBuilder event) {
+          received.countDown();
+        }
+      });
+      feed.onWidgetChanged(event(WidgetChangedEvent.Type.UPDATED, "Widget A"));
+      assertThat(received.await(100, TimeUnit.MILLISECONDS)).isFalse();
+
+      feed.disconnectStalledSubscribers();
+
+      assertThat(received.await(5, TimeUnit.SECONDS)).isTrue();
+      assertThat(feed.subscriberCount()).isEqualTo(1);
+      assertThat(meterRegistry.get("widgets.changes.slow.disconnects").counter().count()).isEqualTo(1);
+    } finally {
+      release.countDown();
+      senders.shutdownNow();
+    }
+  }
+
+  private static WidgetChangeFeed feed(int replaySize, int queueCapacity) {
+    return new WidgetChangeFeed(new SimpleMeterRegistry(), replaySize, queueCapacity, Duration.ofMinutes(1),
+        Duration.ofSeconds(5), Runnable::run);
+  }
+
+  private static WidgetChangedEvent event(WidgetChangedEvent.Type type, String name) {
+    return new WidgetChangedEvent(type,
+        Widget.builder().name(name).description("change feed widget").price(new BigDecimal("9.99")).build());
+  }
+}
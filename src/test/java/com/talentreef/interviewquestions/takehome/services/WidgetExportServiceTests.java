@@ -0,0 +1,60 @@
+package com.talentreef.interviewquestions.takehome.services;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.talentreef.interviewquestions.takehome.models.Widget;
+import com.talentreef.interviewquestions.takehome.respositories.WidgetRepository;
+import jakarta.persistence.EntityManager;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import org.mockito.junit.MockitoJUnitRunner;
+
+import java.io.ByteArrayOutputStream;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+@RunWith(MockitoJUnitRunner.class)
+public class WidgetExportServiceTests {
+
+  final private ObjectMapper objectMapper = new ObjectMapper();
+
+  @Mock
+  private WidgetRepository widgetRepository;
+
+  @Mock
+  private EntityManager entityManager;
+
+  @Test
+  public void when_exportWidgets_expect_oneJsonDocumentPerLine() throws Exception {
+    Widget first = Widget.builder().name("Widgette Nielson").description("first description").price(new BigDecimal("10.00")).build();
+    Widget second = Widget.builder().name("Widget von Hammersmark").description("second description").price(new BigDecimal("20.00")).build();
+    when(widgetRepository.streamAllByOrderByNameAsc()).thenReturn(Stream.of(first, second));
+    ByteArrayOutputStream output = new ByteArrayOutputStream();
+
+    long exported = new WidgetExportService(widgetRepository, entityManager, objectMapper).exportWidgets(output);
+
+    String[] lines = output.toString(StandardCharsets.UTF_8).split("\n");
+    assertThat(exported).isEqualTo(2);
+    assertThat(lines).hasSize(2);
+    assertThat(objectMapper.readValue(lines[0], Widget.class)).isEqualTo(first);
+    assertThat(objectMapper.readValue(lines[1], Widget.class)).isEqualTo(second);
+  }
+
+  @Test
+  public void when_exportWidgets_expect_persistenceContextCleared() throws Exception {
+    int rows = WidgetExportService.CLEAR_INTERVAL * 2 + 1;
+    when(widgetRepository.streamAllByOrderByNameAsc()).thenReturn(IntStream.range(0, rows)
+        .mapToObj(i -> Widget.builder().name("widget " + i).description("description").price(BigDecimal.ONE).build()));
+
+    new WidgetExportService(widgetRepository, entityManager, objectMapper).exportWidgets(new ByteArrayOutputStream());
+
+    verify(entityManager, times(2)).clear();
+  }
+}
@@ -0,0 +1,200 @@
+package com.talentreef.interviewquestions.takehome.services;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.talentreef.interviewquestions.exceptions.InvalidRequestException;
+import com.talentreef.interviewquestions.takehome.models.WidgetImportError;
+import com.talentreef.interviewquestions.takehome.models.WidgetImportReport;
+import com.talentreef.interviewquestions.takehome.models.WidgetOperation;
+import com.talentreef.interviewquestions.takehome.models.WidgetOperationResult;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.validation.Validation;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import org.mockito.junit.MockitoJUnitRunner;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+@RunWith(MockitoJUnitRunner.class)
+public class WidgetImportServiceTests {
+
+  @Mock
+  private WidgetBatchService widgetBatchService;
+
+  private final ExecutorService writer = Executors.newSingleThreadExecutor();
+
+  private WidgetImportService widgetImportService;
+
+  @Before
+  public void setUp() {
+    widgetImportService = new WidgetImportService(widgetBatchService,
+        Validation.buildDefaultValidatorFactory().getValidator(), new ObjectMapper(), new SimpleMeterRegistry(),
+        2, 1, 10, 1, writer);
+  }
+
+  @After
+  public void tearDown() {
+    writer.shutdownNow();
+  }
+
+  @Test
+  public void when_importCsv_expect_validRowsWrittenInBatchesAndErrorsReportedByLine() throws Exception {
+    when(widgetBatchService.applyBatch(any())).thenAnswer(invocation -> results(invocation.getArgument(0)));
+
+    WidgetImportReport report = widgetImportService.importWidgets(upload(
+        "price,name,description\n"
+            + "10.00,Widgette Nielson,plain description\n"
+            + "20.50,\"Comma, widget\",\"says \"\"hello\"\", twice\"\n"
+            + "\n"
+            + "abc,Priceless widget,no price at all\n"
+            + "30.00,Existing widget,already in the catalog\n"
+            + "40.00,Short,tiny\n"
+            + "50.00,Last widget,the final description\n"), WidgetImportService.Format.CSV);
+
+    assertThat(report.getRows()).isEqualTo(6);
+    assertThat(report.getImported()).isEqualTo(3);
+    assertThat(report.getFailed()).isEqualTo(3);
+    assertThat(report.getErrors()).extracting(WidgetImportError::getLine).containsExactlyInAnyOrder(5L, 6L, 7L);
+    assertThat(report.getErrors()).extracting(WidgetImportError::getError).contains(
+        "price=abc is not a number",
+        "Widget with name=Existing widget already exists",
+        "description size must be between 5 and 1000");
+    verify(widgetBatchService, times(2)).applyBatch(any());
+  }
+
+  @Test
+  public void when_importNdjson_expect_malformedLinesReported() throws Exception {
+    when(widgetBatchService.applyBatch(any())).thenAnswer(invocation -> results(invocation.getArgument(0)));
+
+    WidgetImportReport report = widgetImportService.importWidgets(upload(
+        "{\"name\":\"Widgette Nielson\",\"description\":\"plain description\",\"price\":10.00,\"version\":4}\n"
+            + "{\"name\":\"Broken widget\",\n"), WidgetImportService.Format.NDJSON);
+
+    assertThat(report.getImported()).isEqualTo(1);
+    assertThat(report.getErrors()).extracting(WidgetImportError::getLine).containsExactly(2L);
+  }
+
+  @Test
+  public void when_batchFails_expect_rowsRetriedOneByOne() throws Exception {
+    when(widgetBatchService.applyBatch(any())).thenAnswer(invocation -> {
+      List<WidgetOperation> operations = invocation.getArgument(0);
+      if (operations.size() > 1) {
+        throw new IllegalStateException("constraint violation");
+      }
+      return results(operations);
+    });
+
+    WidgetImportReport report = widgetImportService.importWidgets(upload(
+        "name,description,price\nFirst widget,first description,10.00\nSecond widget,second description,20.00\n"),
+        WidgetImportService.Format.CSV);
+
+    assertThat(report.getImported()).isEqualTo(2);
+    verify(widgetBatchService, times(3)).applyBatch(any());
+  }
+
+  @Test
+  public void when_writerStopsEarly_expect_unwrittenRowsFailed() throws Exception {
+    // The writer thread is interrupted before it takes a batch, so it stops without writing anything
+    WidgetImportService stoppedWriter = new WidgetImportService(widgetBatchService,
+        Validation.buildDefaultValidatorFactory().getValidator(), new ObjectMapper(), new SimpleMeterRegistry(),
+        1, 1, 10, 1, task -> {
+          Thread thread = new Thread(task);
+          thread.start();
+          thread.interrupt();
+        });
+
+    WidgetImportReport report = stoppedWriter.importWidgets(upload(
+        "name,description,price\nFirst widget,first description,10.00\nSecond widget,second description,20.00\n"
+            + "Third widget,third description,30.00\n"), WidgetImportService.Format.CSV);
+
+    assertThat(report.getRows()).isEqualTo(3);
+    assertThat(report.getImported()).isZero();
+    assertThat(report.getFailed()).isEqualTo(3);
+    assertThat(report.getErrors()).extracting(WidgetImportError::getLine).containsExactlyInAnyOrder(2L, 3L, 4L);
+  }
+
+  @Test
+  public void when_importWithId_expect_finalReportKeptUnderId() throws Exception {
+    when(widgetBatchService.applyBatch(any())).thenAnswer(invocation -> results(invocation.getArgument(0)));
+
+    WidgetImportReport report = widgetImportService.importWidgets(upload(
+        "name,description,price\nFirst widget,first description,10.00\nExisting widget,already there,20.00\n"),
+        WidgetImportService.Format.CSV, "nightly-1");
+
+    assertThat(report.getId()).isEqualTo("nightly-1");
+    assertThat(report.isFinished()).isTrue();
+    assertThat(widgetImportService.getImport("nightly-1")).contains(report);
+    assertThatThrownBy(() -> widgetImportService.importWidgets(upload("name,description,price\n"),
+        WidgetImportService.Format.CSV, "nightly-1"))
+        .isInstanceOf(InvalidRequestException.class);
+  }
+
+  @Test
+  public void when_importRunning_expect_progressUnderId() throws Exception {
+    List<WidgetImportReport> progress = new ArrayList<>();
+    when(widgetBatchService.applyBatch(any())).thenAnswer(invocation -> {
+      widgetImportService.getImport("running-1").ifPresent(progress::add);
+      return results(invocation.getArgument(0));
+    });
+
+    widgetImportService.importWidgets(upload(
+        "name,description,price\nFirst widget,first description,10.00\nExisting widget,already there,20.00\n"
+            + "Third widget,third description,30.00\n"), WidgetImportService.Format.CSV, "running-1");
+
+    assertThat(progress).isNotEmpty().allMatch(report -> !report.isFinished() && report.getRows() >= 2);
+  }
+
+  @Test
+  public void when_importWithoutId_expect_generatedId() throws Exception {
+    WidgetImportReport report = widgetImportService.importWidgets(upload("name,description,price\n"),
+        WidgetImportService.Format.CSV);
+
+    assertThat(report.getId()).isNotBlank();
+    assertThat(widgetImportService.getImport(report.getId())).contains(report);
+  }
+
+  @Test
+  public void when_csvHeaderMissingColumn_expect_invalidRequest() throws Exception {
+    assertThatThrownBy(() -> widgetImportService.importWidgets(upload("name,price\nWidget,10.00\n"),
+        WidgetImportService.Format.CSV))
+        .isInstanceOf(InvalidRequestException.class);
+  }
+
+  @Test
+  public void when_parseCsvLine_expect_quotedFieldsUnescaped() throws Exception {
+    assertThat(WidgetImportService.parseCsvLine("a,\"b, \"\"c\"\"\",")).containsExactly("a", "b, \"c\"", "");
+    assertThatThrownBy(() -> WidgetImportService.parseCsvLine("a,\"b"))
+        .isInstanceOf(IllegalArgumentException.class);
+  }
+
+  private static InputStream upload(String content) {
+    return new ByteArrayInputStream(content.getBytes(StandardCharsets.UTF_8));
+  }
+
+  private static List<WidgetOperationResult> results(List<WidgetOperation> operations) {
+    List<WidgetOperationResult> results = new ArrayList<>();
+    for (int index = 0; index < operations.size(); index++) {
+      String name = operations.get(index).getTargetName();
+      WidgetOperationResult.WidgetOperationResultBuilder result = WidgetOperationResult.builder().index(index).name(name);
+      results.add(name.startsWith("Existing")
+          ? result.status(400).error(String.format("Widget with name=%s already exists", name)).build()
+          : result.status(200).widget(operations.get(index).getWidget()).build());
+    }
+    return results;
+  }
+}
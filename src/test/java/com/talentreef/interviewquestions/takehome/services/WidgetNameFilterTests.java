@@ -0,0 +1,54 @@
+package com.talentreef.interviewquestions.takehome.services;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.talentreef.interviewquestions.takehome.models.Widget;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.Test;
+
+public class WidgetNameFilterTests {
+
+  final private WidgetNameFilter widgetNameFilter = new WidgetNameFilter(new SimpleMeterRegistry(), 1000, 0.01);
+
+  @Test
+  public void when_widgetAdded_expect_mightContain() throws Exception {
+    widgetNameFilter.add(widget("Widgette Nielson"));
+
+    assertThat(widgetNameFilter.mightContain("widgette nielson")).isTrue();
+    assertThat(widgetNameFilter.mightContain("widget von hammersmark")).isFalse();
+  }
+
+  @Test
+  public void when_widgetRemoved_expect_definiteNegative() throws Exception {
+    widgetNameFilter.add(widget("Widgette Nielson"));
+    widgetNameFilter.update(widget("Widgette Nielson"));
+
+    widgetNameFilter.remove("widgette nielson");
+
+    assertThat(widgetNameFilter.mightContain("widgette nielson")).isFalse();
+  }
+
+  @Test
+  public void when_filledToCapacity_expect_lowFalsePositiveRate() throws Exception {
+    for (int i = 0; i < 1000; i++) {
+      widgetNameFilter.add(widget("stored widget " + i));
+    }
+
+    int falsePositives = 0;
+    for (int i = 0; i < 10_000; i++) {
+      if (widgetNameFilter.mightContain("missing widget " + i)) {
+        falsePositives++;
+      }
+    }
+
+    for (int i = 0; i < 1000; i++) {
+      assertThat(widgetNameFilter.mightContain("stored widget " + i)).isTrue();
+    }
+    assertThat(falsePositives).isLessThan(300);
+    assertThat(widgetNameFilter.expectedFalsePositiveProbability()).isLessThan(0.03);
+  }
+
+  private static Widget widget(String name) {
+    return Widget.builder().name(name).build();
+  }
+}
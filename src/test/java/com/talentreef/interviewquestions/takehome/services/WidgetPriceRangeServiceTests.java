@@ -0,0 +1,129 @@
+package com.talentreef.interviewquestions.takehome.services;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+import com.talentreef.interviewquestions.exceptions.InvalidRequestException;
+import com.talentreef.interviewquestions.takehome.models.Widget;
+import com.talentreef.interviewquestions.takehome.models.WidgetPage;
+import com.talentreef.interviewquestions.takehome.models.WidgetSort;
+import com.talentreef.interviewquestions.takehome.respositories.WidgetRepository;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import org.mockito.junit.MockitoJUnitRunner;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+@RunWith(MockitoJUnitRunner.class)
+public class WidgetPriceRangeServiceTests {
+
+  @Mock
+  private WidgetRepository widgetRepository;
+
+  @Mock
+  private WidgetIndexMaintainer widgetIndexMaintainer;
+
+  final private WidgetPriceIndex widgetPriceIndex = new WidgetPriceIndex();
+
+  private WidgetPriceRangeService widgetPriceRangeService;
+
+  @Before
+  public void init() {
+    widgetPriceRangeService = new WidgetPriceRangeService(widgetRepository, widgetPriceIndex, widgetIndexMaintainer);
+  }
+
+  @Test
+  public void when_indexLoaded_expect_bandInPriceOrderWithoutRepository() throws Exception {
+    when(widgetIndexMaintainer.isLoaded()).thenReturn(true);
+    Widget cheap = widget("Cheap widget", "5.00");
+    Widget middle = widget("Middle widget", "15.50");
+    Widget otherMiddle = widget("Another middle widget", "15.50");
+    Widget expensive = widget("Expensive widget", "300.00");
+    List.of(cheap, middle, otherMiddle, expensive).forEach(widgetPriceIndex::add);
+
+    WidgetPage firstPage = widgetPriceRangeService.getWidgetsByPrice(new BigDecimal("10"), new BigDecimal("300.00"), 2, null);
+    WidgetPage secondPage = widgetPriceRangeService.getWidgetsByPrice(new BigDecimal("10"), new BigDecimal("300.00"), 2,
+        firstPage.getNextCursor());
+
+    assertThat(firstPage.getItems()).containsExactly(otherMiddle, middle);
+    assertThat(secondPage.getItems()).containsExactly(expensive);
+    assertThat(secondPage.getNextCursor()).isNull();
+    verifyNoInteractions(widgetRepository);
+  }
+
+  @Test
+  public void when_widgetRepriced_expect_movedWithinIndex() throws Exception {
+    when(widgetIndexMaintainer.isLoaded()).thenReturn(true);
+    widgetPriceIndex.add(widget("Moving widget", "5.00"));
+    Widget repriced = widget("MOVING WIDGET", "50.00");
+    widgetPriceIndex.add(repriced);
+
+    WidgetPage page = widgetPriceRangeService.getWidgetsByPrice(null, null, 10, null);
+
+    assertThat(page.getItems()).containsExactly(repriced);
+    assertThat(widgetPriceIndex.size()).isEqualTo(1);
+  }
+
+  @Test
+  public void when_indexLoading_expect_repositoryRange() throws Exception {
+    Widget widget = widget("Middle widget", "15.50");
+    when(widgetRepository.findByPriceBetweenOrderByPriceAscNameAsc(eq(new BigDecimal("10")), eq(new BigDecimal("20")), any()))
+        .thenReturn(List.of(widget));
+
+    WidgetPage page = widgetPriceRangeService.getWidgetsByPrice(new BigDecimal("10"), new BigDecimal("20"), 5, null);
+
+    assertThat(page.getItems()).containsExactly(widget);
+  }
+
+  @Test
+  public void when_minAboveMax_expect_invalidRequest() throws Exception {
+    assertThatThrownBy(() -> widgetPriceRangeService.getWidgetsByPrice(new BigDecimal("20"), new BigDecimal("10"), 5, null))
+        .isInstanceOf(InvalidRequestException.class);
+  }
+
+  @Test
+  public void when_boundsBetweenCents_expect_sameBandAsDatabase() throws Exception {
+    when(widgetIndexMaintainer.isLoaded()).thenReturn(true);
+    Widget low = widget("Low widget", "10.00");
+    Widget high = widget("High widget", "10.01");
+    List.of(low, high).forEach(widgetPriceIndex::add);
+
+    WidgetPage below = widgetPriceRangeService.getWidgetsByPrice(null, new BigDecimal("10.005"), 10, null);
+    WidgetPage above = widgetPriceRangeService.getWidgetsByPrice(new BigDecimal("10.005"), null, 10, null);
+
+    assertThat(below.getItems()).containsExactly(low);
+    assertThat(above.getItems()).containsExactly(high);
+  }
+
+  @Test
+  public void when_boundOutOfRange_expect_invalidRequest() throws Exception {
+    assertThatThrownBy(() -> widgetPriceRangeService.getWidgetsByPrice(null, new BigDecimal("1e30"), 5, null))
+        .isInstanceOf(InvalidRequestException.class);
+    verifyNoInteractions(widgetRepository);
+  }
+
+  @Test
+  public void when_cursorPastMaxPrice_expect_emptyPage() throws Exception {
+    when(widgetIndexMaintainer.isLoaded()).thenReturn(true);
+    Widget cheap = widget("Cheap widget", "5.00");
+    Widget expensive = widget("Expensive widget", "300.00");
+    List.of(cheap, expensive).forEach(widgetPriceIndex::add);
+    String after = WidgetCursor.after(WidgetSort.PRICE, expensive).encode();
+
+    WidgetPage page = widgetPriceRangeService.getWidgetsByPrice(null, new BigDecimal("20.00"), 5, after);
+
+    assertThat(page.getItems()).isEmpty();
+    assertThat(page.getNextCursor()).isNull();
+  }
+
+  private static Widget widget(String name, String price) {
+    return Widget.builder().name(name).description("price range widget").price(new BigDecimal(price)).build();
+  }
+}
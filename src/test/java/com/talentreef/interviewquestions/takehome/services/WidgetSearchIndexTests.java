@@ -0,0 +1,114 @@
+package com.talentreef.interviewquestions.takehome.services;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.talentreef.interviewquestions.takehome.models.Widget;
+import org.junit.Test;
+
+import java.math.BigDecimal;
+
+public class WidgetSearchIndexTests {
+
+  final private WidgetSearchIndex widgetSearchIndex = new WidgetSearchIndex();
+
+  @Test
+  public void when_search_byPrefix_expect_nameMatchesRankedFirst() throws Exception {
+    Widget phone = widget("SmartPhone", "Cellular telephone with an operating system");
+    Widget headset = widget("Headset", "Lets you listen to a smartphone or a computer");
+    Widget lamp = widget("Desk lamp", "Warm light for the office");
+    widgetSearchIndex.add(headset);
+    widgetSearchIndex.add(phone);
+    widgetSearchIndex.add(lamp);
+
+    assertThat(widgetSearchIndex.search("smart", 10)).containsExactly(phone, headset);
+  }
+
+  @Test
+  public void when_search_termInEveryWidget_expect_nameMatchesFillThePage() throws Exception {
+    for (int i = 0; i < 50; i++) {
+      widgetSearchIndex.add(widget("Item " + i, "A widget for everything"));
+    }
+    Widget first = widget("Blue widget", "Painted");
+    Widget second = widget("Red widget", "Painted");
+    widgetSearchIndex.add(first);
+    widgetSearchIndex.add(second);
+
+    assertThat(widgetSearchIndex.search("widget", 2)).containsExactly(first, second);
+  }
+
+  @Test
+  public void when_search_lowerDriverTierWithStrongOtherTerm_expect_stillRanked() throws Exception {
+    for (int i = 0; i < 5; i++) {
+      widgetSearchIndex.add(widget("Blue item " + i, "Painted"));
+    }
+    Widget lampInName = widget("Lamp", "Painted");
+    Widget blueLamp = widget("Lamp blue", "Painted");
+    Widget lampInDescription = widget("Blue shade", "Fits a lamp");
+    widgetSearchIndex.add(lampInName);
+    widgetSearchIndex.add(blueLamp);
+    widgetSearchIndex.add(lampInDescription);
+
+    assertThat(widgetSearchIndex.search("lamp blue", 2)).containsExactly(blueLamp, lampInDescription);
+  }
+
+  @Test
+  public void when_search_multipleTerms_expect_allTermsRequired() throws Exception {
+    Widget phone = widget("SmartPhone", "Cellular telephone with an operating system");
+    Widget headset = widget("Headset", "Lets you listen to a smartphone or a computer");
+    widgetSearchIndex.add(phone);
+    widgetSearchIndex.add(headset);
+
+    assertThat(widgetSearchIndex.search("smartphone comp", 10)).containsExactly(headset);
+  }
+
+  @Test
+  public void when_search_exactTerm_expect_rankedAbovePrefix() throws Exception {
+    Widget lamp = widget("Lamp shade", "Fabric cover");
+    Widget lamplighter = widget("Lamplighter", "Fabric cover");
+    widgetSearchIndex.add(lamplighter);
+    widgetSearchIndex.add(lamp);
+
+    assertThat(widgetSearchIndex.search("lamp", 1)).containsExactly(lamp);
+  }
+
+  @Test
+  public void when_widgetUpdatedAndRemoved_expect_indexFollows() throws Exception {
+    widgetSearchIndex.add(widget("Headset", "Wireless audio"));
+    widgetSearchIndex.add(widget("HEADSET", "Wired audio"));
+
+    assertThat(widgetSearchIndex.search("wireless", 10)).isEmpty();
+    assertThat(widgetSearchIndex.search("wired", 10)).hasSize(1);
+
+    widgetSearchIndex.remove("headset");
+
+    assertThat(widgetSearchIndex.search("audio", 10)).isEmpty();
+    assertThat(widgetSearchIndex.size()).isZero();
+  }
+
+  @Test
+  public void when_search_onlyShortTerms_expect_empty() throws Exception {
+    Widget tv = widget("TV stand", "Holds a tv");
+    widgetSearchIndex.add(tv);
+
+    assertThat(widgetSearchIndex.search("tv", 10)).isEmpty();
+    assertThat(widgetSearchIndex.search("stand tv", 10)).containsExactly(tv);
+  }
+
+  @Test
+  public void when_search_commonPrefixWithRareTerm_expect_rareTermDrives() throws Exception {
+    Widget speaker = widget("Widget speaker", "Portable audio");
+    widgetSearchIndex.add(speaker);
+    for (int i = 0; i < 20; i++) {
+      widgetSearchIndex.add(widget("Widget " + i, "Ordinary widget"));
+    }
+
+    assertThat(widgetSearchIndex.prefixPostings("wid")).isEqualTo(21);
+    assertThat(widgetSearchIndex.prefixPostings("speaker")).isEqualTo(1);
+    assertThat(widgetSearchIndex.search("wid speaker", 10)).containsExactly(speaker);
+    assertThat(widgetSearchIndex.search("wid missing", 10)).isEmpty();
+  }
+
+  private static Widget widget(String name, String description) {
+    return Widget.builder().name(name).description(description).price(BigDecimal.TEN).build();
+  }
+}
@@ -3,19 +3,36 @@ package com.talentreef.interviewquestions.takehome.services;
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 import com.talentreef.interviewquestions.exceptions.ElementAlreadyExistsException;
 import com.talentreef.interviewquestions.exceptions.ElementNotFoundException;
+import com.talentreef.interviewquestions.exceptions.ElementVersionConflictException;
+import com.talentreef.interviewquestions.exceptions.InvalidRequestException;
+import com.talentreef.interviewquestions.takehome.events.WidgetChangedEvent;
 import com.talentreef.interviewquestions.takehome.models.Widget;
+import com.talentreef.interviewquestions.takehome.models.WidgetPage;
+import com.talentreef.interviewquestions.takehome.models.WidgetPatch;
+import com.talentreef.interviewquestions.takehome.models.WidgetSort;
+import com.talentreef.interviewquestions.takehome.models.WidgetWriteResult;
 import com.talentreef.interviewquestions.takehome.respositories.WidgetRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.Test;
 import org.junit.runner.RunWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.test.context.junit4.SpringRunner;
 
 import java.math.BigDecimal;
+import java.time.Duration;
 import java.util.List;
 import java.util.Optional;
 
@@ -25,6 +42,24 @@ public class WidgetServiceTests {
   @Mock
   private WidgetRepository widgetRepository;
 
+  @Spy
+  private WidgetCache widgetCache = new WidgetCache(new SimpleMeterRegistry(), 100, Duration.ofMinutes(1));
+
+  @Mock
+  private ApplicationEventPublisher eventPublisher;
+
+  @Spy
+  private WidgetNameFilter widgetNameFilter = new WidgetNameFilter(new SimpleMeterRegistry(), 1000, 0.01);
+
+  @Mock
+  private WidgetIndexMaintainer widgetIndexMaintainer;
+
+  @Mock
+  private WidgetWriteBehind widgetWriteBehind;
+
+  @Spy
+  private WidgetRevisionIndex widgetRevisionIndex = new WidgetRevisionIndex();
+
   @InjectMocks
   private WidgetService widgetService;
 
@@ -39,40 +74,143 @@ public class WidgetServiceTests {
     assertThat(result).isEqualTo(response);
   }
 
+  @Test
+  public void when_getWidgetsPage_withMoreRows_expect_nextCursor() throws Exception {
+    Widget first = Widget.builder().name("Alpha widget").price(new BigDecimal("10.00")).build();
+    Widget second = Widget.builder().name("Beta widget").price(new BigDecimal("20.00")).build();
+    when(widgetRepository.findAllByOrderByNameAsc(any())).thenReturn(List.of(first, second));
+    when(widgetRepository.findByNameGreaterThanOrderByNameAsc(eq("Alpha widget"), any())).thenReturn(List.of(second));
+
+    WidgetPage firstPage = widgetService.getWidgetsPage(1, null, WidgetSort.NAME);
+    WidgetPage secondPage = widgetService.getWidgetsPage(1, firstPage.getNextCursor(), WidgetSort.NAME);
+
+    assertThat(firstPage.getItems()).containsExactly(first);
+    assertThat(firstPage.getNextCursor()).isNotNull();
+    assertThat(secondPage.getItems()).containsExactly(second);
+    assertThat(secondPage.getNextCursor()).isNull();
+  }
+
+  @Test
+  public void when_getWidgetsPage_byPrice_expect_priceKeyset() throws Exception {
+    Widget first = Widget.builder().name("Alpha widget").price(new BigDecimal("10.00")).build();
+    Widget second = Widget.builder().name("Beta widget").price(new BigDecimal("20.00")).build();
+    when(widgetRepository.findAllByOrderByPriceAscNameAsc(any())).thenReturn(List.of(first, second));
+    when(widgetRepository.findPriceKeysetPage(eq(new BigDecimal("10.00")), eq("Alpha widget"), any())).thenReturn(List.of(second));
+
+    WidgetPage firstPage = widgetService.getWidgetsPage(1, null, WidgetSort.PRICE);
+    WidgetPage secondPage = widgetService.getWidgetsPage(1, firstPage.getNextCursor(), WidgetSort.PRICE);
+
+    assertThat(secondPage.getItems()).containsExactly(second);
+  }
+
+  @Test
+  public void when_getWidgetsPage_invalidLimit_expect_invalidRequest() throws Exception {
+    assertThatThrownBy(() -> widgetService.getWidgetsPage(0, null, WidgetSort.NAME))
+            .isInstanceOf(InvalidRequestException.class);
+  }
+
+  @Test
+  public void when_getWidgetsPage_cursorForOtherSort_expect_invalidRequest() throws Exception {
+    Widget first = Widget.builder().name("Alpha widget").price(new BigDecimal("10.00")).build();
+    Widget second = Widget.builder().name("Beta widget").price(new BigDecimal("20.00")).build();
+    when(widgetRepository.findAllByOrderByNameAsc(any())).thenReturn(List.of(first, second));
+
+    WidgetPage firstPage = widgetService.getWidgetsPage(1, null, WidgetSort.NAME);
+
+    assertThatThrownBy(() -> widgetService.getWidgetsPage(1, firstPage.getNextCursor(), WidgetSort.PRICE))
+            .isInstanceOf(InvalidRequestException.class);
+  }
+
   @Test
   public void when_getWidgetByName_expect_findResult() throws Exception {
     Widget widget = Widget.builder().name("Widgette Nielson").build();
-    when(widgetRepository.findByNameIgnoreCase(any())).thenReturn(Optional.of(widget));
+    when(widgetRepository.findByNormalizedName(any())).thenReturn(Optional.of(widget));
 
     Widget result = widgetService.getWidgetByName(widget.getName());
 
     assertThat(result).isEqualTo(widget);
   }
 
+  @Test
+  public void when_getWidgetByName_twice_expect_cachedResult() throws Exception {
+    Widget widget = Widget.builder().name("Widgette Nielson").build();
+    when(widgetRepository.findByNormalizedName(any())).thenReturn(Optional.of(widget));
+
+    widgetService.getWidgetByName("Widgette Nielson");
+    Widget result = widgetService.getWidgetByName("WIDGETTE NIELSON");
+
+    assertThat(result).isEqualTo(widget);
+    verify(widgetRepository, times(1)).findByNormalizedName(any());
+  }
+
   @Test
   public void when_getWidgetByName_expect_notFound() throws Exception {
     Widget widget = Widget.builder().name("Widgette Nielson").build();
-    when(widgetRepository.findByNameIgnoreCase(any())).thenReturn(Optional.empty());
+    when(widgetRepository.findByNormalizedName(any())).thenReturn(Optional.empty());
 
     assertThatThrownBy(() -> widgetService.getWidgetByName(widget.getName()))
             .isInstanceOf(ElementNotFoundException.class)
             .hasMessage("Widget with name=Widgette Nielson not found");
   }
 
+  @Test
+  public void when_getWidgetByName_filteredOut_expect_notFoundWithoutQuery() throws Exception {
+    when(widgetIndexMaintainer.isLoaded()).thenReturn(true);
+    widgetNameFilter.add(Widget.builder().name("Widgette Nielson").build());
+
+    assertThatThrownBy(() -> widgetService.getWidgetByName("Unknown widget"))
+            .isInstanceOf(ElementNotFoundException.class)
+            .hasMessage("Widget with name=Unknown widget not found");
+    verify(widgetRepository, never()).findByNormalizedName(any());
+  }
+
+  @Test
+  public void when_getWidgetByName_passesFilter_expect_findResult() throws Exception {
+    Widget widget = Widget.builder().name("Widgette Nielson").build();
+    when(widgetIndexMaintainer.isLoaded()).thenReturn(true);
+    widgetNameFilter.add(widget);
+    when(widgetRepository.findByNormalizedName(eq("widgette nielson"))).thenReturn(Optional.of(widget));
+
+    Widget result = widgetService.getWidgetByName("WIDGETTE NIELSON");
+
+    assertThat(result).isEqualTo(widget);
+  }
+
+  @Test
+  public void when_getWidgetRevision_indexedWidget_expect_revisionWithoutQuery() throws Exception {
+    Widget widget = Widget.builder().name("Widgette Nielson").description("desc").price(BigDecimal.TEN).version(4L).build();
+    when(widgetIndexMaintainer.isLoaded()).thenReturn(true);
+    widgetRevisionIndex.add(widget);
+    // An older state whose after-commit event arrives late does not replace the indexed revision
+    widgetRevisionIndex.update(widget.toBuilder().description("old").version(3L).build());
+
+    Optional<WidgetRevision> result = widgetService.getWidgetRevision("WIDGETTE NIELSON");
+
+    assertThat(result).contains(WidgetRevision.of(widget));
+    verify(widgetRepository, never()).findByNormalizedName(any());
+  }
+
+  @Test
+  public void when_getWidgetRevision_indexesLoading_expect_empty() throws Exception {
+    widgetRevisionIndex.add(Widget.builder().name("Widgette Nielson").version(4L).build());
+
+    assertThat(widgetService.getWidgetRevision("Widgette Nielson")).isEmpty();
+  }
+
   @Test
   public void when_createWidget_expect_widget() throws Exception {
     Widget widget = Widget.builder().name("Widgette Nielson").build();
-    when(widgetRepository.findByNameIgnoreCase(any())).thenReturn(Optional.empty());
-    when(widgetRepository.save(any())).thenReturn(widget);
+    when(widgetRepository.saveAndFlush(any())).thenReturn(widget);
     Widget result = widgetService.createWidget(widget);
 
     assertThat(result).isEqualTo(widget);
+    verify(widgetRepository, never()).findByNormalizedName(any());
   }
 
   @Test
   public void when_createWidget_expect_alreadyExists() throws Exception {
     Widget widget = Widget.builder().name("Widgette Nielson").build();
-    when(widgetRepository.findByNameIgnoreCase(any())).thenReturn(Optional.of(widget));
+    when(widgetRepository.saveAndFlush(any())).thenThrow(new DataIntegrityViolationException("uk_widgets_normalized_name"));
 
     assertThatThrownBy(() -> widgetService.createWidget(widget))
             .isInstanceOf(ElementAlreadyExistsException.class)
@@ -81,30 +219,86 @@ public class WidgetServiceTests {
 
   @Test
   public void when_updateWidget_expect_widget() throws Exception {
-    Widget previousWidget = Widget.builder().name("Widgette Nielson").build();
     Widget updatedWidget = Widget.builder().name("Widgette Nielson").price(new BigDecimal("20.0")).description("updated widget description").build();
-    when(widgetRepository.findByNameIgnoreCase(any())).thenReturn(Optional.of(previousWidget));
-    when(widgetRepository.save(any())).thenReturn(updatedWidget);
+    when(widgetRepository.updateInPlace(eq("widgette nielson"), eq("updated widget description"), eq(new BigDecimal("20.0")), isNull()))
+            .thenReturn(Optional.of(updatedWidget));
 
     Widget result = widgetService.updateWidget(updatedWidget);
 
     assertThat(result).isEqualTo(updatedWidget);
+    verify(widgetRepository, never()).findByNormalizedName(any());
+  }
+
+  @Test
+  public void when_updateWidget_staleVersion_expect_conflict() throws Exception {
+    Widget storedWidget = Widget.builder().name("Widgette Nielson").version(4L).build();
+    Widget updatedWidget = Widget.builder().name("Widgette Nielson").price(new BigDecimal("20.0")).description("updated widget description").version(3L).build();
+    when(widgetRepository.updateInPlace(any(), any(), any(), eq(3L))).thenReturn(Optional.empty());
+    when(widgetRepository.findByNormalizedName(any())).thenReturn(Optional.of(storedWidget));
+
+    assertThatThrownBy(() -> widgetService.updateWidget(updatedWidget))
+            .isInstanceOf(ElementVersionConflictException.class)
+            .hasMessage("Widget with name=Widgette Nielson has version=4, not version=3");
   }
 
   @Test
   public void when_updateWidget_expect_notFound() throws Exception {
     Widget updatedWidget = Widget.builder().name("Widgette Nielson").price(new BigDecimal("20.0")).description("updated widget description").build();
-    when(widgetRepository.findByNameIgnoreCase(any())).thenReturn(Optional.empty());
+    when(widgetRepository.updateInPlace(any(), any(), any(), any())).thenReturn(Optional.empty());
+    when(widgetRepository.findByNormalizedName(any())).thenReturn(Optional.empty());
 
     assertThatThrownBy(() ->widgetService.updateWidget(updatedWidget))
             .isInstanceOf(ElementNotFoundException.class)
             .hasMessage("Widget with name=Widgette Nielson not found");
   }
 
+  @Test
+  public void when_patchWidget_expect_onlyPresentFields() throws Exception {
+    Widget patchedWidget = Widget.builder().name("Widgette Nielson").price(new BigDecimal("30.00")).description("widget description").version(2L).build();
+    when(widgetRepository.updateInPlace(eq("widgette nielson"), isNull(), eq(new BigDecimal("30.00")), eq(1L)))
+            .thenReturn(Optional.of(patchedWidget));
+
+    Widget result = widgetService.patchWidget("Widgette Nielson",
+            WidgetPatch.builder().price(new BigDecimal("30.00")).version(1L).build());
+
+    assertThat(result).isEqualTo(patchedWidget);
+    verify(eventPublisher).publishEvent(any(WidgetChangedEvent.class));
+  }
+
+  @Test
+  public void when_upsertWidget_newName_expect_created() throws Exception {
+    Widget widget = Widget.builder().name("Widgette Nielson").price(new BigDecimal("20.0")).description("new widget description").build();
+    when(widgetRepository.upsert(any(), any())).thenReturn(Optional.of(widget.toBuilder().version(0L).build()));
+
+    WidgetWriteResult result = widgetService.upsertWidget("widgette nielson", widget);
+
+    assertThat(result.isCreated()).isTrue();
+  }
+
+  @Test
+  public void when_upsertWidget_existingName_expect_updated() throws Exception {
+    Widget widget = Widget.builder().name("Widgette Nielson").price(new BigDecimal("20.0")).description("new widget description").build();
+    when(widgetRepository.upsert(any(), any())).thenReturn(Optional.of(widget.toBuilder().version(5L).build()));
+
+    WidgetWriteResult result = widgetService.upsertWidget("Widgette Nielson", widget);
+
+    assertThat(result.isCreated()).isFalse();
+    assertThat(result.getWidget().getVersion()).isEqualTo(5L);
+  }
+
+  @Test
+  public void when_upsertWidget_otherName_expect_invalidRequest() throws Exception {
+    Widget widget = Widget.builder().name("Widgette Nielson").price(new BigDecimal("20.0")).description("new widget description").build();
+
+    assertThatThrownBy(() -> widgetService.upsertWidget("Other widget", widget))
+            .isInstanceOf(InvalidRequestException.class);
+    verify(widgetRepository, never()).upsert(any(), any());
+  }
+
   @Test
   public void when_deleteWidgetByName_expect_widget() throws Exception {
     Widget widget = Widget.builder().name("Widgette Nielson").price(new BigDecimal("20.0")).description("updated widget description").build();
-    when(widgetRepository.findByNameIgnoreCase(any())).thenReturn(Optional.of(widget));
+    when(widgetRepository.findByNormalizedName(any())).thenReturn(Optional.of(widget));
 
     Widget deleted = widgetService.deleteWidgetByName(widget.getName());
 
@@ -114,7 +308,7 @@ public class WidgetServiceTests {
   @Test
   public void when_deleteWidgetByName_expect_notFound() throws Exception {
     Widget widget = Widget.builder().name("Widgette Nielson").price(new BigDecimal("20.0")).description("updated widget description").build();
-    when(widgetRepository.findByNameIgnoreCase(any())).thenReturn(Optional.empty());
+    when(widgetRepository.findByNormalizedName(any())).thenReturn(Optional.empty());
 
     assertThatThrownBy(() ->widgetService.deleteWidgetByName(widget.getName()))
             .isInstanceOf(ElementNotFoundException.class)
@@ -0,0 +1,62 @@
+package com.talentreef.interviewquestions.takehome.services;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
+import com.talentreef.interviewquestions.takehome.models.Widget;
+import com.talentreef.interviewquestions.takehome.models.WidgetStats;
+import org.junit.Test;
+
+import java.math.BigDecimal;
+
+public class WidgetStatisticsTests {
+
+  final private WidgetStatistics widgetStatistics = new WidgetStatistics();
+
+  @Test
+  public void when_widgetsAdded_expect_aggregates() throws Exception {
+    for (int i = 1; i <= 100; i++) {
+      widgetStatistics.add(widget("widget " + i, i + ".00"));
+    }
+
+    WidgetStats stats = widgetStatistics.getStats();
+
+    assertThat(stats.getCount()).isEqualTo(100);
+    assertThat(stats.getMinPrice()).isEqualTo(new BigDecimal("1.00"));
+    assertThat(stats.getMaxPrice()).isEqualTo(new BigDecimal("100.00"));
+    assertThat(stats.getAveragePrice()).isEqualTo(new BigDecimal("50.50"));
+    assertThat(stats.getMedianPrice().doubleValue()).isCloseTo(50.0, within(0.5));
+    assertThat(stats.getP90Price().doubleValue()).isCloseTo(90.0, within(0.9));
+  }
+
+  @Test
+  public void when_widgetsUpdatedAndRemoved_expect_aggregatesFollow() throws Exception {
+    widgetStatistics.add(widget("Cheap widget", "1.00"));
+    widgetStatistics.add(widget("Middle widget", "10.00"));
+    widgetStatistics.add(widget("Expensive widget", "100.00"));
+
+    widgetStatistics.add(widget("CHEAP WIDGET", "20.00"));
+    widgetStatistics.remove("expensive widget");
+    WidgetStats stats = widgetStatistics.getStats();
+
+    assertThat(stats.getCount()).isEqualTo(2);
+    assertThat(stats.getMinPrice()).isEqualTo(new BigDecimal("10.00"));
+    assertThat(stats.getMaxPrice()).isEqualTo(new BigDecimal("20.00"));
+    assertThat(stats.getAveragePrice()).isEqualTo(new BigDecimal("15.00"));
+  }
+
+  @Test
+  public void when_allRemoved_expect_emptyStats() throws Exception {
+    widgetStatistics.add(widget("Only widget", "10.00"));
+    widgetStatistics.getStats();
+
+    widgetStatistics.remove("only widget");
+
+    assertThat(widgetStatistics.getStats().getCount()).isZero();
+    assertThat(widgetStatistics.getStats().getMinPrice()).isNull();
+  }
+
+  private static Widget widget(String name, String price) {
+    return Widget.builder().name(name).description("statistics widget").price(new BigDecimal(price)).build();
+  }
+}
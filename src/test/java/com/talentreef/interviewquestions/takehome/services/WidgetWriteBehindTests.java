@@ -0,0 +1,229 @@
+package com.talentreef.interviewquestions.takehome.services;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.talentreef.interviewquestions.takehome.events.WidgetChangedEvent;
+import com.talentreef.interviewquestions.takehome.events.WidgetsFlushedEvent;
+import com.talentreef.interviewquestions.takehome.models.Widget;
+import com.talentreef.interviewquestions.takehome.respositories.WidgetRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.mockito.ArgumentCaptor;
+import org.springframework.context.ApplicationEventPublisher;
+
+import java.math.BigDecimal;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+
+public class WidgetWriteBehindTests {
+
+  @Rule
+  public TemporaryFolder folder = new TemporaryFolder();
+
+  private final WidgetRepository widgetRepository = mock(WidgetRepository.class);
+
+  private final ApplicationEventPublisher eventPublisher = mock(ApplicationEventPublisher.class);
+
+  private final List<WidgetWriteBehind> started = new ArrayList<>();
+
+  private Path journal;
+
+  @Before
+  public void setUp() throws Exception {
+    journal = folder.newFolder("journal").toPath();
+    when(widgetRepository.findByNormalizedName("widgette nielson"))
+        .thenReturn(Optional.of(stored("Widgette Nielson", "10.00", 1L)));
+    when(widgetRepository.overwriteAll(anyList())).thenReturn(List.of());
+  }
+
+  @After
+  public void tearDown() throws Exception {
+    for (WidgetWriteBehind writeBehind : started) {
+      writeBehind.shutdown();
+    }
+  }
+
+  @Test
+  public void when_updatedRepeatedly_expect_oneCoalescedWrite() throws Exception {
+    WidgetWriteBehind writeBehind = start();
+
+    writeBehind.update("widgette nielson", null, new BigDecimal("11.00"), null);
+    writeBehind.update("widgette nielson", null, new BigDecimal("12.00"), 2L);
+    Optional<Widget> last = writeBehind.update("widgette nielson", "new description", null, null);
+
+    assertThat(last).get().extracting(Widget::getVersion).isEqualTo(4L);
+    assertThat(writeBehind.get("widgette nielson")).contains(last.get());
+    assertThat(writeBehind.pendingCount()).isEqualTo(1);
+
+    writeBehind.flush();
+
+    assertThat(flushed()).containsExactly(last.get());
+    assertThat(writeBehind.get("widgette nielson")).isEmpty();
+    verify(widgetRepository, times(1)).findByNormalizedName("widgette nielson");
+  }
+
+  @Test
+  public void when_versionStale_expect_empty() throws Exception {
+    WidgetWriteBehind writeBehind = start();
+
+    assertThat(writeBehind.update("widgette nielson", null, new BigDecimal("11.00"), 5L)).isEmpty();
+    assertThat(writeBehind.update("missing widget", null, new BigDecimal("11.00"), null)).isEmpty();
+    assertThat(writeBehind.pendingCount()).isZero();
+  }
+
+  @Test
+  public void when_flushFails_expect_updateKeptForNextFlush() throws Exception {
+    WidgetWriteBehind writeBehind = start();
+    when(widgetRepository.overwriteAll(anyList()))
+        .thenThrow(new IllegalStateException("database unavailable"))
+        .thenReturn(List.of());
+    writeBehind.update("widgette nielson", null, new BigDecimal("11.00"), null);
+
+    writeBehind.flush();
+    assertThat(writeBehind.get("widgette nielson")).isPresent();
+    assertThat(writeBehind.lagSeconds()).isPositive();
+
+    writeBehind.flush();
+    assertThat(writeBehind.get("widgette nielson")).isEmpty();
+    assertThat(writeBehind.lagSeconds()).isZero();
+  }
+
+  @Test
+  public void when_flushed_expect_catalogVersionBumped() throws Exception {
+    CatalogVersion catalogVersion = new CatalogVersion();
+    doAnswer(invocation -> {
+      catalogVersion.onWidgetsFlushed(invocation.getArgument(0));
+      return null;
+    }).when(eventPublisher).publishEvent(any(WidgetsFlushedEvent.class));
+    WidgetWriteBehind writeBehind = start();
+    writeBehind.update("widgette nielson", null, new BigDecimal("11.00"), null);
+    long acknowledged = catalogVersion.current();
+
+    writeBehind.flush();
+
+    assertThat(catalogVersion.current()).isGreaterThan(acknowledged);
+  }
+
+  @Test
+  public void when_flushLandsDuringUpdate_expect_updateBuiltOnFlushedRow() throws Exception {
+    WidgetWriteBehind writeBehind = start();
+    AtomicReference<Widget> row = new AtomicReference<>(stored("Widgette Nielson", "10.00", 1L));
+    when(widgetRepository.overwriteAll(anyList())).thenAnswer(invocation -> {
+      List<Widget> widgets = invocation.getArgument(0);
+      widgets.forEach(row::set);
+      return List.of();
+    });
+    AtomicBoolean firstRead = new AtomicBoolean(true);
+    CountDownLatch concurrentDone = new CountDownLatch(1);
+    when(widgetRepository.findByNormalizedName("widgette nielson")).thenAnswer(invocation -> {
+      Widget read = row.get();
+      if (firstRead.getAndSet(false)) {
+        // Another update that is applied and flushed while this one holds the row it read
+        new Thread(() -> {
+          writeBehind.update("widgette nielson", null, new BigDecimal("12.00"), null);
+          writeBehind.flush();
+          concurrentDone.countDown();
+        }).start();
+        concurrentDone.await(200, TimeUnit.MILLISECONDS);
+      }
+      return Optional.of(read);
+    });
+
+    writeBehind.update("widgette nielson", "new description", null, null);
+    assertThat(concurrentDone.await(5, TimeUnit.SECONDS)).isTrue();
+    writeBehind.flush();
+
+    assertThat(row.get()).extracting(Widget::getDescription, Widget::getPrice, Widget::getVersion)
+        .containsExactly("new description", new BigDecimal("12.00"), 3L);
+  }
+
+  @Test
+  public void when_flushSkipped_expect_updateDroppedAndStoredStateRepublished() throws Exception {
+    WidgetWriteBehind writeBehind = start();
+    writeBehind.update("widgette nielson", null, new BigDecimal("11.00"), null);
+    Widget replaced = stored("Widgette Nielson", "20.00", 5L);
+    when(widgetRepository.findByNormalizedName("widgette nielson")).thenReturn(Optional.of(replaced));
+    when(widgetRepository.overwriteAll(anyList())).thenReturn(List.of("widgette nielson"));
+
+    writeBehind.flush();
+
+    assertThat(writeBehind.get("widgette nielson")).isEmpty();
+    assertThat(writeBehind.pendingCount()).isZero();
+    verify(eventPublisher).publishEvent(new WidgetChangedEvent(WidgetChangedEvent.Type.UPDATED, replaced));
+    verify(eventPublisher, never()).publishEvent(any(WidgetsFlushedEvent.class));
+  }
+
+  @Test
+  public void when_flushSkippedForDeletedWidget_expect_deletionNotPublishedAgain() throws Exception {
+    WidgetWriteBehind writeBehind = start();
+    writeBehind.update("widgette nielson", null, new BigDecimal("11.00"), null);
+    when(widgetRepository.findByNormalizedName("widgette nielson")).thenReturn(Optional.empty());
+    when(widgetRepository.overwriteAll(anyList())).thenReturn(List.of("widgette nielson"));
+
+    writeBehind.flush();
+
+    assertThat(writeBehind.get("widgette nielson")).isEmpty();
+    verify(eventPublisher, never()).publishEvent(any(WidgetChangedEvent.class));
+  }
+
+  @Test
+  public void when_restartedWithoutFlush_expect_journalReplayed() throws Exception {
+    WidgetWriteBehind crashed = new WidgetWriteBehind(widgetRepository, eventPublisher, new SimpleMeterRegistry(),
+        true, Duration.ofHours(1), journal, true);
+    crashed.afterSingletonsInstantiated();
+    crashed.update("widgette nielson", null, new BigDecimal("11.00"), null);
+    crashed.update("widgette nielson", null, new BigDecimal("12.00"), null);
+
+    start();
+
+    assertThat(flushed()).extracting(Widget::getPrice, Widget::getVersion)
+        .containsExactly(tuple(new BigDecimal("12.00"), 3L));
+    verify(eventPublisher, times(1)).publishEvent(any(WidgetChangedEvent.class));
+    assertThat(WidgetWriteJournal.segments(journal)).hasSize(1);
+  }
+
+  private WidgetWriteBehind start() {
+    WidgetWriteBehind writeBehind = new WidgetWriteBehind(widgetRepository, eventPublisher, new SimpleMeterRegistry(),
+        true, Duration.ofHours(1), journal, false);
+    writeBehind.afterSingletonsInstantiated();
+    started.add(writeBehind);
+    return writeBehind;
+  }
+
+  @SuppressWarnings("unchecked")
+  private List<Widget> flushed() {
+    ArgumentCaptor<List<Widget>> widgets = ArgumentCaptor.forClass(List.class);
+    verify(widgetRepository, times(1)).overwriteAll(widgets.capture());
+    return widgets.getValue();
+  }
+
+  private static Widget stored(String name, String price, Long version) {
+    return Widget.builder()
+        .name(name)
+        .normalizedName(Widget.normalize(name))
+        .description("stored description")
+        .price(new BigDecimal(price))
+        .version(version)
+        .build();
+  }
+}
@@ -0,0 +1,43 @@
+package com.talentreef.interviewquestions.takehome.snapshot;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import com.talentreef.interviewquestions.takehome.models.Widget;
+import org.junit.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+
+public class WidgetSnapshotFormatTests {
+
+  @Test
+  public void when_widgetsWritten_expect_sameWidgetsRead() throws Exception {
+    List<Widget> widgets = List.of(
+        Widget.builder().name("Widgette Nielson").description("plain description").price(new BigDecimal("20.00")).version(3L).build(),
+        Widget.builder().name("Größe widget").description("déscription with ünicode ✓").price(new BigDecimal("19999.99")).build());
+    ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    try (WidgetSnapshotFormat.Output output = WidgetSnapshotFormat.open(bytes)) {
+      for (Widget widget : widgets) {
+        output.write(widget);
+      }
+    }
+
+    List<Widget> read = new ArrayList<>();
+    long rows = WidgetSnapshotFormat.read(ByteBuffer.wrap(bytes.toByteArray()), (name, description, priceCents, version) ->
+        read.add(Widget.builder().name(name).description(description).price(BigDecimal.valueOf(priceCents, 2)).version(version).build()));
+
+    assertThat(rows).isEqualTo(2);
+    assertThat(read).containsExactly(widgets.get(0), widgets.get(1).toBuilder().version(0L).build());
+  }
+
+  @Test
+  public void when_notASnapshot_expect_rejected() throws Exception {
+    assertThatThrownBy(() -> WidgetSnapshotFormat.read(ByteBuffer.wrap("name,price\n".getBytes()), (name, description, priceCents, version) -> { }))
+        .isInstanceOf(IllegalArgumentException.class)
+        .hasMessage("Not a widget snapshot");
+  }
+}